@@ -0,0 +1,82 @@
+package com.pluralsight;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Fills a local northwind or sakila database with production-sized, skewed data, so the explorers' performance work
+ * can be measured against more than the tiny sample schemas.
+ * <p>
+ * Usage: java com.pluralsight.Main &lt;username&gt; &lt;password&gt; &lt;sqlUrl&gt; &lt;northwind|sakila&gt;
+ * <p>
+ * Settings:
+ * <pre>
+ * -Dgen.mode        LOAD_DATA (default, needs local_infile=ON on the server) or BATCH
+ * -Dgen.threads     loader threads and connections (available processors, at most 8)
+ * -Dgen.chunkSize   rows per LOAD DATA or batch, each in its own transaction (20000)
+ * -Dgen.seed        the same seed generates the same rows (42)
+ * -Dgen.skew        Zipf exponent for popularity, countries and names (1.1)
+ * -Dgen.products    northwind Products rows (10000000)
+ * -Dgen.customers   northwind Customers rows (1000000)
+ * -Dgen.actors      sakila actors (20000)
+ * -Dgen.films       sakila films, each with a cast (45000)
+ * -Dgen.castSize    average actors per film (5)
+ * -Dgen.widenIds    widen sakila's SMALLINT actor and film ids first, needed above 65,535 of either (false)
+ * </pre>
+ * For 10M cast rows: -Dgen.widenIds=true -Dgen.films=2000000. Point it at a local instance only: generated rows are
+ * added to the sample data and there is no undo other than reloading the schema.
+ */
+public class Main {
+
+    public static void main(String[] args) {
+        if (args.length != 4 || !List.of("northwind", "sakila").contains(args[3])) {
+            System.out.println("Usage: java com.pluralsight.Main <username> <password> <sqlUrl> <northwind|sakila>");
+            System.exit(1);
+        }
+
+        TableLoader.Mode mode = TableLoader.Mode.valueOf(System.getProperty("gen.mode", "LOAD_DATA"));
+        int threads = Integer.getInteger("gen.threads", Math.min(8, Runtime.getRuntime().availableProcessors()));
+        int chunkSize = Integer.getInteger("gen.chunkSize", 20_000);
+        long seed = Long.getLong("gen.seed", 42);
+        double skew = Double.parseDouble(System.getProperty("gen.skew", "1.1"));
+
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setUrl(TableLoader.withLoadSettings(args[2]));
+        dataSource.setUsername(args[0]);
+        dataSource.setPassword(args[1]);
+        dataSource.setMaxTotal(threads + 1);
+        // Generated rows point at rows that exist, so checking every key and foreign key is wasted work
+        dataSource.setConnectionInitSqls(List.of("SET SESSION unique_checks = 0, foreign_key_checks = 0"));
+
+        TableLoader loader = new TableLoader(dataSource, mode, threads, chunkSize, seed);
+        long started = System.nanoTime();
+        try (dataSource) {
+            long rows;
+            if (args[3].equals("northwind")) {
+                rows = new NorthwindGenerator(dataSource, loader, skew).generate(
+                        Long.getLong("gen.products", 10_000_000), Long.getLong("gen.customers", 1_000_000));
+            } else {
+                rows = new SakilaGenerator(dataSource, loader, skew).generate(
+                        Long.getLong("gen.actors", 20_000), Long.getLong("gen.films", 45_000),
+                        Integer.getInteger("gen.castSize", 5), Boolean.getBoolean("gen.widenIds"));
+            }
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Done: %,d row(s) in %.1f s (%,.0f rows/sec)%n", rows, seconds, rows / Math.max(seconds, 0.001));
+        } catch (SQLException e) {
+            System.out.println("Generating data failed: " + e.getMessage());
+            if (mode == TableLoader.Mode.LOAD_DATA) {
+                System.out.println("If the server refuses LOAD DATA LOCAL, enable local_infile or run with -Dgen.mode=BATCH");
+            }
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.pluralsight;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Adds generated Products and Customers to the northwind schema, next to the sample rows.
+ * <p>
+ * Skew follows the sample data: a few categories and suppliers have most of the products, most customers live in
+ * the first few countries, prices are log-normal around 20 and about one product in seven is out of stock.
+ * Products get AUTO_INCREMENT ids. Customers need five-character ids; generated ones start with a digit (the
+ * sample's are all letters), which leaves room for 16.8 million customers, and a second run continues after the first.
+ */
+public class NorthwindGenerator {
+
+    // The sample's Categories and Suppliers rows, which generated products point at
+    private static final int CATEGORY_COUNT = 8;
+    private static final int SUPPLIER_COUNT = 29;
+
+    private static final long MAX_GENERATED_CUSTOMERS = 10L * 36 * 36 * 36 * 36;
+    private static final String ID_CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "ProductName", "SupplierID", "CategoryID", "QuantityPerUnit", "UnitPrice", "UnitsInStock");
+    private static final List<String> CUSTOMER_COLUMNS = List.of(
+            "CustomerID", "CompanyName", "ContactName", "City", "Country", "Phone");
+
+    private final DataSource dataSource;
+    private final TableLoader loader;
+
+    private final ZipfDistribution categories;
+    private final ZipfDistribution suppliers;
+    private final ZipfDistribution countries;
+    private final ZipfDistribution firstNames;
+    private final ZipfDistribution lastNames;
+
+    public NorthwindGenerator(DataSource dataSource, TableLoader loader, double skew) {
+        this.dataSource = dataSource;
+        this.loader = loader;
+        this.categories = new ZipfDistribution(CATEGORY_COUNT, skew);
+        this.suppliers = new ZipfDistribution(SUPPLIER_COUNT, skew);
+        this.countries = new ZipfDistribution(Vocabulary.COUNTRIES.size(), skew);
+        this.firstNames = new ZipfDistribution(Vocabulary.FIRST_NAMES.size(), skew);
+        this.lastNames = new ZipfDistribution(Vocabulary.LAST_NAMES.size(), skew);
+    }
+
+    /**
+     * Loads the products, then the customers
+     *
+     * @return rows inserted
+     */
+    public long generate(long productCount, long customerCount) throws SQLException, InterruptedException {
+        long firstCustomer = generatedCustomerCount();
+        if (firstCustomer + customerCount > MAX_GENERATED_CUSTOMERS) {
+            throw new IllegalArgumentException("Customers has room for " + (MAX_GENERATED_CUSTOMERS - firstCustomer) +
+                    " more generated ids, " + customerCount + " were asked for");
+        }
+
+        long rows = loader.load("Products", PRODUCT_COLUMNS, productCount, this::product);
+        rows += loader.load("Customers", CUSTOMER_COLUMNS, customerCount,
+                (unit, random, out) -> customer(firstCustomer + unit, random, out));
+        return rows;
+    }
+
+    private void product(long unit, SplittableRandom random, TableLoader.RowSink out) {
+        String name = pick(Vocabulary.PRODUCT_ADJECTIVES, random) + " " + pick(Vocabulary.PRODUCT_NOUNS, random) +
+                " " + (unit + 1);
+
+        // Log-normal: most prices near 20, a long tail of expensive ones
+        double price = Math.min(300, Math.max(2.5, Math.exp(Math.log(20) + 0.9 * random.nextGaussian())));
+        int unitsInStock = random.nextInt(7) == 0 ? 0 : (int) Math.min(32_000, -40 * Math.log(1 - random.nextDouble()));
+
+        out.row(name, suppliers.sample(random), categories.sample(random), pick(Vocabulary.QUANTITIES, random),
+                BigDecimal.valueOf(Math.round(price * 100), 2), unitsInStock);
+    }
+
+    private void customer(long number, SplittableRandom random, TableLoader.RowSink out) {
+        Vocabulary.Country country = Vocabulary.COUNTRIES.get(countries.sampleIndex(random));
+        List<String> cities = country.getCities();
+
+        String companyName = pick(Vocabulary.COMPANY_WORDS, random) + " " + pick(Vocabulary.COMPANY_SUFFIXES, random);
+        String contactName = Vocabulary.FIRST_NAMES.get(firstNames.sampleIndex(random)) + " " +
+                Vocabulary.LAST_NAMES.get(lastNames.sampleIndex(random));
+        String phone = String.format("(%d) %03d-%04d", 1 + random.nextInt(99), random.nextInt(1000),
+                random.nextInt(10_000));
+
+        // The first city of a country is its biggest market, like the country list itself
+        out.row(customerId(number), companyName, contactName, cities.get(Math.min(cities.size() - 1,
+                (int) (cities.size() * random.nextDouble() * random.nextDouble()))), country.getName(), phone);
+    }
+
+    /**
+     * Generated id number n as a digit followed by four base-36 characters, e.g. 0 is "00000" and 36 is "00010"
+     */
+    static String customerId(long n) {
+        char[] id = new char[5];
+        long rest = n;
+        for (int i = 4; i >= 1; i--) {
+            id[i] = ID_CHARACTERS.charAt((int) (rest % 36));
+            rest /= 36;
+        }
+        id[0] = ID_CHARACTERS.charAt((int) rest);
+        return new String(id);
+    }
+
+    /**
+     * How many generated customers earlier runs added, so ids continue after them
+     */
+    private long generatedCustomerCount() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT COUNT(*) FROM Customers WHERE CustomerID BETWEEN '00000' AND '9ZZZZ'")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String pick(List<String> words, SplittableRandom random) {
+        return words.get(random.nextInt(words.size()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.pluralsight;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Adds generated actors, films and casts (film_actor) to the sakila schema, next to the sample rows.
+ * <p>
+ * Actor popularity is Zipfian: casts are drawn so a few actors appear in a large share of all films and most appear
+ * in a handful, and surnames are skewed the same way so last-name lookups return a realistic mix of tiny and large
+ * result sets. Descriptions follow the sample's sentence pattern, so keyword searches behave like they do on the
+ * sample. New ids continue after the current highest ones.
+ * <p>
+ * actor_id and film_id are SMALLINT UNSIGNED in the stock schema, so actors and films top out at 65,535 and a cast
+ * table of 10M+ rows needs wider ids; widenIds changes them (and the columns that reference them) to INT UNSIGNED
+ * first. That ALTER rewrites film_actor, film_category, film_text and inventory, and only works with foreign key
+ * checks off, which the generator's connections have.
+ */
+public class SakilaGenerator {
+
+    private static final long MAX_SMALLINT_ID = 65_535;
+
+    private static final List<String> WIDEN_IDS_SQL = List.of(
+            "ALTER TABLE actor MODIFY actor_id INT UNSIGNED NOT NULL AUTO_INCREMENT",
+            "ALTER TABLE film MODIFY film_id INT UNSIGNED NOT NULL AUTO_INCREMENT",
+            "ALTER TABLE film_actor MODIFY actor_id INT UNSIGNED NOT NULL, MODIFY film_id INT UNSIGNED NOT NULL",
+            "ALTER TABLE film_category MODIFY film_id INT UNSIGNED NOT NULL",
+            "ALTER TABLE inventory MODIFY film_id INT UNSIGNED NOT NULL",
+            "ALTER TABLE film_text MODIFY film_id INT UNSIGNED NOT NULL");
+
+    private static final List<String> ACTOR_COLUMNS = List.of("actor_id", "first_name", "last_name");
+    private static final List<String> FILM_COLUMNS = List.of("film_id", "title", "description", "release_year",
+            "language_id", "rental_duration", "rental_rate", "length", "replacement_cost", "rating");
+    private static final List<String> CAST_COLUMNS = List.of("actor_id", "film_id");
+
+    private static final BigDecimal[] RENTAL_RATES = {
+            new BigDecimal("0.99"), new BigDecimal("2.99"), new BigDecimal("4.99")};
+
+    private final DataSource dataSource;
+    private final TableLoader loader;
+    private final double skew;
+
+    private final ZipfDistribution firstNames;
+    private final ZipfDistribution lastNames;
+
+    public SakilaGenerator(DataSource dataSource, TableLoader loader, double skew) {
+        this.dataSource = dataSource;
+        this.loader = loader;
+        this.skew = skew;
+        this.firstNames = new ZipfDistribution(Vocabulary.ACTOR_FIRST_NAMES.size(), skew);
+        this.lastNames = new ZipfDistribution(Vocabulary.ACTOR_LAST_NAMES.size(), skew);
+    }
+
+    /**
+     * Loads the actors, the films, then a cast of 1 to (2 * averageCast - 1) actors for each new film
+     *
+     * @param widenIds widen actor_id and film_id to INT UNSIGNED first, for more than 65,535 actors or films
+     * @return rows inserted
+     */
+    public long generate(long actorCount, long filmCount, int averageCast, boolean widenIds)
+            throws SQLException, InterruptedException {
+        long maxActorId = maxId("actor", "actor_id");
+        long maxFilmId = maxId("film", "film_id");
+
+        if (widenIds) {
+            widenIds();
+        } else if (maxActorId + actorCount > MAX_SMALLINT_ID || maxFilmId + filmCount > MAX_SMALLINT_ID) {
+            throw new IllegalArgumentException("actor_id and film_id stop at " + MAX_SMALLINT_ID + " (currently " +
+                    maxActorId + " and " + maxFilmId + "); run with -Dgen.widenIds=true for more actors or films");
+        }
+
+        long totalActors = maxActorId + actorCount;
+        if (totalActors == 0) {
+            throw new IllegalArgumentException("There are no actors to cast");
+        }
+        ZipfDistribution popularity = new ZipfDistribution(totalActors, skew);
+        long stride = coprimeStride(totalActors);
+        int maxCast = (int) Math.min(2L * averageCast - 1, totalActors);
+
+        long rows = loader.load("actor", ACTOR_COLUMNS, actorCount,
+                (unit, random, out) -> out.row(maxActorId + 1 + unit,
+                        Vocabulary.ACTOR_FIRST_NAMES.get(firstNames.sampleIndex(random)),
+                        Vocabulary.ACTOR_LAST_NAMES.get(lastNames.sampleIndex(random))));
+        rows += loader.load("film", FILM_COLUMNS, filmCount,
+                (unit, random, out) -> film(maxFilmId + 1 + unit, random, out));
+        rows += loader.load("film_actor", CAST_COLUMNS, filmCount,
+                (unit, random, out) -> cast(maxFilmId + 1 + unit, maxCast, popularity, stride, totalActors, random, out));
+        return rows;
+    }
+
+    private static void film(long filmId, SplittableRandom random, TableLoader.RowSink out) {
+        String title = pick(Vocabulary.TITLE_WORDS, random) + " " + pick(Vocabulary.TITLE_WORDS, random);
+        String description = "A " + pick(Vocabulary.DESCRIPTION_ADJECTIVES, random) + " " +
+                pick(Vocabulary.DESCRIPTION_GENRES, random) + " of a " + pick(Vocabulary.DESCRIPTION_ROLES, random) +
+                " And a " + pick(Vocabulary.DESCRIPTION_ROLES, random) + " who must " +
+                pick(Vocabulary.DESCRIPTION_VERBS, random) + " a " + pick(Vocabulary.DESCRIPTION_ROLES, random) +
+                " in " + pick(Vocabulary.DESCRIPTION_PLACES, random);
+
+        out.row(filmId, title, description, 2006 + random.nextInt(19), 1, 3 + random.nextInt(5),
+                RENTAL_RATES[random.nextInt(RENTAL_RATES.length)], 46 + random.nextInt(140),
+                new BigDecimal(9 + random.nextInt(21) + ".99"), pick(Vocabulary.RATINGS, random));
+    }
+
+    /**
+     * A film's cast: distinct actors, popular ones far more likely
+     */
+    private static void cast(long filmId, int maxCast, ZipfDistribution popularity, long stride, long totalActors,
+                             SplittableRandom random, TableLoader.RowSink out) {
+        int size = 1 + random.nextInt(maxCast);
+        long[] cast = new long[size];
+        for (int i = 0; i < size; i++) {
+            long actorId;
+            do {
+                // Spreads popularity ranks over all ids, so the stars aren't simply the oldest actors
+                actorId = 1 + (popularity.sample(random) - 1) * stride % totalActors;
+            } while (contains(cast, i, actorId));
+            cast[i] = actorId;
+            out.row(actorId, filmId);
+        }
+    }
+
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A stride with no common factor with n, so rank * stride mod n visits every id exactly once
+     */
+    private static long coprimeStride(long n) {
+        long stride = Math.max(1, (long) (n * 0.618));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private long maxId(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void widenIds() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : WIDEN_IDS_SQL) {
+                System.out.println(sql);
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static String pick(List<String> words, SplittableRandom random) {
+        return words.get(random.nextInt(words.size()));
+    }
+}
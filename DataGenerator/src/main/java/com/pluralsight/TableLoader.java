@@ -0,0 +1,278 @@
+package com.pluralsight;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a table's rows in chunks and loads the chunks on several threads at once, each on its own connection and
+ * in its own transaction.
+ * <p>
+ * Two ways to load a chunk:
+ * <ul>
+ *     <li>LOAD_DATA: the chunk is written as tab-separated text in memory and streamed to
+ *     LOAD DATA LOCAL INFILE, with no temporary file. Fastest; needs local_infile=ON on the server and
+ *     allowLoadLocalInfile=true in the URL</li>
+ *     <li>BATCH: a batched INSERT, which rewriteBatchedStatements turns into a few multi-row INSERTs. Works
+ *     everywhere</li>
+ * </ul>
+ * Every chunk has its own random generator seeded from the table seed and the chunk number, so the same seed
+ * produces the same rows however many threads there are.
+ */
+public class TableLoader {
+
+    /**
+     * How chunks are sent to MySQL
+     */
+    public enum Mode { LOAD_DATA, BATCH }
+
+    private final DataSource dataSource;
+    private final Mode mode;
+    private final int threads;
+    private final int chunkSize;
+    private final long seed;
+
+    public TableLoader(DataSource dataSource, Mode mode, int threads, int chunkSize, long seed) {
+        this.dataSource = dataSource;
+        this.mode = mode;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates and loads count units of the source (a unit is usually one row; see {@link RowSource}) and prints
+     * progress and throughput
+     *
+     * @return rows inserted
+     */
+    public long load(String table, List<String> columns, long count, RowSource source)
+            throws SQLException, InterruptedException {
+        if (count <= 0) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        AtomicLong unitsDone = new AtomicLong();
+        long chunks = (count + chunkSize - 1) / chunkSize;
+        long tableSeed = seed ^ table.hashCode() * 0x9E3779B97F4A7C15L;
+
+        System.out.printf("%-12s %,d unit(s) in %,d chunk(s) on %d thread(s), %s%n", table, count, chunks, threads, mode);
+
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long first = chunk * chunkSize;
+                long last = Math.min(count, first + chunkSize);
+                SplittableRandom random = new SplittableRandom(tableSeed + chunk);
+                futures.add(executor.submit(() -> {
+                    rows.addAndGet(loadChunk(table, columns, first, last, source, random));
+                    printProgress(table, unitsDone, last - first, count, rows.get(), started);
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("Loading " + table + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-12s %,d row(s) in %.1f s (%,.0f rows/sec)%n", table, rows.get(), seconds,
+                rows.get() / Math.max(seconds, 0.001));
+        return rows.get();
+    }
+
+    private long loadChunk(String table, List<String> columns, long first, long last, RowSource source,
+                           SplittableRandom random) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long rows = mode == Mode.LOAD_DATA
+                        ? loadData(connection, table, columns, first, last, source, random)
+                        : insertBatch(connection, table, columns, first, last, source, random);
+                connection.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static long loadData(Connection connection, String table, List<String> columns, long first, long last,
+                                 RowSource source, SplittableRandom random) throws SQLException {
+        TsvSink sink = new TsvSink(columns.size());
+        for (long unit = first; unit < last; unit++) {
+            source.generate(unit, random, sink);
+        }
+
+        String sql = "LOAD DATA LOCAL INFILE 'generated.tsv' INTO TABLE " + table + " CHARACTER SET utf8mb4" +
+                " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'" +
+                " (" + String.join(", ", columns) + ")";
+        try (Statement statement = connection.createStatement()) {
+            // Connector/J reads the "file" from this stream instead of the file system
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(
+                    new ByteArrayInputStream(sink.text.toString().getBytes(StandardCharsets.UTF_8)));
+            statement.execute(sql);
+        }
+        return sink.rows;
+    }
+
+    private static long insertBatch(Connection connection, String table, List<String> columns, long first, long last,
+                                    RowSource source, SplittableRandom random) throws SQLException {
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            BatchSink sink = new BatchSink(ps);
+            for (long unit = first; unit < last; unit++) {
+                source.generate(unit, random, sink);
+            }
+            if (sink.failure != null) {
+                throw sink.failure;
+            }
+            ps.executeBatch();
+            return sink.rows;
+        }
+    }
+
+    private static synchronized void printProgress(String table, AtomicLong unitsDone, long units, long count,
+                                                   long rows, long started) {
+        // Whenever another 10% is done; counted under the lock so lines come out in order
+        long done = unitsDone.addAndGet(units);
+        long step = Math.max(1, count / 10);
+        if (done / step != (done - units) / step) {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%-12s %3d%%  %,d row(s), %,.0f rows/sec%n", table, done * 100 / count, rows,
+                    rows / Math.max(seconds, 0.001));
+        }
+    }
+
+    /**
+     * Adds rewriteBatchedStatements=true and allowLoadLocalInfile=true to a JDBC URL unless they are already set
+     */
+    public static String withLoadSettings(String url) {
+        StringBuilder result = new StringBuilder(url);
+        for (String setting : new String[]{"rewriteBatchedStatements=true", "allowLoadLocalInfile=true"}) {
+            if (!url.contains(setting.substring(0, setting.indexOf('=')))) {
+                result.append(result.indexOf("?") >= 0 ? "&" : "?").append(setting);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Produces the rows of one unit: usually a single row, but a film's cast, for example, is one unit of several
+     * film_actor rows. Must only use the given random generator, so output depends on the seed alone
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void generate(long unit, SplittableRandom random, RowSink out);
+    }
+
+    /**
+     * Receives generated rows, values in column order. null becomes SQL NULL
+     */
+    public interface RowSink {
+        void row(Object... values);
+    }
+
+    /**
+     * Collects rows as LOAD DATA text: tab-separated, newline-terminated, \N for NULL, special characters escaped
+     */
+    private static final class TsvSink implements RowSink {
+        private final StringBuilder text = new StringBuilder(1 << 20);
+        private final int columns;
+        private long rows;
+
+        private TsvSink(int columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void row(Object... values) {
+            if (values.length != columns) {
+                throw new IllegalArgumentException("Expected " + columns + " values, got " + values.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                Object value = values[i];
+                if (value == null) {
+                    text.append("\\N");
+                } else if (value instanceof String string) {
+                    escape(string);
+                } else {
+                    text.append(value);
+                }
+            }
+            text.append('\n');
+            rows++;
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\t' -> text.append("\\t");
+                    case '\n' -> text.append("\\n");
+                    case '\\' -> text.append("\\\\");
+                    default -> text.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds every row to the INSERT and adds it to the batch. JDBC errors are kept and thrown once the chunk is done
+     */
+    private static final class BatchSink implements RowSink {
+        private final PreparedStatement ps;
+        private long rows;
+        private SQLException failure;
+
+        private BatchSink(PreparedStatement ps) {
+            this.ps = ps;
+        }
+
+        @Override
+        public void row(Object... values) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    ps.setObject(i + 1, values[i]);
+                }
+                ps.addBatch();
+                rows++;
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+    }
+}
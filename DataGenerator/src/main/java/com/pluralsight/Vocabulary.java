@@ -0,0 +1,161 @@
+package com.pluralsight;
+
+import java.util.List;
+
+/**
+ * Word lists the generators draw from. Lists that are sampled with a Zipf distribution are ordered from most to least
+ * common, so their first entries dominate the way they do in the sample databases.
+ */
+public final class Vocabulary {
+
+    private Vocabulary() {
+    }
+
+    /**
+     * Northwind's customer countries, most customers first (the order of the sample data), each with a few cities
+     */
+    public static final List<Country> COUNTRIES = List.of(
+            new Country("USA", "Seattle", "Portland", "Boise", "San Francisco", "Anchorage", "Albuquerque", "Eugene"),
+            new Country("Germany", "Berlin", "München", "Frankfurt a.M.", "Köln", "Stuttgart", "Leipzig", "Aachen"),
+            new Country("France", "Paris", "Lyon", "Marseille", "Nantes", "Strasbourg", "Lille", "Toulouse"),
+            new Country("Brazil", "Sao Paulo", "Rio de Janeiro", "Resende", "Campinas"),
+            new Country("UK", "London", "Cowes", "Manchester", "Leeds"),
+            new Country("Spain", "Madrid", "Barcelona", "Sevilla"),
+            new Country("Mexico", "México D.F.", "Guadalajara", "Monterrey"),
+            new Country("Venezuela", "Caracas", "Barquisimeto", "San Cristóbal"),
+            new Country("Argentina", "Buenos Aires", "Córdoba"),
+            new Country("Italy", "Torino", "Bergamo", "Reggio Emilia", "Milano"),
+            new Country("Canada", "Montréal", "Tsawassen", "Vancouver", "Toronto"),
+            new Country("Finland", "Helsinki", "Oulu"),
+            new Country("Sweden", "Bräcke", "Luleå", "Stockholm"),
+            new Country("Belgium", "Bruxelles", "Charleroi"),
+            new Country("Portugal", "Lisboa", "Porto"),
+            new Country("Austria", "Graz", "Salzburg", "Wien"),
+            new Country("Switzerland", "Bern", "Genève", "Zürich"),
+            new Country("Denmark", "Århus", "København"),
+            new Country("Ireland", "Cork", "Dublin"),
+            new Country("Norway", "Stavanger", "Oslo"),
+            new Country("Poland", "Warszawa", "Kraków"));
+
+    public static final List<String> FIRST_NAMES = List.of(
+            "Maria", "Ana", "Thomas", "Christina", "Hanna", "Frédérique", "Martín", "Laurence", "Elizabeth", "Victoria",
+            "Patricio", "Francisco", "Yang", "Pedro", "Aria", "Diego", "Peter", "Carine", "Paolo", "Lino", "Janine",
+            "Carlos", "Felipe", "Helen", "Philip", "Daniel", "Annette", "Yoshi", "John", "Jaime", "Rene", "Henriette",
+            "Guillermo", "Alexander", "Simon", "Renate", "Paula", "Karl", "Matti", "Pirkko", "Zbyszek", "Liu",
+            "Jonas", "Palle", "Mary", "Sergio", "Art", "Jytte", "Fran", "Manuel");
+
+    public static final List<String> LAST_NAMES = List.of(
+            "Anders", "Trujillo", "Moreno", "Hardy", "Berglund", "Moos", "Citeaux", "Sommer", "Lebihan", "Lincoln",
+            "Ashworth", "Simpson", "Chang", "Wang", "Afonso", "Cruz", "Roel", "Franken", "Schmitt", "Accorti",
+            "Rodriguez", "Labrune", "Hernández", "Pereira", "Bennett", "Cramer", "Tonini", "Pontes", "Devon", "Ottlieb",
+            "Saveley", "Yorres", "Fresnière", "Müller", "Domingues", "Kloss", "Koskitalo", "Latimer", "Karttunen",
+            "Piestrzeniewicz", "Josephs", "Petersen", "Ibsen", "Saunders", "Nixon", "Rovelli", "Braunschweiger",
+            "Jablonski", "Wilson", "Pavarotti");
+
+    public static final List<String> COMPANY_WORDS = List.of(
+            "Alfreds", "Island", "Bottom-Dollar", "Blauer See", "Ernst", "Folk och fä", "Frankenversand", "Gourmet",
+            "Great Lakes", "Hungry Owl", "Lonesome Pine", "Königlich", "La maison", "Morgenstern", "North/South",
+            "Old World", "Piccolo", "Rattlesnake Canyon", "Save-a-lot", "Seven Seas", "Simons", "Split Rail",
+            "Suprêmes", "The Big Cheese", "Toms", "Vaffeljernet", "Wartian", "White Clover", "Wolski", "Ricardo");
+
+    public static final List<String> COMPANY_SUFFIXES = List.of(
+            "Futterkiste", "Trading", "Markets", "Delikatessen", "Handel", "HB", "Imports", "Grocery", "Foods",
+            "Store", "Specialties", "Market", "Delicatessen", "Comidas", "Supermarket", "Gourmandises");
+
+    public static final List<String> PRODUCT_ADJECTIVES = List.of(
+            "Original", "Organic", "Spicy", "Aged", "Smoked", "Sweet", "Dried", "Chef's", "Classic", "Grandma's",
+            "Northern", "Mountain", "Imperial", "Golden", "Louisiana", "Nordic", "Tuscan", "Queensland", "Alpine",
+            "Wild", "Country", "Roasted", "Pickled", "Fresh", "Royal");
+
+    public static final List<String> PRODUCT_NOUNS = List.of(
+            "Chai", "Syrup", "Seasoning", "Gumbo Mix", "Boysenberry Spread", "Pears", "Cranberry Sauce", "Kobe Niku",
+            "Ikura", "Queso", "Tofu", "Konbu", "Pavlova", "Biscuits", "Marmalade", "Coffee", "Chocolate", "Gnocchi",
+            "Ravioli", "Crab Meat", "Clam Chowder", "Lager", "Ale", "Mozzarella", "Gorgonzola", "Camembert",
+            "Herring", "Salmon", "Pâté", "Pasties");
+
+    public static final List<String> QUANTITIES = List.of(
+            "10 boxes x 20 bags", "24 - 12 oz bottles", "12 - 550 ml bottles", "48 - 6 oz jars", "36 boxes",
+            "12 - 8 oz jars", "20 - 1 kg tins", "24 - 250 g pkgs.", "10 - 500 g pkgs.", "1 kg pkg.", "24 pieces",
+            "16 - 2 kg boxes", "32 - 500 g boxes", "5 kg pkg.", "12 - 100 g pkgs");
+
+    /**
+     * Sakila-style film words: titles are an adjective and a noun, descriptions follow the sample's sentence pattern
+     */
+    public static final List<String> TITLE_WORDS = List.of(
+            "ACADEMY", "ACE", "ADAPTATION", "AFFAIR", "AFRICAN", "AGENT", "AIRPORT", "ALABAMA", "ALADDIN", "ALAMO",
+            "ALI", "ALIEN", "ALLEY", "AMADEUS", "AMELIE", "ANACONDA", "ANGELS", "ANNIE", "APACHE", "APOCALYPSE",
+            "ARABIA", "ARMAGEDDON", "ARMY", "ATLANTIS", "ATTACKS", "BABY", "BACKLASH", "BADMAN", "BALLOON", "BANG",
+            "BEACH", "BEAR", "BEAST", "BED", "BILKO", "BIRDS", "BLADE", "BLANKET", "BLOOD", "BOONDOCK", "BRIDE",
+            "BUBBLE", "BUCKET", "BUNCH", "CAMPUS", "CANDIDATE", "CARIBBEAN", "CASUALTIES", "CHAMBER", "CHAMPION",
+            "CHICAGO", "CIRCUS", "CLUELESS", "CONFIDENTIAL", "CONNECTICUT", "CROWDS", "CYCLONE", "DINOSAUR",
+            "DRAGON", "DUCK", "EGG", "FANTASY", "FIDELITY", "GOLDFINGER", "GRAFFITI", "HARPER", "HOLIDAY", "HUNTER",
+            "ICE", "INTERVIEW", "JEDI", "KARATE", "LABYRINTH", "LEGEND", "MASK", "MONSTER", "MUMMY", "NECKLACE",
+            "OPERATION", "PACIFIC", "PELICAN", "PIRATES", "PRINCESS", "RAIDERS", "ROCKETEER", "SADDLE", "SHAKESPEARE",
+            "SPIRITED", "STAR", "SUNRISE", "TITANIC", "TOMORROW", "UNFORGIVEN", "VOYAGE", "WEST", "WIZARD", "ZORRO");
+
+    public static final List<String> DESCRIPTION_ADJECTIVES = List.of(
+            "Epic", "Astounding", "Fanciful", "Thoughtful", "Action-Packed", "Amazing", "Boring", "Brilliant",
+            "Emotional", "Fast-Paced", "Insightful", "Intrepid", "Lacklusture", "Touching", "Unbelieveable",
+            "Awe-Inspiring", "Beautiful", "Stunning", "Taut", "Charming");
+
+    public static final List<String> DESCRIPTION_GENRES = List.of(
+            "Drama", "Documentary", "Saga", "Panorama", "Story", "Tale", "Reflection", "Character Study",
+            "Display", "Yarn", "Epistle");
+
+    public static final List<String> DESCRIPTION_ROLES = List.of(
+            "Feminist", "Mad Scientist", "Dentist", "Teacher", "Astronaut", "Boat", "Car", "Cat", "Crocodile",
+            "Database Administrator", "Dog", "Explorer", "Forensic Psychologist", "Frisbee", "Girl", "Hunter",
+            "Husband", "Lumberjack", "Man", "Moose", "Monkey", "Mad Cow", "Pastry Chef", "Pioneer", "Robot",
+            "Secret Agent", "Shark", "Sumo Wrestler", "Technical Writer", "Woman", "Composer", "Cow", "Butler",
+            "Squirrel", "Waitress");
+
+    public static final List<String> DESCRIPTION_VERBS = List.of(
+            "Battle", "Chase", "Outrace", "Find", "Meet", "Pursue", "Build", "Confront", "Conquer", "Defeat",
+            "Discover", "Face", "Fight", "Kill", "Overcome", "Outgun", "Reach", "Redeem", "Sink", "Succumb");
+
+    public static final List<String> DESCRIPTION_PLACES = List.of(
+            "The Canadian Rockies", "A Shark Tank", "A Jet Boat", "Ancient China", "Ancient India", "A Baloon",
+            "A Manhattan Penthouse", "A MySQL Convention", "Nigeria", "Soviet Georgia", "The Gulf of Mexico",
+            "The Outback", "The Sahara Desert", "A Monastery", "A U-Boat", "An Abandoned Fun House",
+            "An Abandoned Mine Shaft", "Berlin", "California", "The First Manned Space Station");
+
+    /**
+     * Sakila-style actor names (upper case), sampled with skew so some surnames are shared by many actors
+     */
+    public static final List<String> ACTOR_FIRST_NAMES = List.of(
+            "PENELOPE", "NICK", "ED", "JENNIFER", "JOHNNY", "BETTE", "GRACE", "MATTHEW", "JOE", "CHRISTIAN", "ZERO",
+            "KARL", "UMA", "VIVIEN", "CUBA", "FRED", "HELEN", "DAN", "BOB", "LUCILLE", "KIRSTEN", "ELVIS", "SANDRA",
+            "CAMERON", "KEVIN", "RIP", "JULIA", "WOODY", "ALEC", "SISSY", "TIM", "MILLA", "AUDREY", "JUDY", "BURT",
+            "VAL", "TOM", "GOLDIE", "JODIE", "KENNETH", "MEG", "MICHELLE", "ADAM", "SEAN", "GARY", "MORGAN", "DUSTIN",
+            "HENRY", "GREGORY", "RUSSELL");
+
+    public static final List<String> ACTOR_LAST_NAMES = List.of(
+            "KILMER", "NOLTE", "TEMPLE", "WILLIS", "DEGENERES", "GARLAND", "HARRIS", "HOFFMAN", "TORN", "ALLEN",
+            "BERRY", "GUINESS", "DAVIS", "JOHANSSON", "AKROYD", "CRONYN", "DEPP", "PECK", "HOPKINS", "KEITEL",
+            "MCQUEEN", "MONROE", "STALLONE", "WOOD", "CAGE", "PINKETT", "MIRANDA", "CHASE", "LOLLOBRIGIDA", "WAHLBERG",
+            "BACALL", "BALE", "BALL", "BERGEN", "BOLGER", "BRODY", "CARREY", "CRAWFORD", "CROWE", "DEE", "DREYFUSS",
+            "DUKAKIS", "FAWCETT", "GABLE", "GOODING", "HACKMAN", "HUDSON", "HUNT", "JACKMAN", "WEST");
+
+    public static final List<String> RATINGS = List.of("G", "PG", "PG-13", "R", "NC-17");
+
+    /**
+     * A country and some of its cities
+     */
+    public static final class Country {
+        private final String name;
+        private final List<String> cities;
+
+        public Country(String name, String... cities) {
+            this.name = name;
+            this.cities = List.of(cities);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getCities() {
+            return cities;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.pluralsight;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipf distribution over the ranks 1..n: rank k is drawn with probability proportional to 1 / k^exponent, so a few
+ * ranks are very common and there is a long tail of rare ones (actor popularity, customer countries, surnames).
+ * <p>
+ * Samples with the rejection-inversion method of Hörmann and Derflinger, which takes constant time and memory
+ * however large n is, instead of a cumulative table of n probabilities. Immutable and safe to share between threads;
+ * each thread passes its own random generator.
+ */
+public class ZipfDistribution {
+
+    private final long n;
+    private final double exponent;
+
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    /**
+     * @param n        number of ranks, at least 1
+     * @param exponent skew, greater than 0; around 1 is typical for popularity, higher is more skewed
+     */
+    public ZipfDistribution(long n, double exponent) {
+        if (n < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Zipf needs n >= 1 and exponent > 0, got n=" + n + ", exponent=" + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * A rank from 1 (most common) to n
+     */
+    public long sample(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+
+            // Most draws are accepted by the cheap first test
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * A rank from 0 to n - 1, for indexing into a list ordered from most to least common
+     */
+    public int sampleIndex(RandomGenerator random) {
+        return (int) (sample(random) - 1);
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, accurate near 0 where the exponent is close to 1
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * (e^x - 1) / x, accurate near 0
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
@@ -3,9 +3,17 @@ package com.pluralsight;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class BasicDataSource {
 
+    // Bounded waits so a slow or restarting MySQL cannot hang the demo: -Ddb.connectTimeoutMs, -Ddb.socketTimeoutMs
+    private static final String CONNECT_TIMEOUT_MS = System.getProperty("db.connectTimeoutMs", "3000");
+    private static final String SOCKET_TIMEOUT_MS = System.getProperty("db.socketTimeoutMs", "15000");
+
+    // Per-statement limit for Statement.setQueryTimeout: -Ddb.queryTimeoutSeconds
+    public static final int QUERY_TIMEOUT_SECONDS = Integer.getInteger("db.queryTimeoutSeconds", 10);
+
     private String connectionString;
     private String username;
     private String password;
@@ -44,8 +52,12 @@ public class BasicDataSource {
         try {
             // load the MySQL Driver
             Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(this.getConnectionString(),
-                    this.getUsername(), this.getPassword());
+            Properties properties = new Properties();
+            properties.setProperty("user", this.getUsername());
+            properties.setProperty("password", this.getPassword());
+            properties.setProperty("connectTimeout", CONNECT_TIMEOUT_MS);
+            properties.setProperty("socketTimeout", SOCKET_TIMEOUT_MS);
+            return DriverManager.getConnection(this.getConnectionString(), properties);
 
 
         } catch (ClassNotFoundException e) {
@@ -1,10 +1,26 @@
 package com.pluralsight;
 
+import com.pluralsight.cities.CityIndex;
+import com.pluralsight.cities.CityIndexRefresher;
+import com.pluralsight.jfr.QueryExecuteEvent;
+import com.pluralsight.jfr.RenderEvent;
+import com.pluralsight.jfr.RowFetchEvent;
+import com.pluralsight.resilience.CircuitOpenException;
+import com.pluralsight.resilience.ResilientConnector;
+
 import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
 
+    private static final String CITIES_IN_COUNTRY_SQL = "SELECT city FROM city WHERE country_id = ? ORDER BY city";
+    private static final String ALL_CITIES_SQL = "SELECT city FROM city ORDER BY country_id, city";
+
     private static BasicDataSource basicDataSource;
+    private static ResilientConnector connector;
+    private static CityIndexRefresher cityIndex;
 
     public static void main(String[] args) {
 
@@ -16,16 +32,42 @@ public class Main {
         }
 
         basicDataSource = getBasicDataSourceFromArgs(args);
+        connector = new ResilientConnector(basicDataSource::getConnection, "driverManager");
+        loadCityIndex();
 
         try {
             displayCities(103);
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            cityIndex.stop();
         }
 
 
     }
 
+    /**
+     * Loads every city into memory so lookups skip the database, and keeps it fresh in the background:
+     * -Dcities.refreshSeconds (300, 0 turns refreshing off). When the load fails, lookups query the database
+     */
+    private static void loadCityIndex() {
+        cityIndex = new CityIndexRefresher(connector);
+        try {
+            long started = System.nanoTime();
+            CityIndex index = cityIndex.reload();
+            System.out.printf("City index: %d cities in %d countries, %,d bytes, loaded in %d ms%n",
+                    index.getCityCount(), index.getCountryCount(), index.footprintBytes(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (SQLException e) {
+            System.out.println("City index not loaded, cities come from the database: " + e.getMessage());
+        }
+
+        long refreshSeconds = Long.getLong("cities.refreshSeconds", 300);
+        if (refreshSeconds > 0) {
+            cityIndex.start(Duration.ofSeconds(refreshSeconds));
+        }
+    }
+
     public static BasicDataSource getBasicDataSourceFromArgs(String[] args) {
         // get the user name and password from the command line args
         String username = args[0];
@@ -39,51 +81,104 @@ public class Main {
 
     public static void displayCities(int countryId) throws SQLException, ClassNotFoundException {
 
-        try (Connection connection = basicDataSource.getConnection();
-             PreparedStatement ps = connection.prepareStatement("SELECT city FROM city WHERE country_id = ?");) {
-            ps.setInt(1, countryId);
-
-            try (ResultSet results = ps.executeQuery()) {
-                while (results.next()) {
-                    String city = results.getString("city");
-                    System.out.println(city);
-                }
-            } finally {
-                //close the results ResultSet
+        CityIndex index = cityIndex.getIndex();
+        List<String> cities;
+        try {
+            if (index != null) {
+                cities = index.citiesInCountry(countryId);
+            } else {
+                // The whole read is retried on timeouts and lost connections, so rows are collected before printing
+                cities = connector.read(connection -> {
+                    try (PreparedStatement ps = connection.prepareStatement(CITIES_IN_COUNTRY_SQL)) {
+                        ps.setInt(1, countryId);
+                        ps.setQueryTimeout(BasicDataSource.QUERY_TIMEOUT_SECONDS);
+
+                        try (ResultSet results = executeQuery("citiesInCountry", CITIES_IN_COUNTRY_SQL, ps)) {
+                            RowFetchEvent fetch = new RowFetchEvent();
+                            fetch.begin();
+                            List<String> rows = new ArrayList<>();
+                            while (results.next()) {
+                                rows.add(fetch.text(results, "city"));
+                            }
+                            fetch.record("citiesInCountry", rows.size());
+                            return rows;
+                        }
+                    }
+                });
             }
+        } catch (CircuitOpenException e) {
+            System.out.println("Database unavailable, skipping cities for country " + countryId);
+            return;
+        } catch (SQLException e) {
+            System.out.println("Could not load cities for country " + countryId + ": " + e.getMessage() +
+                    " (SQLState " + e.getSQLState() + ")");
+            return;
+        }
 
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            //close the ps PreparedStatement
-            //close the connection Connection
+        RenderEvent render = new RenderEvent();
+        render.begin();
+        for (String city : cities) {
+            System.out.println(city);
         }
+        render.record("citiesInCountry", cities.size());
 
     }
 
     public static void displayAllCities() throws SQLException, ClassNotFoundException {
 
-        // load the MySQL Driver
-        Class.forName("com.mysql.cj.jdbc.Driver");
+        CityIndex index = cityIndex.getIndex();
+        List<String> cities;
+        try {
+            if (index != null) {
+                cities = index.allCities();
+            } else {
+                cities = connector.read(connection -> {
+                    try (PreparedStatement ps = connection.prepareStatement(ALL_CITIES_SQL)) {
+                        ps.setQueryTimeout(BasicDataSource.QUERY_TIMEOUT_SECONDS);
+
+                        try (ResultSet results = executeQuery("allCities", ALL_CITIES_SQL, ps)) {
+                            RowFetchEvent fetch = new RowFetchEvent();
+                            fetch.begin();
+                            List<String> rows = new ArrayList<>();
+                            while (results.next()) {
+                                rows.add(fetch.text(results, "city"));
+                            }
+                            fetch.record("allCities", rows.size());
+                            return rows;
+                        }
+                    }
+                });
+            }
+        } catch (CircuitOpenException e) {
+            System.out.println("Database unavailable, skipping the city list");
+            return;
+        } catch (SQLException e) {
+            System.out.println("Could not load cities: " + e.getMessage() + " (SQLState " + e.getSQLState() + ")");
+            return;
+        }
 
+        RenderEvent render = new RenderEvent();
+        render.begin();
+        for (String city : cities) {
+            System.out.println(city);
+        }
+        render.record("allCities", cities.size());
 
-        try (Connection connection = DriverManager.getConnection(basicDataSource.getConnectionString(), basicDataSource.getUsername(), basicDataSource.getPassword());
-             PreparedStatement ps = connection.prepareStatement("SELECT city FROM city where country_id");
-             ResultSet results = ps.executeQuery();
-        ) {
-            while (results.next()) {
-                String city = results.getString("city");
-                System.out.println(city);
-            }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Runs the statement inside a {@link QueryExecuteEvent}
+     */
+    private static ResultSet executeQuery(String queryName, String sql, PreparedStatement ps) throws SQLException {
+        QueryExecuteEvent event = new QueryExecuteEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            ResultSet results = ps.executeQuery();
+            succeeded = true;
+            return results;
         } finally {
-            //close the resultset
-            //close the prepared statement
-            //close the connection
+            event.record(queryName, sql, succeeded);
         }
-
     }
-}
\ No newline at end of file
+}
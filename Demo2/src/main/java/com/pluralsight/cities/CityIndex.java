@@ -0,0 +1,172 @@
+package com.pluralsight.cities;
+
+import com.pluralsight.jfr.QueryExecuteEvent;
+import com.pluralsight.jfr.RowFetchEvent;
+import com.pluralsight.resilience.ResilientConnector;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every city name grouped by country, loaded from the city table with one ordered scan so city lookups are answered
+ * from memory instead of with a query each.
+ * <pre>
+ * countryStart  (maxCountryId + 2) ints  cities of country c are city numbers countryStart[c] .. countryStart[c + 1]
+ * nameStart     (cityCount + 1) ints     name of city n is names[nameStart[n] .. nameStart[n + 1])
+ * names         every city name as UTF-8, back to back, ordered by country then name
+ * </pre>
+ * No object per city: three arrays hold the whole table, and a String is only made when a name is returned.
+ * The index is immutable and safe to use from many threads; {@link CityIndexRefresher} swaps in a new one when
+ * the table changes.
+ */
+public class CityIndex {
+
+    static final String CITIES_SQL = "SELECT country_id, city FROM city ORDER BY country_id, city";
+
+    private final int[] countryStart;
+    private final int[] nameStart;
+    private final byte[] names;
+    private final Instant loadedAt;
+
+    private CityIndex(int[] countryStart, int[] nameStart, byte[] names, Instant loadedAt) {
+        this.countryStart = countryStart;
+        this.nameStart = nameStart;
+        this.names = names;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Reads the whole city table once, ordered by country. The read is retried like any other connector read
+     */
+    public static CityIndex load(ResilientConnector connector) throws SQLException {
+        return connector.read(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                QueryExecuteEvent execute = new QueryExecuteEvent();
+                execute.begin();
+                ResultSet executed = null;
+                try {
+                    executed = statement.executeQuery(CITIES_SQL);
+                } finally {
+                    execute.record("cityIndex", CITIES_SQL, executed != null);
+                }
+
+                try (ResultSet results = executed) {
+                    RowFetchEvent fetch = new RowFetchEvent();
+                    fetch.begin();
+                    CityIndex index = build(results);
+                    fetch.record("cityIndex", index.getCityCount());
+                    return index;
+                }
+            }
+        });
+    }
+
+    private static CityIndex build(ResultSet results) throws SQLException {
+        // Grown by doubling, like an ArrayList, then trimmed; the table size isn't known up front
+        int[] countryOfCity = new int[1024];
+        int[] nameStart = new int[1025];
+        byte[] names = new byte[16 * 1024];
+        int cityCount = 0;
+        int nameBytes = 0;
+        int maxCountryId = 0;
+
+        while (results.next()) {
+            int countryId = results.getInt(1);
+            if (countryId < maxCountryId) {
+                throw new SQLException("City rows are not ordered by country_id");
+            }
+            maxCountryId = countryId;
+
+            byte[] name = results.getString(2).getBytes(StandardCharsets.UTF_8);
+            if (cityCount == countryOfCity.length) {
+                countryOfCity = Arrays.copyOf(countryOfCity, cityCount * 2);
+                nameStart = Arrays.copyOf(nameStart, cityCount * 2 + 1);
+            }
+            if (nameBytes + name.length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameBytes + name.length));
+            }
+
+            System.arraycopy(name, 0, names, nameBytes, name.length);
+            countryOfCity[cityCount] = countryId;
+            nameStart[cityCount] = nameBytes;
+            nameBytes += name.length;
+            cityCount++;
+        }
+        nameStart[cityCount] = nameBytes;
+
+        // Rows are ordered by country, so each country's cities are one run; countries without cities get an
+        // empty run (start == next start)
+        int[] countryStart = new int[maxCountryId + 2];
+        int city = 0;
+        for (int countryId = 0; countryId <= maxCountryId + 1; countryId++) {
+            while (city < cityCount && countryOfCity[city] < countryId) {
+                city++;
+            }
+            countryStart[countryId] = city;
+        }
+
+        return new CityIndex(countryStart, Arrays.copyOf(nameStart, cityCount + 1), Arrays.copyOf(names, nameBytes),
+                Instant.now());
+    }
+
+    /**
+     * Cities of one country, ordered by name. Empty for an unknown country
+     */
+    public List<String> citiesInCountry(int countryId) {
+        if (countryId < 0 || countryId + 1 >= countryStart.length) {
+            return List.of();
+        }
+        return cities(countryStart[countryId], countryStart[countryId + 1]);
+    }
+
+    /**
+     * Every city, ordered by country and then by name
+     */
+    public List<String> allCities() {
+        return cities(0, getCityCount());
+    }
+
+    private List<String> cities(int from, int to) {
+        List<String> cities = new ArrayList<>(to - from);
+        for (int city = from; city < to; city++) {
+            cities.add(new String(names, nameStart[city], nameStart[city + 1] - nameStart[city],
+                    StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(cities);
+    }
+
+    public int getCityCount() {
+        return nameStart.length - 1;
+    }
+
+    /**
+     * Countries that have at least one city
+     */
+    public int getCountryCount() {
+        int count = 0;
+        for (int countryId = 0; countryId + 1 < countryStart.length; countryId++) {
+            if (countryStart[countryId + 1] > countryStart[countryId]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Heap held by the index's arrays, in bytes, counting a 16-byte header per array
+     */
+    public long footprintBytes() {
+        return 16L * 3 + 4L * countryStart.length + 4L * nameStart.length + names.length;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+}
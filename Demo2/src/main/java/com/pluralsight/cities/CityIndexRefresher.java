@@ -0,0 +1,111 @@
+package com.pluralsight.cities;
+
+import com.pluralsight.resilience.ResilientConnector;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link CityIndex} and reloads it in the background when the city table changes.
+ * <p>
+ * Each check reads the row count and the newest last_update, one row from an aggregate; only when those differ from
+ * the loaded index's is the table scanned again. The new index replaces the old one in a single write, so readers
+ * see either the old cities or the new ones, never a mix.
+ */
+public class CityIndexRefresher {
+
+    private static final String FINGERPRINT_SQL = "SELECT COUNT(*), COALESCE(MAX(last_update), 0) FROM city";
+
+    private final ResilientConnector connector;
+
+    private volatile CityIndex index;
+    // Count and newest last_update of the table the current index was loaded from
+    private List<Object> fingerprint;
+    private ScheduledExecutorService scheduler;
+
+    public CityIndexRefresher(ResilientConnector connector) {
+        this.connector = connector;
+    }
+
+    /**
+     * The current index, null until the first load succeeds
+     */
+    public CityIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Loads the index. The fingerprint is read before the scan, so a change made during the scan is picked up by the
+     * next check instead of being missed
+     */
+    public synchronized CityIndex reload() throws SQLException {
+        List<Object> newFingerprint = readFingerprint();
+        index = CityIndex.load(connector);
+        fingerprint = newFingerprint;
+        return index;
+    }
+
+    /**
+     * Reloads the index if the table changed since it was loaded
+     *
+     * @return true when a new index was loaded
+     */
+    public synchronized boolean refreshIfChanged() throws SQLException {
+        if (index == null || !readFingerprint().equals(fingerprint)) {
+            reload();
+            return true;
+        }
+        return false;
+    }
+
+    private List<Object> readFingerprint() throws SQLException {
+        return connector.read(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet results = statement.executeQuery(FINGERPRINT_SQL)) {
+                results.next();
+                return List.of(results.getLong(1), results.getString(2));
+            }
+        });
+    }
+
+    /**
+     * Checks for changes in the background every interval until {@link #stop()} is called
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "city-index-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (refreshIfChanged()) {
+                    CityIndex current = index;
+                    System.out.println("City index reloaded: " + current.getCityCount() + " cities, " +
+                            current.footprintBytes() + " bytes");
+                }
+            } catch (SQLException e) {
+                // Keep serving the current index and try again on the next tick
+                System.out.println("City index refresh failed: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pluralsight.coalesce;
+
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many database queries run at once. A query that can't get a permit within the queue timeout fails
+ * with {@link BusyException} instead of piling up. Used as the {@link SingleFlight.Gate} of a coalescing reader,
+ * callers that join an identical query in flight don't need a permit of their own
+ */
+public class QueryPermits implements SingleFlight.Gate {
+
+    private final int maxConcurrentQueries;
+    private final long queueTimeoutMillis;
+    private final Semaphore permits;
+
+    public QueryPermits(int maxConcurrentQueries, long queueTimeoutMillis) {
+        this.maxConcurrentQueries = maxConcurrentQueries;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrentQueries, true);
+    }
+
+    /**
+     * Runs the query once a permit is free
+     *
+     * @throws BusyException when no permit frees up within the queue timeout
+     */
+    @Override
+    public <T> T run(SingleFlight.Query<T> query) throws SQLException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a query slot", e);
+        }
+        if (!acquired) {
+            throw new BusyException();
+        }
+
+        try {
+            return query.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public int getInFlight() {
+        return maxConcurrentQueries - permits.availablePermits();
+    }
+
+    /**
+     * No query slot became free in time
+     */
+    public static class BusyException extends SQLException {
+        public BusyException() {
+            super("Server busy, all query slots in use");
+        }
+    }
+}
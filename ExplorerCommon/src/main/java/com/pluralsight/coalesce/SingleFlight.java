@@ -0,0 +1,142 @@
+package com.pluralsight.coalesce;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical concurrent reads: while a query with some SQL and parameters is running, other callers asking
+ * for the same SQL and parameters wait for it and get its result (or its exception) instead of running their own.
+ * <p>
+ * Only calls that overlap in time are shared. Once the query finishes its entry is removed, so the next caller reads
+ * fresh data; nothing is cached. Results are handed to several callers at once and must not be modified.
+ * <p>
+ * A {@link Gate} wraps only the query that actually runs, so callers waiting for an identical query don't take a
+ * concurrency permit (see {@link QueryPermits}) while they just wait. Safe to use from many threads.
+ */
+public class SingleFlight {
+
+    // Runs the query straight away
+    private static final Gate OPEN = new Gate() {
+        @Override
+        public <T> T run(Query<T> query) throws SQLException {
+            return query.run();
+        }
+    };
+
+    private final boolean enabled;
+    private final Gate gate;
+    private final ConcurrentHashMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+
+    /**
+     * @param enabled false runs every call on its own, which is handy for comparing round trips
+     */
+    public SingleFlight(boolean enabled) {
+        this(enabled, OPEN);
+    }
+
+    /**
+     * @param gate runs every query that goes to the database, but not the calls that join one
+     */
+    public SingleFlight(boolean enabled, Gate gate) {
+        this.enabled = enabled;
+        this.gate = gate;
+    }
+
+    /**
+     * Runs the query, or waits for the identical one already running
+     *
+     * @param sql        with the parameters, identifies the query; two calls share a result only when both match
+     * @param parameters the values bound to the statement, in order
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String sql, List<?> parameters, Query<T> query) throws SQLException {
+        if (!enabled) {
+            executions.incrementAndGet();
+            return gate.run(query);
+        }
+
+        List<Object> key = new ArrayList<>(parameters.size() + 1);
+        key.add(sql);
+        key.addAll(parameters);
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined.incrementAndGet();
+            return (T) await(running);
+        }
+
+        executions.incrementAndGet();
+        try {
+            T result = gate.run(query);
+            mine.complete(result);
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Callers arriving from now on start a new query
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws SQLException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for an identical query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                // The same exception the query threw, so callers can still tell an outage from bad SQL
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queries that actually ran, i.e. database round trips
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * Calls that were answered by a query another caller had already started
+     */
+    public long getJoined() {
+        return joined.get();
+    }
+
+    /**
+     * The read that runs when no identical one is in flight
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Decides when a query may run, e.g. once a concurrency permit is free
+     */
+    public interface Gate {
+        <T> T run(Query<T> query) throws SQLException;
+    }
+}
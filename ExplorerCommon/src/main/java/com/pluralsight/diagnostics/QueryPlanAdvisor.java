@@ -0,0 +1,125 @@
+package com.pluralsight.diagnostics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN FORMAT=JSON for a list of queries and flags full table scans, filesorts and temporary tables,
+ * with a covering index suggestion for each flagged query.
+ * <p>
+ * Each explorer lists the queries its menu uses (NorthwindQueryPlans, SakilaQueryPlans) and exits with status 2
+ * when an unexpected plan problem is found, so the check can run after schema or server upgrades to catch plan
+ * regressions before users notice them.
+ */
+public class QueryPlanAdvisor {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("\"table_name\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ACCESS_TYPE = Pattern.compile("\"access_type\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern FILESORT = Pattern.compile("\"using_filesort\"\\s*:\\s*true");
+    private static final Pattern TEMPORARY = Pattern.compile("\"using_temporary_table\"\\s*:\\s*true");
+
+    private final List<PlannedQuery> queries;
+
+    public QueryPlanAdvisor(List<PlannedQuery> queries) {
+        this.queries = queries;
+    }
+
+    /**
+     * Explains every query and prints a report
+     *
+     * @return number of queries with unexpected plan problems
+     */
+    public int check(Connection connection) throws SQLException {
+        int problems = 0;
+
+        for (PlannedQuery query : queries) {
+            List<String> findings = explain(connection, query);
+
+            System.out.println("• " + query.name);
+            if (findings.isEmpty()) {
+                System.out.println("    OK");
+                continue;
+            }
+
+            problems++;
+            findings.forEach(finding -> System.out.println("    " + finding));
+            if (query.suggestedIndex != null) {
+                System.out.println("    Suggested covering index: " + query.suggestedIndex);
+            }
+        }
+
+        System.out.println(problems == 0 ? "All explorer queries have the expected plans"
+                : problems + " query plan(s) need attention");
+        return problems;
+    }
+
+    /**
+     * Runs EXPLAIN FORMAT=JSON for one query and returns the unexpected findings
+     */
+    private List<String> explain(Connection connection, PlannedQuery query) throws SQLException {
+        String plan;
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN FORMAT=JSON " + query.sql)) {
+            for (int i = 0; i < query.sampleParameters.size(); i++) {
+                ps.setObject(i + 1, query.sampleParameters.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                plan = rs.next() ? rs.getString(1) : null;
+            }
+        }
+
+        // A server or proxy that answers EXPLAIN with nothing tells us nothing about the plan, so flag it
+        if (plan == null || plan.isBlank()) {
+            return List.of("EXPLAIN returned no plan");
+        }
+
+        List<String> findings = new ArrayList<>();
+
+        // table_name always comes just before access_type inside each table block of the plan
+        Matcher tables = TABLE_NAME.matcher(plan);
+        Matcher access = ACCESS_TYPE.matcher(plan);
+        while (tables.find()) {
+            if (access.find(tables.end()) && access.group(1).equals("ALL") && !query.expected.contains(Issue.FULL_SCAN)) {
+                findings.add("Full table scan on " + tables.group(1));
+            }
+        }
+        if (FILESORT.matcher(plan).find() && !query.expected.contains(Issue.FILESORT)) {
+            findings.add("Sorts with a filesort instead of reading an index in order");
+        }
+        if (TEMPORARY.matcher(plan).find() && !query.expected.contains(Issue.TEMPORARY_TABLE)) {
+            findings.add("Builds a temporary table");
+        }
+        return findings;
+    }
+
+    public enum Issue {
+        FULL_SCAN, FILESORT, TEMPORARY_TABLE
+    }
+
+    /**
+     * A query with sample parameters, the plan problems that are expected for it and an index that would help
+     * (null when none)
+     */
+    public static class PlannedQuery {
+        private final String name;
+        private final String sql;
+        private final List<Object> sampleParameters;
+        private final Set<Issue> expected;
+        private final String suggestedIndex;
+
+        public PlannedQuery(String name, String sql, List<Object> sampleParameters, Set<Issue> expected,
+                            String suggestedIndex) {
+            this.name = name;
+            this.sql = sql;
+            this.sampleParameters = sampleParameters;
+            this.expected = expected;
+            this.suggestedIndex = suggestedIndex;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pluralsight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent getting a JDBC connection, from the pool or a fresh connect.
+ * <p>
+ * Like the other explorer events: call begin() before the work and record(...) after it. Fields are only filled in
+ * when the event is enabled and over its threshold, so a disabled event costs about as much as an empty method call.
+ */
+@Name("com.pluralsight.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Explorer", "Database"})
+@Description("Time spent getting a JDBC connection")
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+
+    @Label("Source")
+    @Description("Which data source the connection came from")
+    String source;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public void record(String source, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.source = source;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.pluralsight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time from sending a statement until its first results are back (executeQuery), not counting reading the rows
+ */
+@Name("com.pluralsight.QueryExecute")
+@Label("Query Execute")
+@Category({"Explorer", "Database"})
+@Description("Time for a statement to execute, up to its first results")
+@StackTrace(false)
+public class QueryExecuteEvent extends Event {
+
+    @Label("Query")
+    @Description("Short name of the query, e.g. productsInCategory or moviesByActor")
+    String queryName;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public void record(String queryName, String sql, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.queryName = queryName;
+            this.sql = sql;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pluralsight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent printing a result to the console
+ */
+@Name("com.pluralsight.Render")
+@Label("Console Render")
+@Category({"Explorer", "Console"})
+@Description("Time spent printing a result to the console")
+@StackTrace(false)
+public class RenderEvent extends Event {
+
+    @Label("View")
+    @Description("What was printed, e.g. productsInCategory or moviesByActor")
+    String view;
+
+    @Label("Rows")
+    long rows;
+
+    public void record(String view, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.view = view;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
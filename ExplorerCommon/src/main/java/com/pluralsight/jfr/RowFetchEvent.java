@@ -0,0 +1,55 @@
+package com.pluralsight.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Time spent reading a query's rows into objects, with how many rows and roughly how much text came back.
+ * Read text columns through {@link #text} so their size is counted
+ */
+@Name("com.pluralsight.RowFetch")
+@Label("Row Fetch")
+@Category({"Explorer", "Database"})
+@Description("Time spent reading a query's rows")
+@StackTrace(false)
+public class RowFetchEvent extends Event {
+
+    @Label("Query")
+    String queryName;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Text Size")
+    @Description("Characters read from text columns, about their size in bytes for mostly ASCII data")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Reads a text column and counts its length
+     */
+    public String text(ResultSet results, String column) throws SQLException {
+        String value = results.getString(column);
+        if (value != null) {
+            bytes += value.length();
+        }
+        return value;
+    }
+
+    public void record(String queryName, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.queryName = queryName;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
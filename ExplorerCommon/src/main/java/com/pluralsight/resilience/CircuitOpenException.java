@@ -0,0 +1,13 @@
+package com.pluralsight.resilience;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of trying the database while the {@link CircuitBreaker} is open
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+
+    public CircuitOpenException() {
+        super("Database unavailable, not retrying until the circuit breaker closes");
+    }
+}
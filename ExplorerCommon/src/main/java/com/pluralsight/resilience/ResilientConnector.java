@@ -0,0 +1,182 @@
+package com.pluralsight.resilience;
+
+import com.pluralsight.jfr.ConnectionAcquireEvent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opens connections for read-only queries with bounded waiting when MySQL is slow or down.
+ * <p>
+ * Connection failures are retried with exponential backoff and jitter, a few times at most. After repeated
+ * failures the {@link CircuitBreaker} opens and callers get a {@link CircuitOpenException} straight away,
+ * so they can fall back to cached data instead of waiting on the database.
+ * Connections come from a {@link ConnectionSource}, e.g. an explorer's read connection, which also applies the
+ * connect and socket timeouts.
+ */
+public class ResilientConnector {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 100;
+
+    private final ConnectionSource connectionSource;
+    private final String sourceName;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * @param sourceName how connection acquire events name the source, e.g. "read"
+     */
+    public ResilientConnector(ConnectionSource connectionSource, String sourceName) {
+        this(connectionSource, sourceName, new CircuitBreaker(3, Duration.ofSeconds(15)));
+    }
+
+    public ResilientConnector(ConnectionSource connectionSource, String sourceName, CircuitBreaker circuitBreaker) {
+        this.connectionSource = connectionSource;
+        this.sourceName = sourceName;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Runs an idempotent read on a fresh connection. The whole read is retried when the connection or the
+     * query fails transiently, so callers should collect rows and only render them once this returns
+     *
+     * @throws CircuitOpenException while the breaker is open
+     */
+    public <T> T read(SqlRead<T> work) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            Connection connection;
+            try {
+                connection = open();
+            } catch (CircuitOpenException e) {
+                throw e;
+            } catch (SQLException e) {
+                if (!isTransient(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt);
+                continue;
+            }
+
+            // Every way out records an outcome, or a half-open breaker would wait for this trial forever
+            T result;
+            try {
+                result = work.apply(connection);
+            } catch (SQLException e) {
+                closeAfterFailure(connection, e);
+                recordFailure(e);
+                if (!isTransient(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt);
+                continue;
+            } catch (RuntimeException | Error e) {
+                closeAfterFailure(connection, e);
+                // Not the database failing, so like bad SQL it counts as the database having answered
+                circuitBreaker.recordSuccess();
+                throw e;
+            }
+
+            circuitBreaker.recordSuccess();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // The rows are read already, a failed close is no reason to run the work again
+            }
+            return result;
+        }
+    }
+
+    private static void closeAfterFailure(Connection connection, Throwable failure) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * One connection attempt, guarded by the breaker. Success is only recorded once the work on the connection is
+     * done, so queries that keep timing out on connections that do open still count towards opening the breaker
+     */
+    private Connection open() throws SQLException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new CircuitOpenException();
+        }
+
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        try {
+            Connection connection = connectionSource.open();
+            event.record(sourceName, true);
+            return connection;
+        } catch (SQLException e) {
+            event.record(sourceName, false);
+            recordFailure(e);
+            throw e;
+        } catch (RuntimeException e) {
+            // E.g. a closed pool; no connection either way, and a half-open breaker must hear about it
+            event.record(sourceName, false);
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Reports a failure to connect or one that happened after the connection was opened (e.g. a socket or query
+     * timeout) so the breaker also opens when queries, not just connects, keep failing. Other errors (bad SQL or
+     * credentials) mean the database answered, which counts as a success
+     */
+    private void recordFailure(SQLException e) {
+        if (isTransient(e)) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    public boolean isOpen() {
+        return circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Communication problems (SQLState class 08) and timeouts are worth retrying, bad SQL or credentials are not
+     */
+    public static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+
+    private static void sleepBeforeRetry(int attempt) throws SQLException {
+        // 100 ms, 200 ms, ... plus up to 50% jitter so many clients do not retry in lock step
+        long backoff = BASE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    /**
+     * Where connections come from, e.g. sqlConnectionInfo::getReadConnection
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Database work that is safe to repeat
+     */
+    @FunctionalInterface
+    public interface SqlRead<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,234 @@
+package com.pluralsight.routing;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * DataSource for read-only work that spreads connections over read replicas and falls back to the primary.
+ * <p>
+ * {@link #getConnection()} picks the healthy replica with the fewest connections currently checked out
+ * (least outstanding requests), ties rotating between replicas. A replica that fails to hand out a connection
+ * is marked down at once and the next one is tried; with no healthy replica left the primary is used.
+ * A background health check validates every replica and brings recovered ones back.
+ * <p>
+ * Replicas may lag behind the primary, so anything that needs to read its own writes, or compares
+ * timestamps against the primary, should use {@link #getPrimaryConnection()}.
+ */
+public class ReplicaRoutingDataSource implements DataSource, AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration healthCheckInterval) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connection for read-only work: least loaded healthy replica, the other healthy replicas, then the primary
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        for (Replica replica : candidates()) {
+            try {
+                return replica.open();
+            } catch (SQLException e) {
+                // Don't wait for the next health check to stop sending work there
+                replica.healthy = false;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Connection to the primary, for writes and reads that must not see replication lag
+     */
+    public Connection getPrimaryConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured on the primary and replica data sources");
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    /**
+     * One line per replica with its health and checked-out connections, e.g. "replica-1 UP (2 in use)"
+     */
+    public List<String> describeReplicas() {
+        List<String> lines = new ArrayList<>();
+        for (Replica replica : replicas) {
+            lines.add(replica.name + " " + (replica.healthy ? "UP" : "DOWN") + " (" + replica.outstanding.get() + " in use)");
+        }
+        return lines;
+    }
+
+    /**
+     * Healthy replicas, fewest outstanding connections first. The starting point rotates so equally loaded
+     * replicas take turns instead of the first one getting every idle-time request
+     */
+    private List<Replica> candidates() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        int start = Math.floorMod(rotation.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        // Stable sort, so the rotation still decides between replicas with the same load
+        healthy.sort(Comparator.comparingInt(replica -> replica.outstanding.get()));
+        return healthy;
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException | RuntimeException e) {
+                replica.healthy = false;
+            }
+        }
+    }
+
+    /**
+     * Stops the health check and closes the primary and replica data sources that can be closed
+     */
+    @Override
+    public void close() throws SQLException {
+        healthChecker.shutdownNow();
+
+        List<DataSource> all = new ArrayList<>();
+        all.add(primary);
+        replicas.forEach(replica -> all.add(replica.dataSource));
+
+        SQLException failure = null;
+        for (DataSource dataSource : all) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = new SQLException("Error closing data source", e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Checks out a connection and counts it as outstanding until the caller closes it
+         */
+        private Connection open() throws SQLException {
+            outstanding.incrementAndGet();
+            Connection connection;
+            try {
+                connection = dataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                outstanding.decrementAndGet();
+                throw e;
+            }
+
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            outstanding.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
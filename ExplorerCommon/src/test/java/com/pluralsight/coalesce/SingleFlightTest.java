@@ -0,0 +1,221 @@
+package com.pluralsight.coalesce;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Concurrency tests for {@link SingleFlight} that need no database: a crowd of virtual threads is released at the
+ * same moment against a slow fake query, and the number of queries that really ran is compared with what
+ * coalescing promises.
+ */
+class SingleFlightTest {
+
+    private static final String SQL = "SELECT ProductID, ProductName FROM Products WHERE CategoryID = ?";
+    private static final long QUERY_MILLIS = 200;
+    private static final int CALLERS = 500;
+
+    @Test
+    void identicalCallsShareOneQuery() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        List<Object> results = burst(CALLERS, i -> singleFlight.execute(SQL, List.of(1), () -> {
+            runs.incrementAndGet();
+            sleep(QUERY_MILLIS);
+            return new ArrayList<>(List.of("Chai", "Chang"));
+        }));
+
+        assertEquals(1, runs.get(), "queries run");
+        assertEquals(CALLERS - 1, singleFlight.getJoined(), "callers that joined");
+        for (Object result : results) {
+            assertSame(results.get(0), result, "every caller gets the same list");
+        }
+    }
+
+    @Test
+    void differentParametersRunSeparately() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        // Eight categories, so eight queries however many callers there are
+        List<Object> results = burst(CALLERS, i -> {
+            int categoryId = i % 8 + 1;
+            return singleFlight.execute(SQL, List.of(categoryId), () -> {
+                runs.incrementAndGet();
+                sleep(QUERY_MILLIS);
+                return categoryId;
+            });
+        });
+
+        assertEquals(8, runs.get(), "queries run");
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 8 + 1, results.get(i), "caller " + i + " gets its own category");
+        }
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+        SQLException outage = new SQLTransientConnectionException("Communications link failure", "08S01");
+
+        List<Object> results = burst(CALLERS, i -> {
+            try {
+                return singleFlight.execute(SQL, List.of(1), () -> {
+                    runs.incrementAndGet();
+                    sleep(QUERY_MILLIS);
+                    throw outage;
+                });
+            } catch (SQLException e) {
+                return e;
+            }
+        });
+
+        assertEquals(1, runs.get(), "queries run");
+        for (Object result : results) {
+            assertSame(outage, result, "every caller sees the same exception");
+        }
+    }
+
+    @Test
+    void callsThatDontOverlapRunAgain() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            singleFlight.execute(SQL, List.of(1), runs::incrementAndGet);
+        }
+        assertEquals(3, runs.get(), "queries for 3 calls in a row");
+    }
+
+    @Test
+    void disabledRunsEveryCall() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(false);
+        AtomicInteger runs = new AtomicInteger();
+
+        burst(CALLERS, i -> singleFlight.execute(SQL, List.of(1), () -> {
+            runs.incrementAndGet();
+            sleep(QUERY_MILLIS);
+            return "rows";
+        }));
+
+        assertEquals(CALLERS, runs.get(), "queries run");
+        assertEquals(CALLERS, singleFlight.getExecutions(), "executions counted");
+    }
+
+    @Test
+    void joinersTakeNoQueryPermit() throws Exception {
+        // One permit and a queue timeout far shorter than the query: a joiner that waited for a permit would be BUSY
+        QueryPermits permits = new QueryPermits(1, 20);
+        SingleFlight singleFlight = new SingleFlight(true, permits);
+        AtomicInteger runs = new AtomicInteger();
+
+        List<Object> results = burst(CALLERS, i -> {
+            try {
+                return singleFlight.execute(SQL, List.of(1), () -> {
+                    runs.incrementAndGet();
+                    sleep(QUERY_MILLIS);
+                    return "rows";
+                });
+            } catch (QueryPermits.BusyException e) {
+                return e;
+            }
+        });
+
+        assertEquals(1, runs.get(), "queries run");
+        for (Object result : results) {
+            assertEquals("rows", result, "every caller gets the leader's rows");
+        }
+        assertEquals(0, permits.getInFlight(), "permits released");
+    }
+
+    @Test
+    void busyGateFailsTheLeaderAndItsJoiners() throws Exception {
+        QueryPermits permits = new QueryPermits(1, 20);
+        SingleFlight singleFlight = new SingleFlight(true, permits);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Another query holds the only permit
+            Future<Object> other = executor.submit(() -> permits.run(() -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException("Interrupted", e);
+                }
+                return "other";
+            }));
+            holding.await();
+
+            List<Object> results = burst(CALLERS, i -> {
+                try {
+                    return singleFlight.execute(SQL, List.of(1), () -> "rows");
+                } catch (QueryPermits.BusyException e) {
+                    return e;
+                }
+            });
+            release.countDown();
+
+            assertEquals("other", other.get());
+            for (Object result : results) {
+                assertEquals(QueryPermits.BusyException.class, result.getClass(), "every caller is told BUSY");
+            }
+        }
+    }
+
+    /**
+     * Starts one virtual thread per caller, releases them together and returns their results in caller order
+     */
+    private static List<Object> burst(int callers, Caller caller) throws Exception {
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return caller.call(index);
+                }));
+            }
+            ready.await();
+            start.countDown();
+        }
+
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Caller {
+        Object call(int index) throws SQLException;
+    }
+}
@@ -0,0 +1,104 @@
+package com.pluralsight.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Breaker bookkeeping of {@link ResilientConnector#read}, against fake connections that need no database.
+ */
+class ResilientConnectorTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    @Test
+    void runtimeExceptionInHalfOpenTrialDoesNotWedgeTheBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_DURATION);
+        ResilientConnector connector = new ResilientConnector(() -> connection(new AtomicInteger()), "test", breaker);
+
+        openBreaker(connector, breaker);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+
+        // The half-open trial fails in the caller's own code
+        assertThrows(IllegalStateException.class, () -> connector.read(connection -> {
+            throw new IllegalStateException("bad row");
+        }));
+
+        assertEquals("rows", connector.read(connection -> "rows"), "next read is let through");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedCloseAfterSuccessfulWorkDoesNotRunItAgain() throws Exception {
+        AtomicInteger closes = new AtomicInteger();
+        ResilientConnector connector = new ResilientConnector(() -> failingClose(closes), "test");
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals("rows", connector.read(connection -> {
+            runs.incrementAndGet();
+            return "rows";
+        }));
+
+        assertEquals(1, runs.get(), "work runs");
+        assertEquals(1, closes.get(), "connections closed");
+    }
+
+    @Test
+    void transientFailureIsRetriedOnAFreshConnection() throws Exception {
+        AtomicInteger closes = new AtomicInteger();
+        ResilientConnector connector = new ResilientConnector(() -> connection(closes), "test");
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals("rows", connector.read(connection -> {
+            if (runs.incrementAndGet() == 1) {
+                throw new SQLTransientConnectionException("Communications link failure", "08S01");
+            }
+            return "rows";
+        }));
+
+        assertEquals(2, runs.get(), "work runs");
+        assertEquals(2, closes.get(), "connections closed");
+    }
+
+    private static void openBreaker(ResilientConnector connector, CircuitBreaker breaker) {
+        assertThrows(SQLException.class, () -> connector.read(connection -> {
+            throw new SQLTransientConnectionException("Communications link failure", "08S01");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * A connection that only counts close calls
+     */
+    private static Connection connection(AtomicInteger closes) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closes.incrementAndGet();
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * A connection whose close fails, like one the server already dropped
+     */
+    private static Connection failingClose(AtomicInteger closes) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closes.incrementAndGet();
+                        throw new SQLTransientConnectionException("Connection reset", "08S01");
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,138 @@
+package com.pluralsight.routing;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing, fallback and recovery of {@link ReplicaRoutingDataSource}, against fake databases that need no server.
+ * Fake connections answer toString() with the name of the database they came from.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofMillis(20);
+    private static final long WAIT_MILLIS = 2_000;
+
+    @Test
+    void readsGoToReplicasAndPrimaryConnectionsToThePrimary() throws Exception {
+        FakeDatabase primary = new FakeDatabase("primary");
+        FakeDatabase replica = new FakeDatabase("replica");
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary.dataSource(),
+                List.of(replica.dataSource()), HEALTH_CHECK_INTERVAL)) {
+            try (Connection connection = routing.getConnection()) {
+                assertEquals("replica", connection.toString(), "read connection");
+            }
+            try (Connection connection = routing.getPrimaryConnection()) {
+                assertEquals("primary", connection.toString(), "primary connection");
+            }
+        }
+    }
+
+    @Test
+    void leastLoadedReplicaIsPicked() throws Exception {
+        FakeDatabase first = new FakeDatabase("replica-a");
+        FakeDatabase second = new FakeDatabase("replica-b");
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new FakeDatabase("primary").dataSource(),
+                List.of(first.dataSource(), second.dataSource()), HEALTH_CHECK_INTERVAL)) {
+            try (Connection busy = routing.getConnection()) {
+                // While one replica has a connection checked out, the other one gets the next
+                for (int i = 0; i < 5; i++) {
+                    try (Connection connection = routing.getConnection()) {
+                        assertNotEquals(busy.toString(), connection.toString(), "went to the idle replica");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void replicaThatFailsToConnectFallsBackToThePrimary() throws Exception {
+        FakeDatabase replica = new FakeDatabase("replica");
+        replica.connectFails = true;
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new FakeDatabase("primary").dataSource(),
+                List.of(replica.dataSource()), Duration.ofHours(1))) {
+            try (Connection connection = routing.getConnection()) {
+                assertEquals("primary", connection.toString(), "read connection");
+            }
+            assertEquals(0, routing.getHealthyReplicaCount(), "healthy replicas");
+        }
+    }
+
+    @Test
+    void replicaFailingHealthCheckIsSkippedUntilItRecovers() throws Exception {
+        FakeDatabase replica = new FakeDatabase("replica");
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new FakeDatabase("primary").dataSource(),
+                List.of(replica.dataSource()), HEALTH_CHECK_INTERVAL)) {
+            // Connects fine but fails validation, e.g. a replica whose SQL thread stopped
+            replica.valid = false;
+            await(() -> routing.getHealthyReplicaCount() == 0);
+            try (Connection connection = routing.getConnection()) {
+                assertEquals("primary", connection.toString(), "read connection while the replica is down");
+            }
+
+            replica.valid = true;
+            await(() -> routing.getHealthyReplicaCount() == 1);
+            try (Connection connection = routing.getConnection()) {
+                assertEquals("replica", connection.toString(), "read connection after recovery");
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT_MILLIS * 1_000_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "health check did not catch up within " + WAIT_MILLIS + " ms");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * A database that hands out fake connections, or refuses to, and whose connections validate while valid is set
+     */
+    private static final class FakeDatabase {
+        private final String name;
+        private volatile boolean connectFails;
+        private volatile boolean valid = true;
+
+        private FakeDatabase(String name) {
+            this.name = name;
+        }
+
+        DataSource dataSource() {
+            return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getConnection" -> {
+                            if (connectFails) {
+                                throw new SQLTransientConnectionException(name + " is down", "08S01");
+                            }
+                            yield connection();
+                        }
+                        case "toString" -> name;
+                        default -> null;
+                    });
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid" -> valid;
+                        case "toString" -> name;
+                        default -> null;
+                    });
+        }
+    }
+}
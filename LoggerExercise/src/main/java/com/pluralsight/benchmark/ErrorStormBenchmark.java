@@ -0,0 +1,86 @@
+package com.pluralsight.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Simulates a database outage: several "worker" threads retry a query in a tight loop and log every failure with its
+ * stack trace, like the DB modules' printStackTrace calls do. Reports how many failures were logged, how long each
+ * logging call took on average and how many lines reached log/application.log.
+ * <p>
+ * Run it with the default log4j2.properties to see the rate limit, dedup and sampling policy at work, and with
+ * -Dlog4j2.configurationFile pointing at a copy without the rootLogger.filter lines to see the storm unfiltered.
+ * <p>
+ * Usage: java com.pluralsight.benchmark.ErrorStormBenchmark [threads=8] [seconds=10]
+ */
+public class ErrorStormBenchmark {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Path logFile = Path.of("log/application.log");
+        long linesBefore = countLines(logFile);
+        Logger logger = LogManager.getLogger(ErrorStormBenchmark.class);
+
+        AtomicLong failures = new AtomicLong();
+        AtomicLong loggingNanos = new AtomicLong();
+        long endAt = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < endAt) {
+                    try {
+                        runQuery();
+                    } catch (SQLException e) {
+                        long before = System.nanoTime();
+                        logger.error("Error loading products: {}", e.getMessage(), e);
+                        logger.debug("Retrying products query");
+                        loggingNanos.addAndGet(System.nanoTime() - before);
+                        failures.incrementAndGet();
+                    }
+                }
+            }, "worker-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Give the dedup and rate limit summaries their chance to be written
+        Thread.sleep(11_000);
+        LogManager.shutdown();
+
+        long lines = countLines(logFile) - linesBefore;
+        System.out.printf("%d failures logged by %d thread(s) in %d s, %.1f us per failure, %d line(s) written%n",
+                failures.get(), threads, seconds, loggingNanos.get() / 1e3 / Math.max(1, failures.get()), lines);
+    }
+
+    /**
+     * Fails the way a query does while the database is down
+     */
+    private static void runQuery() throws SQLException {
+        throw new SQLTransientConnectionException("Communications link failure", "08S01");
+    }
+
+    private static long countLines(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.count();
+        }
+    }
+}
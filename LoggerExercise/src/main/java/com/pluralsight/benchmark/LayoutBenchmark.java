@@ -0,0 +1,129 @@
+package com.pluralsight.benchmark;
+
+import com.pluralsight.logging.JsonLinesLayout;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.ByteBufferDestinationHelper;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.layout.template.json.JsonTemplateLayout;
+import org.apache.logging.log4j.message.MapMessage;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes the same events with PatternLayout (the pattern from log4j2.properties), the stock JsonTemplateLayout
+ * (ECS template) and {@link JsonLinesLayout}, and prints nanoseconds, bytes allocated and bytes written per event.
+ * Events go into an in-memory buffer that is thrown away, so only the layout's own cost is measured.
+ * <p>
+ * Usage: java com.pluralsight.benchmark.LayoutBenchmark [events=2000000]
+ */
+public class LayoutBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss} %-5p %c{1}:%L - %m%n";
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        Map<String, Layout<?>> layouts = new LinkedHashMap<>();
+        layouts.put("PatternLayout", PatternLayout.newBuilder().withPattern(PATTERN).build());
+        layouts.put("JsonTemplateLayout", JsonTemplateLayout.newBuilder()
+                .setConfiguration(new DefaultConfiguration())
+                .setEventTemplateUri("classpath:EcsLayout.json")
+                .build());
+        layouts.put("JsonLinesLayout", JsonLinesLayout.createLayout(true, true));
+
+        // A query log line as text, and the same facts as key-value fields
+        SortedArrayStringMap context = new SortedArrayStringMap();
+        context.putValue("user", "ana");
+        LogEvent textEvent = event(new ParameterizedMessage("Query {} returned {} rows in {} ms", "products", 77, 12L),
+                context);
+        LogEvent fieldsEvent = event(new MapMessage<>()
+                .with("message", "Query finished")
+                .with("query", "products")
+                .with("durationMs", 12L)
+                .with("rows", 77), context);
+
+        System.out.printf("%-20s %-8s %10s %14s %14s%n", "layout", "event", "ns/event", "alloc B/event", "bytes/event");
+        for (Map.Entry<String, Layout<?>> layout : layouts.entrySet()) {
+            run(layout.getKey(), layout.getValue(), "text", textEvent, events);
+            run(layout.getKey(), layout.getValue(), "fields", fieldsEvent, events);
+        }
+    }
+
+    private static LogEvent event(Message message, SortedArrayStringMap context) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("com.pluralsight.NorthwindTraders")
+                .setLoggerFqcn(LayoutBenchmark.class.getName())
+                .setLevel(Level.INFO)
+                .setMessage(message)
+                .setContextData(context)
+                .setThreadName("main")
+                .setTimeMillis(System.currentTimeMillis())
+                .build();
+    }
+
+    private static void run(String name, Layout<?> layout, String eventName, LogEvent event, int events) {
+        DiscardingDestination destination = new DiscardingDestination();
+
+        // Warm-up so the JIT has compiled the encode path before it is measured
+        for (int i = 0; i < events / 4; i++) {
+            layout.encode(event, destination);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        destination.written = 0;
+        destination.buffer.clear();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            layout.encode(event, destination);
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-20s %-8s %10.1f %14.1f %14.1f%n", name, eventName, (double) elapsed / events,
+                (double) allocated / events, (double) (destination.written + destination.buffer.position()) / events);
+    }
+
+    /**
+     * Counts the bytes a layout writes and then forgets them
+     */
+    private static final class DiscardingDestination implements ByteBufferDestination {
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private long written;
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer drain(ByteBuffer buf) {
+            written += buf.position();
+            buf.clear();
+            return buf;
+        }
+
+        @Override
+        public void writeBytes(ByteBuffer data) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+        }
+
+        @Override
+        public void writeBytes(byte[] data, int offset, int length) {
+            ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+        }
+    }
+}
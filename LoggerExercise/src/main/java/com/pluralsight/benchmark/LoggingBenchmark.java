@@ -0,0 +1,203 @@
+package com.pluralsight.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Logs TRACE events from several threads for a fixed time and reports throughput and call latency per second,
+ * marking the seconds in which the log file rolled over, so a rollover stall shows up as a dip or a p99 spike.
+ * <p>
+ * Uses log4j2-highvolume.properties with a 32 MB rollover size unless -Dlog4j2.configurationFile or
+ * -Dlog.rolloverSize say otherwise. Pass -Dlog4j2.configurationFile=log4j2.properties to compare with the
+ * regular configuration, or -Dlog.fileAppender=Mapped to try the memory-mapped appender.
+ * <p>
+ * Usage: java com.pluralsight.benchmark.LoggingBenchmark [threads=4] [seconds=30] [eventsPerSecond=0 (no limit)]
+ */
+public class LoggingBenchmark {
+
+    // Latencies go into 8 buckets per power of two, so percentiles are within about 12%
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        long eventsPerSecond = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        // Must be set before the first logger is created
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", "log4j2-highvolume.properties");
+        }
+        if (System.getProperty("log.rolloverSize") == null) {
+            System.setProperty("log.rolloverSize", "32 MB");
+        }
+        Path logDir = Path.of(System.getProperty("log.dir", "log/highvolume"));
+        Logger logger = LogManager.getLogger(LoggingBenchmark.class);
+
+        // histograms[thread][second][bucket] and counts per second, each thread only writes its own slice
+        long[][][] histograms = new long[threads][seconds][BUCKETS];
+        boolean[] rolledOver = new boolean[seconds];
+        CountDownLatch start = new CountDownLatch(1);
+        long nanosPerEvent = eventsPerSecond > 0 ? 1_000_000_000L * threads / eventsPerSecond : 0;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[][] histogram = histograms[t];
+            Thread worker = new Thread(() -> logSteadily(logger, start, seconds, nanosPerEvent, histogram),
+                    "logger-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+
+        // Watch the log directory: every new rolled file means a rollover happened in that second
+        long rolledFiles = countRolledFiles(logDir);
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                worker.join(100);
+                long nowRolled = countRolledFiles(logDir);
+                if (nowRolled > rolledFiles) {
+                    int second = (int) ((System.nanoTime() - startedAt) / 1_000_000_000L);
+                    rolledOver[Math.min(second, seconds - 1)] = true;
+                    rolledFiles = nowRolled;
+                }
+            }
+        }
+
+        printReport(histograms, rolledOver, threads);
+        LogManager.shutdown();
+    }
+
+    /**
+     * One application thread: logs TRACE events until the time is up, recording how long each call blocked
+     */
+    private static void logSteadily(Logger logger, CountDownLatch start, int seconds, long nanosPerEvent,
+                                    long[][] histogram) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long endAt = startedAt + seconds * 1_000_000_000L;
+        long nextEventAt = startedAt;
+        long sequence = 0;
+
+        long now;
+        while ((now = System.nanoTime()) < endAt) {
+            if (nanosPerEvent > 0) {
+                if (now < nextEventAt) {
+                    LockSupport.parkNanos(nextEventAt - now);
+                    continue;
+                }
+                nextEventAt += nanosPerEvent;
+            }
+
+            long before = System.nanoTime();
+            logger.trace("Processed order {} line {} quantity {} for customer {}",
+                    sequence, sequence % 7, sequence % 50, "ALFKI");
+            long after = System.nanoTime();
+
+            int second = (int) ((before - startedAt) / 1_000_000_000L);
+            histogram[Math.min(second, seconds - 1)][bucketOf(after - before)]++;
+            sequence++;
+        }
+    }
+
+    private static void printReport(long[][][] histograms, boolean[] rolledOver, int threads) {
+        int seconds = rolledOver.length;
+        long[] total = new long[BUCKETS];
+
+        System.out.printf("%6s %12s %10s %10s %10s%n", "second", "events/s", "p50 us", "p99 us", "max us");
+        for (int s = 0; s < seconds; s++) {
+            long[] merged = new long[BUCKETS];
+            for (int t = 0; t < threads; t++) {
+                for (int b = 0; b < BUCKETS; b++) {
+                    merged[b] += histograms[t][s][b];
+                    total[b] += histograms[t][s][b];
+                }
+            }
+            System.out.printf("%6d %12d %10.1f %10.1f %10.1f%s%n", s + 1, count(merged),
+                    percentile(merged, 0.50) / 1e3, percentile(merged, 0.99) / 1e3, percentile(merged, 1.0) / 1e3,
+                    rolledOver[s] ? "  <- rollover" : "");
+        }
+
+        System.out.printf("all    %12d %10.1f %10.1f %10.1f  (%d events/s average)%n", count(total),
+                percentile(total, 0.50) / 1e3, percentile(total, 0.99) / 1e3, percentile(total, 1.0) / 1e3,
+                count(total) / seconds);
+    }
+
+    /**
+     * Bucket index: the power of two of the latency, then SUB_BUCKET_BITS bits of the value below it
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < (1L << SUB_BUCKET_BITS)) {
+            return (int) Math.max(nanos, 0);
+        }
+        int power = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (power - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+        return ((power - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    /**
+     * Upper bound of a bucket's latencies in nanoseconds
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < (1 << SUB_BUCKET_BITS)) {
+            return bucket;
+        }
+        int power = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        int sub = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+        return (1L << power) + ((long) (sub + 1) << (power - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static double percentile(long[] histogram, double fraction) {
+        long events = count(histogram);
+        if (events == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * events));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram[b];
+            if (seen >= rank) {
+                return upperBoundOf(b);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    private static long count(long[] histogram) {
+        long events = 0;
+        for (long n : histogram) {
+            events += n;
+        }
+        return events;
+    }
+
+    private static long countRolledFiles(Path logDir) throws IOException {
+        if (!Files.isDirectory(logDir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(logDir)) {
+            // A rolled file is renamed first and gzipped afterwards, count both forms as one
+            return files.map(p -> p.getFileName().toString().replaceFirst("\\.gz$", ""))
+                    .filter(name -> !name.equals("application.log"))
+                    .distinct()
+                    .count();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets the first of a run of identical events through and drops the repeats for windowSeconds. When the window
+ * closes, one "Suppressed N more times" line is logged for the message. Identical means same logger, level,
+ * formatted message and exception type and message, so the same failure logged in a loop is written once per window
+ * instead of once per attempt, stack trace and all.
+ * <p>
+ * Only events at or more severe than minLevel are checked (default WARN). At most maxKeys distinct messages are
+ * tracked, anything beyond that passes unchecked.
+ */
+@Plugin(name = "DeduplicatingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class DeduplicatingFilter extends SummarizingFilter {
+
+    private final Level minLevel;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private DeduplicatingFilter(Level minLevel, int windowSeconds, int maxKeys, Result onMatch, Result onMismatch,
+                                Configuration configuration) {
+        // Closed windows are checked every second so a summary is never much later than the window end
+        super(onMatch, onMismatch, 1, configuration);
+        this.minLevel = minLevel;
+        this.windowNanos = windowSeconds * 1_000_000_000L;
+        this.maxKeys = maxKeys;
+    }
+
+    @PluginFactory
+    public static DeduplicatingFilter createFilter(
+            @PluginAttribute(value = "minLevel", defaultString = "WARN") Level minLevel,
+            @PluginAttribute(value = "windowSeconds", defaultInt = 10) int windowSeconds,
+            @PluginAttribute(value = "maxKeys", defaultInt = 10_000) int maxKeys,
+            @PluginAttribute(value = "onMatch", defaultString = "NEUTRAL") Result onMatch,
+            @PluginAttribute(value = "onMismatch", defaultString = "DENY") Result onMismatch,
+            @PluginConfiguration Configuration configuration) {
+        return new DeduplicatingFilter(minLevel, windowSeconds, maxKeys, onMatch, onMismatch, configuration);
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        if (isSummary(event) || !event.getLevel().isMoreSpecificThan(minLevel)) {
+            return Result.NEUTRAL;
+        }
+
+        String key = keyOf(event);
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            return Result.NEUTRAL;
+        }
+
+        long now = System.nanoTime();
+        // closed[0] is the window this event replaced, if it had run out; opened[0] says whether this event opened one
+        Window[] closed = new Window[1];
+        boolean[] opened = new boolean[1];
+        windows.compute(key, (k, current) -> {
+            if (current != null && now - current.openedAt < windowNanos) {
+                current.suppressed++;
+                return current;
+            }
+            closed[0] = current;
+            opened[0] = true;
+            return new Window(event.getLoggerName(), event.getLevel(), event.getMessage().getFormattedMessage(), now);
+        });
+
+        if (closed[0] != null) {
+            summarize(closed[0]);
+        }
+        return opened[0] ? onMatch : onMismatch;
+    }
+
+    /**
+     * Closes every window that has run out and summarizes the ones that dropped something
+     */
+    @Override
+    protected void report() {
+        long now = System.nanoTime();
+        List<Window> closed = new ArrayList<>();
+        for (String key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (now - window.openedAt < windowNanos) {
+                    return window;
+                }
+                closed.add(window);
+                return null;
+            });
+        }
+        closed.forEach(this::summarize);
+    }
+
+    /**
+     * Closes every window, run out or not, so repeats dropped just before shutdown are still summarized
+     */
+    @Override
+    protected void reportRemaining() {
+        List<Window> closed = new ArrayList<>();
+        for (String key : windows.keySet()) {
+            Window window = windows.remove(key);
+            if (window != null) {
+                closed.add(window);
+            }
+        }
+        closed.forEach(this::summarize);
+    }
+
+    private void summarize(Window window) {
+        if (window.suppressed > 0) {
+            emit(window.loggerName, window.level,
+                    "Suppressed " + window.suppressed + " more times: " + window.message);
+        }
+    }
+
+    private static String keyOf(LogEvent event) {
+        StringBuilder key = new StringBuilder(event.getLoggerName())
+                .append('\u0000').append(event.getLevel())
+                .append('\u0000').append(event.getMessage().getFormattedMessage());
+        Throwable thrown = event.getThrown();
+        if (thrown != null) {
+            key.append('\u0000').append(thrown.getClass().getName())
+                    .append('\u0000').append(thrown.getMessage());
+        }
+        return key.toString();
+    }
+
+    /**
+     * One message's current window. suppressed is only touched inside the map's compute calls
+     */
+    private static final class Window {
+        private final String loggerName;
+        private final Level level;
+        private final String message;
+        private final long openedAt;
+        private long suppressed;
+
+        Window(String loggerName, Level level, String message, long openedAt) {
+            this.loggerName = loggerName;
+            this.level = level;
+            this.message = message;
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.AbstractStringLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.util.datetime.FixedDateFormat;
+import org.apache.logging.log4j.message.MapMessage;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.IndexedReadOnlyStringMap;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+import org.apache.logging.log4j.util.TriConsumer;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+
+/**
+ * Writes each event as one line of JSON, for example
+ * <pre>
+ * {"time":"2026-10-19T07:36:10.123Z","level":"INFO","logger":"com.pluralsight.App","thread":"main",
+ *  "message":"Query finished","fields":{"query":"products","durationMs":12,"rows":77},"context":{"user":"ana"}}
+ * </pre>
+ * (on one line). "fields" holds the entries of a {@link MapMessage}, numbers and booleans stay unquoted so the
+ * pipeline can sum durations and row counts without parsing. Every line has a "message": for a MapMessage it is the
+ * map's "message" entry (which is then left out of "fields"), or the map's own formatted text when there is none.
+ * "context" holds the ThreadContext, "thrown" the exception with its stack trace.
+ * <p>
+ * Garbage-free like PatternLayout: the line is built in log4j's per-thread StringBuilder, messages format themselves
+ * into it, strings are escaped in place and the builder is encoded straight into the appender's byte buffer.
+ * Only exceptions and values that are neither numbers, booleans nor text allocate.
+ */
+@Plugin(name = "JsonLinesLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class JsonLinesLayout extends AbstractStringLayout {
+
+    private static final String MESSAGE_KEY = "message";
+
+    private static final ThreadLocal<char[]> TIME_BUFFER = ThreadLocal.withInitial(() -> new char[32]);
+
+    // Static so forEach calls don't allocate a capturing lambda per event
+    private static final TriConsumer<String, Object, StringBuilder> WRITE_ENTRY = JsonLinesLayout::writeEntry;
+
+    private final FixedDateFormat timeFormat =
+            FixedDateFormat.create(FixedDateFormat.FixedFormat.ISO8601_PERIOD, TimeZone.getTimeZone("UTC"));
+    private final boolean includeContext;
+    private final boolean includeStackTrace;
+
+    private JsonLinesLayout(boolean includeContext, boolean includeStackTrace) {
+        super(StandardCharsets.UTF_8);
+        this.includeContext = includeContext;
+        this.includeStackTrace = includeStackTrace;
+    }
+
+    @PluginFactory
+    public static JsonLinesLayout createLayout(
+            @PluginAttribute(value = "includeContext", defaultBoolean = true) boolean includeContext,
+            @PluginAttribute(value = "includeStackTrace", defaultBoolean = true) boolean includeStackTrace) {
+        return new JsonLinesLayout(includeContext, includeStackTrace);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-ndjson; charset=UTF-8";
+    }
+
+    @Override
+    public String toSerializable(LogEvent event) {
+        StringBuilder line = getStringBuilder();
+        writeEvent(event, line);
+        return line.toString();
+    }
+
+    @Override
+    public void encode(LogEvent event, ByteBufferDestination destination) {
+        StringBuilder line = getStringBuilder();
+        writeEvent(event, line);
+        getStringBuilderEncoder().encode(line, destination);
+    }
+
+    private void writeEvent(LogEvent event, StringBuilder line) {
+        char[] time = TIME_BUFFER.get();
+        int timeLength = timeFormat.formatInstant(event.getInstant(), time, 0);
+        line.append("{\"time\":\"").append(time, 0, timeLength).append("Z\"");
+
+        line.append(",\"level\":\"").append(event.getLevel().name()).append('"');
+        line.append(",\"logger\":");
+        writeString(line, event.getLoggerName());
+        line.append(",\"thread\":");
+        writeString(line, event.getThreadName());
+
+        Message message = event.getMessage();
+        if (message instanceof MapMessage<?, ?> mapMessage) {
+            IndexedReadOnlyStringMap fields = mapMessage.getIndexedReadOnlyStringMap();
+            int messageIndex = fields.indexOfKey(MESSAGE_KEY);
+            line.append(",\"message\":");
+            writeText(line, messageIndex >= 0 ? fields.getValueAt(messageIndex) : mapMessage);
+
+            line.append(",\"fields\":{");
+            for (int i = 0; i < fields.size(); i++) {
+                if (i != messageIndex) {
+                    writeEntry(fields.getKeyAt(i), fields.getValueAt(i), line);
+                }
+            }
+            endObject(line);
+        } else if (message != null) {
+            line.append(",\"message\":\"");
+            int start = line.length();
+            if (message instanceof StringBuilderFormattable formattable) {
+                formattable.formatTo(line);
+            } else {
+                line.append(message.getFormattedMessage());
+            }
+            StringBuilders.escapeJson(line, start);
+            line.append('"');
+        }
+
+        ReadOnlyStringMap context = event.getContextData();
+        if (includeContext && context != null && !context.isEmpty()) {
+            line.append(",\"context\":{");
+            context.forEach(WRITE_ENTRY, line);
+            endObject(line);
+        }
+
+        Throwable thrown = event.getThrown();
+        if (thrown != null) {
+            writeThrown(line, thrown);
+        }
+
+        line.append("}\n");
+    }
+
+    private void writeThrown(StringBuilder line, Throwable thrown) {
+        line.append(",\"thrown\":{\"class\":");
+        writeString(line, thrown.getClass().getName());
+        line.append(",\"message\":");
+        writeValue(line, thrown.getMessage());
+        if (includeStackTrace) {
+            StringWriter stackTrace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(stackTrace));
+            line.append(",\"stackTrace\":");
+            writeString(line, stackTrace.toString());
+        }
+        line.append('}');
+    }
+
+    /**
+     * Appends "key":value and a comma, the comma is removed again by {@link #endObject}
+     */
+    private static void writeEntry(String key, Object value, StringBuilder line) {
+        writeString(line, key);
+        line.append(':');
+        writeValue(line, value);
+        line.append(',');
+    }
+
+    private static void endObject(StringBuilder line) {
+        int last = line.length() - 1;
+        if (line.charAt(last) == ',') {
+            line.setLength(last);
+        }
+        line.append('}');
+    }
+
+    private static void writeValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Long l) {
+            line.append(l.longValue());
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            line.append(((Number) value).intValue());
+        } else if (value instanceof Boolean b) {
+            line.append(b.booleanValue());
+        } else if (value instanceof Double d && Double.isFinite(d)) {
+            line.append(d.doubleValue());
+        } else if (value instanceof Float f && Float.isFinite(f)) {
+            line.append(f.floatValue());
+        } else {
+            writeText(line, value);
+        }
+    }
+
+    /**
+     * Appends the value as a JSON string, letting formattable values (messages included) write themselves
+     */
+    private static void writeText(StringBuilder line, Object value) {
+        line.append('"');
+        int start = line.length();
+        if (value instanceof CharSequence text) {
+            line.append(text);
+        } else if (value instanceof StringBuilderFormattable formattable) {
+            formattable.formatTo(line);
+        } else {
+            line.append(value);
+        }
+        StringBuilders.escapeJson(line, start);
+        line.append('"');
+    }
+
+    private static void writeString(StringBuilder line, CharSequence text) {
+        line.append('"');
+        int start = line.length();
+        line.append(text);
+        StringBuilders.escapeJson(line, start);
+        line.append('"');
+    }
+}
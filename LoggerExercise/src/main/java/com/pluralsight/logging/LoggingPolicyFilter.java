@@ -0,0 +1,85 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole logging policy as one filter: {@link SamplingFilter}, then {@link DeduplicatingFilter}, then
+ * {@link TokenBucketFilter}. The order matters: repeats are dropped before they can use up the rate limit, so the
+ * rate limit only counts distinct events and each summary says what really happened.
+ * <p>
+ * The properties configuration format doesn't keep the order of several filters on one logger, which is why the
+ * three are chained here rather than listed in the configuration.
+ */
+@Plugin(name = "LoggingPolicyFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class LoggingPolicyFilter extends AbstractFilter {
+
+    private final List<AbstractFilter> chain;
+
+    private LoggingPolicyFilter(List<AbstractFilter> chain, Result onMatch, Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.chain = chain;
+    }
+
+    @PluginFactory
+    public static LoggingPolicyFilter createFilter(
+            @PluginAttribute(value = "sampleMaxLevel", defaultString = "DEBUG") Level sampleMaxLevel,
+            @PluginAttribute(value = "sampleEveryNth", defaultInt = 100) int sampleEveryNth,
+            @PluginAttribute(value = "dedupMinLevel", defaultString = "WARN") Level dedupMinLevel,
+            @PluginAttribute(value = "dedupWindowSeconds", defaultInt = 10) int dedupWindowSeconds,
+            @PluginAttribute(value = "rateMaxLevel", defaultString = "ERROR") Level rateMaxLevel,
+            @PluginAttribute(value = "ratePerSecond", defaultDouble = 10) double ratePerSecond,
+            @PluginAttribute(value = "rateBurst", defaultInt = 20) int rateBurst,
+            @PluginAttribute(value = "rateReportIntervalSeconds", defaultInt = 10) int rateReportIntervalSeconds,
+            @PluginAttribute(value = "onMatch", defaultString = "NEUTRAL") Result onMatch,
+            @PluginAttribute(value = "onMismatch", defaultString = "DENY") Result onMismatch,
+            @PluginConfiguration Configuration configuration) {
+        return new LoggingPolicyFilter(List.of(
+                SamplingFilter.createFilter(sampleMaxLevel, sampleEveryNth, Result.NEUTRAL, Result.DENY),
+                DeduplicatingFilter.createFilter(dedupMinLevel, dedupWindowSeconds, 10_000, Result.NEUTRAL, Result.DENY,
+                        configuration),
+                TokenBucketFilter.createFilter(rateMaxLevel, ratePerSecond, rateBurst, rateReportIntervalSeconds,
+                        Result.NEUTRAL, Result.DENY, configuration)),
+                onMatch, onMismatch);
+    }
+
+    /**
+     * onMismatch when any policy drops the event, otherwise onMatch
+     */
+    @Override
+    public Result filter(LogEvent event) {
+        for (Filter filter : chain) {
+            if (filter.filter(event) == Result.DENY) {
+                return onMismatch;
+            }
+        }
+        return onMatch;
+    }
+
+    @Override
+    public void start() {
+        chain.forEach(Filter::start);
+        super.start();
+    }
+
+    @Override
+    public boolean stop(long timeout, TimeUnit timeUnit) {
+        setStopping();
+        for (AbstractFilter filter : chain) {
+            filter.stop(timeout, timeUnit);
+        }
+        setStopped();
+        return true;
+    }
+}
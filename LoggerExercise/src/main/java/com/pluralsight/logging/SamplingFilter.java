@@ -0,0 +1,53 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in every everyNth events per logger and level at maxLevel or less severe (default DEBUG, so DEBUG and
+ * TRACE), starting with the first. More severe events are not touched. Sampled-out events are not summarized: at
+ * these levels the kept ones show what was going on.
+ */
+@Plugin(name = "SamplingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class SamplingFilter extends AbstractFilter {
+
+    private final Level maxLevel;
+    private final int everyNth;
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private SamplingFilter(Level maxLevel, int everyNth, Result onMatch, Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.maxLevel = maxLevel;
+        this.everyNth = Math.max(1, everyNth);
+    }
+
+    @PluginFactory
+    public static SamplingFilter createFilter(
+            @PluginAttribute(value = "maxLevel", defaultString = "DEBUG") Level maxLevel,
+            @PluginAttribute(value = "everyNth", defaultInt = 100) int everyNth,
+            @PluginAttribute(value = "onMatch", defaultString = "NEUTRAL") Result onMatch,
+            @PluginAttribute(value = "onMismatch", defaultString = "DENY") Result onMismatch) {
+        return new SamplingFilter(maxLevel, everyNth, onMatch, onMismatch);
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        if (!event.getLevel().isLessSpecificThan(maxLevel) || SummarizingFilter.isSummary(event)) {
+            return Result.NEUTRAL;
+        }
+
+        AtomicLong counter = counters.computeIfAbsent(event.getLoggerName() + '\u0000' + event.getLevel(),
+                key -> new AtomicLong());
+        return counter.getAndIncrement() % everyNth == 0 ? onMatch : onMismatch;
+    }
+}
@@ -0,0 +1,120 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.message.SimpleMessage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base for filters that drop events and later log one summary line saying how many they dropped.
+ * <p>
+ * While the filter is started a daemon thread calls {@link #report()} every reportIntervalSeconds, and stopping
+ * the filter reports once more so counts since the last tick aren't lost. Summaries are
+ * logged through the original logger with the {@link #SUMMARY} marker, which every filter in this package lets
+ * through untouched, so a summary is never itself suppressed.
+ * <p>
+ * On shutdown the logger context has already switched to an empty configuration when filters are stopped, so the
+ * final summaries go straight to the logger configs of the configuration the filter belongs to. Their appenders are
+ * still running when a logger's filter stops (not when an appender's own filter stops).
+ */
+public abstract class SummarizingFilter extends AbstractFilter {
+
+    public static final Marker SUMMARY = MarkerManager.getMarker("SUPPRESSION_SUMMARY");
+
+    private final int reportIntervalSeconds;
+    private final Configuration configuration;
+    private ScheduledExecutorService reporter;
+
+    /**
+     * @param configuration the configuration the filter is declared in, null when built outside of one
+     */
+    protected SummarizingFilter(Result onMatch, Result onMismatch, int reportIntervalSeconds,
+                                Configuration configuration) {
+        super(onMatch, onMismatch);
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        this.configuration = configuration;
+    }
+
+    public int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    /**
+     * Logs summaries for everything dropped since the last call
+     */
+    protected abstract void report();
+
+    /**
+     * Logs summaries for everything still counted, called once when the filter stops. Defaults to {@link #report()}
+     */
+    protected void reportRemaining() {
+        report();
+    }
+
+    protected static boolean isSummary(LogEvent event) {
+        return event.getMarker() != null && event.getMarker().isInstanceOf(SUMMARY);
+    }
+
+    /**
+     * Logs a summary line through the named logger
+     */
+    protected void emit(String loggerName, Level level, String text) {
+        if (isStopping() && configuration != null) {
+            configuration.getLoggerConfig(loggerName).log(loggerName, SummarizingFilter.class.getName(), SUMMARY,
+                    level, new SimpleMessage(text), null);
+        } else {
+            LogManager.getLogger(loggerName).log(level, SUMMARY, text);
+        }
+    }
+
+    @Override
+    public void start() {
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, getClass().getSimpleName() + "-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(this::reportSafely, reportIntervalSeconds, reportIntervalSeconds,
+                TimeUnit.SECONDS);
+        super.start();
+    }
+
+    @Override
+    public boolean stop(long timeout, TimeUnit timeUnit) {
+        setStopping();
+        if (reporter != null) {
+            reporter.shutdownNow();
+            try {
+                // Let a report already running finish, so the final one doesn't overlap it
+                reporter.awaitTermination(timeout, timeUnit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reporter = null;
+            try {
+                reportRemaining();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not log final suppression summary", e);
+            }
+        }
+        setStopped();
+        return true;
+    }
+
+    private void reportSafely() {
+        try {
+            report();
+        } catch (RuntimeException e) {
+            // A failed summary must not stop the reporter thread, the counts are reported next time
+            LOGGER.warn("Could not log suppression summary", e);
+        }
+    }
+}
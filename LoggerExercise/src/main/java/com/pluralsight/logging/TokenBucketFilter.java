@@ -0,0 +1,111 @@
+package com.pluralsight.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limits events per logger and level with a token bucket: each logger/level pair may log burst events at once
+ * and ratePerSecond events per second after that. Dropped events are counted and summarized as
+ * "Rate limit dropped N ERROR events" every reportIntervalSeconds.
+ * <p>
+ * Only events at or less severe than maxLevel are limited (default ERROR, so FATAL always gets through).
+ */
+@Plugin(name = "TokenBucketFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class TokenBucketFilter extends SummarizingFilter {
+
+    private final Level maxLevel;
+    private final double ratePerSecond;
+    private final int burst;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private TokenBucketFilter(Level maxLevel, double ratePerSecond, int burst, int reportIntervalSeconds,
+                              Result onMatch, Result onMismatch, Configuration configuration) {
+        super(onMatch, onMismatch, reportIntervalSeconds, configuration);
+        this.maxLevel = maxLevel;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+    }
+
+    @PluginFactory
+    public static TokenBucketFilter createFilter(
+            @PluginAttribute(value = "maxLevel", defaultString = "ERROR") Level maxLevel,
+            @PluginAttribute(value = "ratePerSecond", defaultDouble = 10) double ratePerSecond,
+            @PluginAttribute(value = "burst", defaultInt = 20) int burst,
+            @PluginAttribute(value = "reportIntervalSeconds", defaultInt = 10) int reportIntervalSeconds,
+            @PluginAttribute(value = "onMatch", defaultString = "NEUTRAL") Result onMatch,
+            @PluginAttribute(value = "onMismatch", defaultString = "DENY") Result onMismatch,
+            @PluginConfiguration Configuration configuration) {
+        return new TokenBucketFilter(maxLevel, ratePerSecond, burst, reportIntervalSeconds, onMatch, onMismatch,
+                configuration);
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        if (isSummary(event) || !event.getLevel().isLessSpecificThan(maxLevel)) {
+            return Result.NEUTRAL;
+        }
+
+        Bucket bucket = buckets.computeIfAbsent(event.getLoggerName() + '\u0000' + event.getLevel(),
+                key -> new Bucket(event.getLoggerName(), event.getLevel(), burst));
+        return bucket.tryTake(ratePerSecond, burst) ? onMatch : onMismatch;
+    }
+
+    @Override
+    protected void report() {
+        for (Bucket bucket : buckets.values()) {
+            long dropped = bucket.takeDropped();
+            if (dropped > 0) {
+                emit(bucket.loggerName, bucket.level, "Rate limit dropped " + dropped + " " + bucket.level +
+                        " events in the last " + getReportIntervalSeconds() + " s (limit " + ratePerSecond +
+                        "/s, burst " + burst + ")");
+            }
+        }
+    }
+
+    /**
+     * Tokens refill continuously at ratePerSecond up to burst
+     */
+    private static final class Bucket {
+        private final String loggerName;
+        private final Level level;
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private long dropped;
+
+        Bucket(String loggerName, Level level, int burst) {
+            this.loggerName = loggerName;
+            this.level = level;
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryTake(double ratePerSecond, int burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / 1e9);
+            refilledAt = now;
+
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            dropped++;
+            return false;
+        }
+
+        synchronized long takeDropped() {
+            long count = dropped;
+            dropped = 0;
+            return count;
+        }
+    }
+}
@@ -1,36 +1,39 @@
 package com.pluralsight;
 
-import java.sql.*;
+import com.pluralsight.query.DatabaseConfig;
+import com.pluralsight.query.QueryRunner;
 
-public class Main {
-    public static void main(String[] args) throws ClassNotFoundException, SQLException {
-
-        String connectionString = "jdbc:mysql://localhost:3306/northwind";
-        String username = "user_1";
-        String password = "password1234";
-
-        // Load the MySQL Driver
-        Class.forName("com.mysql.cj.jdbc.Driver");
+import java.sql.SQLException;
+import java.util.List;
 
-        // Open a connection to the database
-        Connection connection = DriverManager.getConnection(connectionString, username, password);
+public class Main {
+    public static void main(String[] args) throws SQLException {
+
+        // Credentials come from -Ddb.url/-Ddb.username/-Ddb.password, DB_URL/DB_USERNAME/DB_PASSWORD or db.properties
+        DatabaseConfig config;
+        try {
+            config = DatabaseConfig.load();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Example: java -Ddb.url=jdbc:mysql://localhost:3306/northwind " +
+                    "-Ddb.username=<username> -Ddb.password=<password> com.pluralsight.Main");
+            System.exit(1);
+            return;
+        }
 
-        // Create a statement
-        Statement statement = connection.createStatement();
+        // The runner owns a connection pool and closes every statement and result set it opens
+        try (QueryRunner runner = QueryRunner.create(config)) {
 
-        // Define query to select all product names
-        String query = "SELECT ProductName FROM Products";
+            // Define query to select all product names
+            String query = "SELECT ProductName FROM Products";
 
-        // Execute the query
-        ResultSet results = statement.executeQuery(query);
+            // Names are collected first, so a retried read never prints the same rows twice
+            List<String> productNames = runner.list(query, results -> results.getString("ProductName"));
 
-        // Process the results
-        while (results.next()) {
-            String productName = results.getString("ProductName");
-            System.out.println(productName);
+            // Process the results
+            for (String productName : productNames) {
+                System.out.println(productName);
+            }
         }
-
-        // Close the connection
-        connection.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.pluralsight.query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Connection settings for a {@link QueryRunner}, so credentials live outside the code.
+ * <p>
+ * Each setting is looked up as a system property (-Ddb.url), then an environment variable (DB_URL),
+ * then in a db.properties file (path from -Ddb.config, default ./db.properties).
+ * Settings: db.url, db.username, db.password and optionally db.maxConnections, db.fetchSize,
+ * db.connectTimeoutMs, db.socketTimeoutMs and db.queryTimeoutSeconds.
+ */
+public class DatabaseConfig {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxConnections;
+    private final int fetchSize;
+    private final int connectTimeoutMs;
+    private final int socketTimeoutMs;
+    private final int queryTimeoutSeconds;
+
+    public DatabaseConfig(String url, String username, String password, int maxConnections, int fetchSize,
+                          int connectTimeoutMs, int socketTimeoutMs, int queryTimeoutSeconds) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.fetchSize = fetchSize;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.socketTimeoutMs = socketTimeoutMs;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    /**
+     * Reads the settings from system properties, environment variables and db.properties
+     *
+     * @throws IllegalStateException when url, username or password is missing
+     */
+    public static DatabaseConfig load() {
+        Properties file = new Properties();
+        Path path = Path.of(System.getProperty("db.config", "db.properties"));
+        if (Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                file.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + path, e);
+            }
+        }
+
+        return new DatabaseConfig(
+                required(file, "db.url"),
+                required(file, "db.username"),
+                required(file, "db.password"),
+                Integer.parseInt(setting(file, "db.maxConnections", "8")),
+                Integer.parseInt(setting(file, "db.fetchSize", "500")),
+                Integer.parseInt(setting(file, "db.connectTimeoutMs", "3000")),
+                Integer.parseInt(setting(file, "db.socketTimeoutMs", "30000")),
+                Integer.parseInt(setting(file, "db.queryTimeoutSeconds", "30")));
+    }
+
+    private static String required(Properties file, String key) {
+        String value = setting(file, key, null);
+        if (value == null) {
+            throw new IllegalStateException("Missing setting " + key + " (system property, " +
+                    environmentName(key) + " environment variable or db.properties)");
+        }
+        return value;
+    }
+
+    private static String setting(Properties file, String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(environmentName(key));
+        }
+        if (value == null) {
+            value = file.getProperty(key);
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    // db.maxConnections -> DB_MAXCONNECTIONS
+    private static String environmentName(String key) {
+        return key.replace('.', '_').toUpperCase(Locale.ROOT);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+}
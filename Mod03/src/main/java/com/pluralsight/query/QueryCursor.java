@@ -0,0 +1,76 @@
+package com.pluralsight.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * An open query (connection, statement and result set) read one row at a time.
+ * It closes itself after the last row or a failure, and {@link #close()} can be called at any time to stop early.
+ */
+class QueryCursor<T> implements AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final QueryRunner.RowMapper<T> mapper;
+    private boolean closed;
+
+    QueryCursor(Connection connection, PreparedStatement statement, ResultSet resultSet, QueryRunner.RowMapper<T> mapper) {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Fetches and maps the next row and hands it to action
+     *
+     * @return false once there are no more rows (the cursor is closed by then)
+     */
+    boolean advance(Consumer<? super T> action) throws SQLException {
+        if (closed) {
+            return false;
+        }
+
+        T row;
+        try {
+            if (!resultSet.next()) {
+                close();
+                return false;
+            }
+            row = mapper.map(resultSet);
+        } catch (SQLException | RuntimeException e) {
+            closeAfterFailure(e);
+            throw e;
+        }
+
+        action.accept(row);
+        return true;
+    }
+
+    /**
+     * Releases the result set, statement and connection, in that order. Safe to call more than once
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try (connection; statement; resultSet) {
+            // try-with-resources closes them in reverse order and keeps the first failure
+        }
+    }
+
+    private void closeAfterFailure(Exception failure) {
+        try {
+            close();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pluralsight.query;
+
+import java.sql.SQLException;
+
+/**
+ * Unchecked wrapper for a SQLException thrown while a {@link QueryRunner} stream is being consumed,
+ * since Stream operations cannot throw checked exceptions
+ */
+public class QueryException extends RuntimeException {
+
+    public QueryException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,140 @@
+package com.pluralsight.query;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the rows of a query to {@link Flow.Subscriber}s, fetching only as many rows as they request.
+ * <p>
+ * Every subscriber gets its own run of the query, opened on its first request. Rows are fetched and delivered
+ * on the executor, never more than the outstanding demand. The connection is released when the last row has been
+ * delivered (onComplete), when fetching fails (onError) or when the subscriber cancels.
+ */
+class QueryPublisher<T> implements Flow.Publisher<T> {
+
+    private final CursorOpener<T> opener;
+    private final Executor executor;
+
+    QueryPublisher(CursorOpener<T> opener, Executor executor) {
+        this.opener = opener;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscriber.onSubscribe(new QuerySubscription<>(subscriber, opener, executor));
+    }
+
+    /**
+     * Runs the query, called on the executor
+     */
+    @FunctionalInterface
+    interface CursorOpener<T> {
+        QueryCursor<T> open() throws SQLException;
+    }
+
+    private static class QuerySubscription<T> implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final CursorOpener<T> opener;
+        private final Executor executor;
+
+        private final AtomicLong demand = new AtomicLong();
+        // Number of drain requests; only the caller that raises it from 0 schedules the drain loop
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private Throwable invalidRequest;
+
+        // Only touched by the drain loop, which never runs twice at the same time
+        private QueryCursor<T> cursor;
+
+        private QuerySubscription(Flow.Subscriber<? super T> subscriber, CursorOpener<T> opener, Executor executor) {
+            this.subscriber = subscriber;
+            this.opener = opener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " rows, must be positive");
+            } else {
+                // Adds n, sticking at Long.MAX_VALUE (which means "no limit") instead of overflowing
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this::drainLoop);
+            }
+        }
+
+        /**
+         * Delivers rows while there is demand. Returns without lowering pending once the subscription has ended,
+         * so no drain is ever scheduled again
+         */
+        private void drainLoop() {
+            int missed = 1;
+            while (true) {
+                if (cancelled) {
+                    closeCursor();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    fail(invalidRequest);
+                    return;
+                }
+
+                try {
+                    if (cursor == null && demand.get() > 0) {
+                        cursor = opener.open();
+                    }
+
+                    while (demand.get() > 0 && !cancelled) {
+                        if (!cursor.advance(subscriber::onNext)) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        demand.decrementAndGet();
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void fail(Throwable failure) {
+            cancelled = true;
+            closeCursor();
+            subscriber.onError(failure);
+        }
+
+        private void closeCursor() {
+            if (cursor != null) {
+                try {
+                    cursor.close();
+                } catch (SQLException e) {
+                    // Nobody is listening any more, the pool discards a connection that failed to clean up
+                }
+            }
+        }
+    }
+}
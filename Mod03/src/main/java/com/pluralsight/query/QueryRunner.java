@@ -0,0 +1,251 @@
+package com.pluralsight.query;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs parameterized SELECTs on a pooled DataSource and always releases the connection, statement and
+ * result set, whether the caller finishes, stops early or fails.
+ * <p>
+ * Four ways to consume a query:
+ * <ul>
+ *     <li>{@link #list} maps every row and returns them, retrying the whole read on transient failures</li>
+ *     <li>{@link #forEach} hands each row to a callback as it is fetched</li>
+ *     <li>{@link #stream} returns a lazy {@code Stream} that fetches rows as they are pulled</li>
+ *     <li>{@link #publish} returns a {@code Flow.Publisher} that fetches rows as subscribers request them</li>
+ * </ul>
+ * Rows are fetched in batches of the configured fetch size. A pool created by {@link #create(DatabaseConfig)}
+ * turns on server-side cursors (useCursorFetch) so that bound really holds; with another DataSource the
+ * fetch size is only a hint to the driver.
+ */
+public class QueryRunner implements AutoCloseable {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 200;
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+    private final int queryTimeoutSeconds;
+    private final boolean ownsDataSource;
+
+    /**
+     * Runner on a DataSource owned by the caller, which stays open when the runner is closed
+     */
+    public QueryRunner(DataSource dataSource, int fetchSize, int queryTimeoutSeconds) {
+        this(dataSource, fetchSize, queryTimeoutSeconds, false);
+    }
+
+    private QueryRunner(DataSource dataSource, int fetchSize, int queryTimeoutSeconds, boolean ownsDataSource) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.ownsDataSource = ownsDataSource;
+    }
+
+    /**
+     * Runner with its own connection pool, closed together with the runner
+     */
+    public static QueryRunner create(DatabaseConfig config) {
+        BasicDataSource pool = new BasicDataSource();
+        pool.setUrl(config.getUrl());
+        pool.setUsername(config.getUsername());
+        pool.setPassword(config.getPassword());
+        pool.setMaxTotal(config.getMaxConnections());
+        pool.setConnectionProperties("useCursorFetch=true" +
+                ";connectTimeout=" + config.getConnectTimeoutMs() +
+                ";socketTimeout=" + config.getSocketTimeoutMs());
+
+        return new QueryRunner(pool, config.getFetchSize(), config.getQueryTimeoutSeconds(), true);
+    }
+
+    /**
+     * Runs the query and maps every row. The read is repeated from the start when it fails with a
+     * timeout or a lost connection, so it is only meant for SELECTs
+     */
+    public <T> List<T> list(String sql, RowMapper<T> mapper, Object... parameters) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = prepare(connection, sql, parameters);
+                 ResultSet rs = ps.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return rows;
+            } catch (SQLException e) {
+                if (!isTransient(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    /**
+     * Runs the query and passes each row to the callback as it is fetched
+     */
+    public void forEach(String sql, RowCallback callback, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = prepare(connection, sql, parameters);
+             ResultSet rs = ps.executeQuery()) {
+            Row.Columns columns = Row.columnsOf(rs);
+            while (rs.next()) {
+                callback.accept(Row.copyOf(rs, columns));
+            }
+        }
+    }
+
+    /**
+     * Runs the query and returns its rows as a lazy stream of {@link Row}s, see {@link #stream(String, RowMapper, Object...)}
+     */
+    public Stream<Row> stream(String sql, Object... parameters) throws SQLException {
+        return stream(sql, Row.mapper(), parameters);
+    }
+
+    /**
+     * Runs the query and returns its rows as a lazily evaluated stream. Rows are fetched and mapped only as the
+     * stream pulls them, so {@code limit(10)} stops fetching after the tenth row and filter/map/collect never
+     * hold more than one fetch batch. The connection is released when the last row has been read, when fetching
+     * fails, or when the stream is closed, which is how a stream that stops early is cancelled:
+     * <pre>
+     * try (Stream&lt;String&gt; names = runner.stream("SELECT ProductName FROM Products", rs -&gt; rs.getString(1))) {
+     *     names.limit(10).forEach(System.out::println);
+     * }
+     * </pre>
+     * Errors while fetching are thrown as {@link QueryException}
+     */
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... parameters) throws SQLException {
+        QueryCursor<T> cursor = open(sql, mapper, parameters);
+
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    return cursor.advance(action);
+                } catch (SQLException e) {
+                    throw new QueryException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (SQLException e) {
+                throw new QueryException(e);
+            }
+        });
+    }
+
+    /**
+     * Publishes the query's rows to reactive subscribers, fetching only what they request.
+     * Each subscriber runs the query separately, on a virtual thread, and cancelling releases the connection
+     */
+    public <T> Flow.Publisher<T> publish(String sql, RowMapper<T> mapper, Object... parameters) {
+        return publish(runnable -> Thread.ofVirtual().name("query-publisher").start(runnable), sql, mapper, parameters);
+    }
+
+    /**
+     * Same as {@link #publish(String, RowMapper, Object...)}, fetching and delivering rows on the given executor
+     */
+    public <T> Flow.Publisher<T> publish(Executor executor, String sql, RowMapper<T> mapper, Object... parameters) {
+        Object[] copy = parameters.clone();
+        return new QueryPublisher<>(() -> open(sql, mapper, copy), executor);
+    }
+
+    /**
+     * Closes the pool when the runner created it
+     */
+    @Override
+    public void close() throws SQLException {
+        if (ownsDataSource) {
+            ((BasicDataSource) dataSource).close();
+        }
+    }
+
+    /**
+     * Executes the query and hands its resources to a cursor, releasing them here if that fails
+     */
+    private <T> QueryCursor<T> open(String sql, RowMapper<T> mapper, Object[] parameters) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            PreparedStatement ps = prepare(connection, sql, parameters);
+            try {
+                return new QueryCursor<>(connection, ps, ps.executeQuery(), mapper);
+            } catch (SQLException | RuntimeException e) {
+                ps.close();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, Object[] parameters) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            ps.setFetchSize(fetchSize);
+            ps.setQueryTimeout(queryTimeoutSeconds);
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            return ps;
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Timeouts and lost connections (SQLState class 08) are worth another try, bad SQL or credentials are not
+     */
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+
+    private static void sleepBeforeRetry(int attempt) throws SQLException {
+        try {
+            Thread.sleep(BASE_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    /**
+     * Maps the current row of a result set to a T
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Receives each row of a query
+     */
+    @FunctionalInterface
+    public interface RowCallback {
+        void accept(Row row) throws SQLException;
+    }
+}
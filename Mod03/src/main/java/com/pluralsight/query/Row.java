@@ -0,0 +1,130 @@
+package com.pluralsight.query;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A copy of one result row, still usable after the cursor moved on or the connection was closed.
+ * Columns are looked up by label (case-insensitive) or by 1-based index, like on a ResultSet.
+ */
+public class Row {
+
+    private final Columns columns;
+    private final Object[] values;
+
+    private Row(Columns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public Object getObject(String column) {
+        return values[columns.indexOf(column)];
+    }
+
+    public Object getObject(int index) {
+        return values[index - 1];
+    }
+
+    public String getString(String column) {
+        Object value = getObject(column);
+        return value == null ? null : value.toString();
+    }
+
+    public String getString(int index) {
+        Object value = getObject(index);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @return the column as an int, 0 for SQL NULL (same as ResultSet.getInt)
+     */
+    public int getInt(String column) {
+        Object value = getObject(column);
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    public long getLong(String column) {
+        Object value = getObject(column);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    public double getDouble(String column) {
+        Object value = getObject(column);
+        return value == null ? 0 : ((Number) value).doubleValue();
+    }
+
+    public List<String> getColumnNames() {
+        return columns.labels;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+
+    /**
+     * Mapper that copies each row, reading the column labels from the first one
+     */
+    static QueryRunner.RowMapper<Row> mapper() {
+        return new QueryRunner.RowMapper<>() {
+            private Columns columns;
+
+            @Override
+            public Row map(ResultSet rs) throws SQLException {
+                if (columns == null) {
+                    columns = columnsOf(rs);
+                }
+                return copyOf(rs, columns);
+            }
+        };
+    }
+
+    /**
+     * Reads the result set's column labels once, so every row of a query shares them
+     */
+    static Columns columnsOf(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return new Columns(List.of(labels));
+    }
+
+    /**
+     * Copies the current row of the result set
+     */
+    static Row copyOf(ResultSet rs, Columns columns) throws SQLException {
+        Object[] values = new Object[columns.labels.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return new Row(columns, values);
+    }
+
+    static class Columns {
+        private final List<String> labels;
+        private final Map<String, Integer> indexByLabel = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private Columns(List<String> labels) {
+            this.labels = labels;
+            for (int i = labels.size() - 1; i >= 0; i--) {
+                // First occurrence wins when a join returns the same label twice
+                indexByLabel.put(labels.get(i), i);
+            }
+        }
+
+        private int indexOf(String label) {
+            Integer index = indexByLabel.get(label);
+            if (index == null) {
+                throw new IllegalArgumentException("No column " + label + " in " + labels);
+            }
+            return index;
+        }
+    }
+}
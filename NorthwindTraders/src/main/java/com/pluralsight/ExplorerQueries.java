@@ -0,0 +1,236 @@
+package com.pluralsight;
+
+import com.pluralsight.catalog.CatalogSnapshot;
+import com.pluralsight.catalog.Category;
+import com.pluralsight.catalog.Customer;
+import com.pluralsight.catalog.Product;
+import com.pluralsight.coalesce.SingleFlight;
+import com.pluralsight.jfr.QueryExecuteEvent;
+import com.pluralsight.jfr.RowFetchEvent;
+import com.pluralsight.resilience.CircuitOpenException;
+import com.pluralsight.resilience.ResilientConnector;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The explorer's main menu queries, shared by the console {@link Main} and the multi-session server.
+ * <p>
+ * Reads go through the {@link ResilientConnector}. While the database is unavailable, products and categories
+ * are answered from the catalog snapshot instead (when it is loaded) and the result says how old that copy is.
+ * Identical reads that overlap in time share one query through {@link SingleFlight}, so a burst of users asking for
+ * the same category costs one round trip; -Ddb.coalesceReads=false turns that off. Rows are shared between those
+ * callers and can't be modified. Safe to use from many threads.
+ */
+public class ExplorerQueries {
+
+    private final ResilientConnector connector;
+    private final CatalogSnapshot catalogSnapshot;
+    private final SingleFlight singleFlight;
+
+    public ExplorerQueries(ResilientConnector connector, CatalogSnapshot catalogSnapshot) {
+        this(connector, catalogSnapshot,
+                new SingleFlight(Boolean.parseBoolean(System.getProperty("db.coalesceReads", "true"))));
+    }
+
+    public ExplorerQueries(ResilientConnector connector, CatalogSnapshot catalogSnapshot, SingleFlight singleFlight) {
+        this.connector = connector;
+        this.catalogSnapshot = catalogSnapshot;
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * How many reads ran and how many were shared
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * All products, ordered by id
+     */
+    public Result<Product> products() throws SQLException {
+        try {
+            return Result.live(singleFlight.execute(Main.PRODUCTS_SQL, List.of(), () -> connector.read(connection -> {
+                // Try-with-resources automatically closes Statement and ResultSet
+                try (Statement statement = connection.createStatement()) {
+                    statement.setQueryTimeout(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS);
+                    try (ResultSet results = execute("products", Main.PRODUCTS_SQL,
+                            () -> statement.executeQuery(Main.PRODUCTS_SQL))) {
+                        RowFetchEvent fetch = new RowFetchEvent();
+                        fetch.begin();
+                        List<Product> rows = new ArrayList<>();
+                        while (results.next()) {
+                            rows.add(new Product(results.getInt("ProductID"), fetch.text(results, "ProductName"), 0,
+                                    results.getDouble("UnitPrice"), results.getInt("UnitsInStock")));
+                        }
+                        fetch.record("products", rows.size());
+                        return rows;
+                    }
+                }
+            })));
+        } catch (SQLException e) {
+            if (!canUseCachedCatalog(e)) {
+                throw e;
+            }
+            List<Product> products = catalogSnapshot.getProducts();
+            products.sort(Comparator.comparingInt(Product::getProductId));
+            return Result.cached(products, catalogSnapshot.getLoadedAt());
+        }
+    }
+
+    /**
+     * All customers, ordered by country. There is no cached copy of customers, so this fails during an outage
+     */
+    public Result<Customer> customers() throws SQLException {
+        return Result.live(singleFlight.execute(Main.CUSTOMERS_SQL, List.of(), () -> connector.read(connection -> {
+            // Try-with-resources for automatic resource management
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS);
+                try (ResultSet results = execute("customers", Main.CUSTOMERS_SQL,
+                        () -> statement.executeQuery(Main.CUSTOMERS_SQL))) {
+                    RowFetchEvent fetch = new RowFetchEvent();
+                    fetch.begin();
+                    List<Customer> rows = new ArrayList<>();
+                    while (results.next()) {
+                        rows.add(new Customer(null, fetch.text(results, "ContactName"),
+                                fetch.text(results, "CompanyName"), fetch.text(results, "City"),
+                                fetch.text(results, "Country"), fetch.text(results, "Phone")));
+                    }
+                    fetch.record("customers", rows.size());
+                    return rows;
+                }
+            }
+        })));
+    }
+
+    /**
+     * All categories, ordered by id
+     */
+    public Result<Category> categories() throws SQLException {
+        try {
+            return Result.live(singleFlight.execute(Main.CATEGORIES_SQL, List.of(), () -> connector.read(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.setQueryTimeout(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS);
+                    try (ResultSet results = execute("categories", Main.CATEGORIES_SQL,
+                            () -> statement.executeQuery(Main.CATEGORIES_SQL))) {
+                        RowFetchEvent fetch = new RowFetchEvent();
+                        fetch.begin();
+                        List<Category> rows = new ArrayList<>();
+                        while (results.next()) {
+                            rows.add(new Category(results.getInt("CategoryID"), fetch.text(results, "CategoryName")));
+                        }
+                        fetch.record("categories", rows.size());
+                        return rows;
+                    }
+                }
+            })));
+        } catch (SQLException e) {
+            if (!canUseCachedCatalog(e)) {
+                throw e;
+            }
+            return Result.cached(catalogSnapshot.getCategories(), catalogSnapshot.getLoadedAt());
+        }
+    }
+
+    /**
+     * Products of one category. Uses a PreparedStatement to safely handle user input
+     */
+    public Result<Product> productsInCategory(int categoryId) throws SQLException {
+        try {
+            return Result.live(singleFlight.execute(Main.PRODUCTS_BY_CATEGORY_SQL, List.of(categoryId),
+                    () -> connector.read(connection -> {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(Main.PRODUCTS_BY_CATEGORY_SQL)) {
+                    // Set the category ID parameter in the prepared statement
+                    preparedStatement.setInt(1, categoryId);
+                    preparedStatement.setQueryTimeout(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS);
+
+                    try (ResultSet results = execute("productsInCategory", Main.PRODUCTS_BY_CATEGORY_SQL,
+                            preparedStatement::executeQuery)) {
+                        RowFetchEvent fetch = new RowFetchEvent();
+                        fetch.begin();
+                        List<Product> rows = new ArrayList<>();
+                        while (results.next()) {
+                            rows.add(new Product(results.getInt("ProductID"), fetch.text(results, "ProductName"),
+                                    categoryId, results.getDouble("UnitPrice"), results.getInt("UnitsInStock")));
+                        }
+                        fetch.record("productsInCategory", rows.size());
+                        return rows;
+                    }
+                }
+            })));
+        } catch (SQLException e) {
+            if (!canUseCachedCatalog(e)) {
+                throw e;
+            }
+            return Result.cached(catalogSnapshot.productsInCategory(categoryId), catalogSnapshot.getLoadedAt());
+        }
+    }
+
+    /**
+     * Runs a statement inside a {@link QueryExecuteEvent}
+     */
+    private static ResultSet execute(String queryName, String sql, SingleFlight.Query<ResultSet> query)
+            throws SQLException {
+        QueryExecuteEvent event = new QueryExecuteEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            ResultSet results = query.run();
+            succeeded = true;
+            return results;
+        } finally {
+            event.record(queryName, sql, succeeded);
+        }
+    }
+
+    /**
+     * Only outages qualify for the cached catalog (breaker open, timeouts, lost connections), not errors in the query
+     */
+    private boolean canUseCachedCatalog(SQLException e) {
+        return (e instanceof CircuitOpenException || ResilientConnector.isTransient(e)) && catalogSnapshot.isLoaded();
+    }
+
+    /**
+     * Rows of one query, and when they came from the catalog snapshot, the time that copy was loaded
+     */
+    public static class Result<T> {
+        private final List<T> rows;
+        private final Instant cachedAt;
+
+        private Result(List<T> rows, Instant cachedAt) {
+            this.rows = rows;
+            this.cachedAt = cachedAt;
+        }
+
+        private static <T> Result<T> live(List<T> rows) {
+            return new Result<>(Collections.unmodifiableList(rows), null);
+        }
+
+        private static <T> Result<T> cached(List<T> rows, Instant cachedAt) {
+            return new Result<>(rows, cachedAt);
+        }
+
+        public List<T> getRows() {
+            return rows;
+        }
+
+        public boolean isCached() {
+            return cachedAt != null;
+        }
+
+        /**
+         * @return when the cached copy was loaded, null for rows read from the database
+         */
+        public Instant getCachedAt() {
+            return cachedAt;
+        }
+    }
+}
@@ -1,13 +1,47 @@
 package com.pluralsight;
 
 import com.pluralsight.Color.ColorCodes;
+import com.pluralsight.catalog.CatalogSnapshot;
+import com.pluralsight.catalog.CatalogSnapshotFile;
+import com.pluralsight.catalog.Category;
+import com.pluralsight.catalog.Customer;
+import com.pluralsight.catalog.Product;
+import com.pluralsight.catalog.ProductChangePoller;
+import com.pluralsight.jfr.RenderEvent;
+import com.pluralsight.reports.CategoryStock;
+import com.pluralsight.reports.CountryCount;
+import com.pluralsight.reports.InventoryReports;
+import com.pluralsight.resilience.CircuitOpenException;
+import com.pluralsight.resilience.ResilientConnector;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.Duration;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
 
+    // Explorer queries, shared with NorthwindQueryPlans so the diagnostics always check what users actually run
+    public static final String PRODUCTS_SQL =
+            "SELECT ProductID, ProductName, UnitPrice, UnitsInStock FROM Products ORDER BY ProductID";
+    public static final String CUSTOMERS_SQL =
+            "SELECT ContactName, CompanyName, City, Country, Phone FROM Customers ORDER BY Country";
+    public static final String CATEGORIES_SQL = "SELECT CategoryID, CategoryName FROM Categories ORDER BY CategoryID";
+    public static final String PRODUCTS_BY_CATEGORY_SQL =
+            "SELECT ProductID, ProductName, UnitPrice, UnitsInStock FROM Products WHERE CategoryID = ?";
+
     private static sqlConnectionInfo sqlConnectionInfo;
+    private static ExplorerQueries explorerQueries;
+    private static CatalogSnapshot catalogSnapshot;
+    private static ProductChangePoller productChangePoller;
+    private static InventoryReports inventoryReports;
+
+    // Binary copy of the catalog written after every full load, mapped on startup: -Dcatalog.snapshotFile=...
+    private static final Path catalogSnapshotPath =
+            Path.of(System.getProperty("catalog.snapshotFile", "northwind-catalog.snap"));
 
     public static void main(String[] args) {
 
@@ -22,6 +56,31 @@ public class Main {
         // Initialize database connection info from command line arguments
         sqlConnectionInfo = getSqlConnectionInfoFromArgs(args);
 
+        // Optional read replicas for the explorer queries: -Ddb.replicaUrls=jdbc:mysql://replica1/northwind,...
+        String replicaUrls = System.getProperty("db.replicaUrls");
+        if (replicaUrls != null && !replicaUrls.isBlank()) {
+            sqlConnectionInfo.useReadReplicas(List.of(replicaUrls.split(",")));
+            System.out.println(ColorCodes.BRIGHT_CYAN + "🔀 Reading from " +
+                    sqlConnectionInfo.getReadDataSource().getReplicaCount() + " replica(s)" + ColorCodes.RESET);
+        }
+
+        // In-memory copy of Products/Categories, loaded the first time the offline menu is used
+        catalogSnapshot = new CatalogSnapshot(sqlConnectionInfo);
+
+        // Retries, backoff and circuit breaker in front of every menu query, with the snapshot as fallback
+        explorerQueries = new ExplorerQueries(
+                new ResilientConnector(sqlConnectionInfo::getReadConnection, "read"), catalogSnapshot);
+        productChangePoller = new ProductChangePoller(sqlConnectionInfo, catalogSnapshot);
+        loadCatalogSnapshotFile();
+        inventoryReports = new InventoryReports(sqlConnectionInfo);
+
+        // Optional background refresh: -Dcatalog.pollSeconds=30
+        String pollSeconds = System.getProperty("catalog.pollSeconds");
+        if (pollSeconds != null) {
+            productChangePoller.start(Duration.ofSeconds(Long.parseLong(pollSeconds)),
+                    warning -> System.out.println(ColorCodes.ORANGE + "⚠️  " + warning + ColorCodes.RESET));
+        }
+
         // Welcome message
         System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD +
                 "🗄️  Welcome to the Database Explorer!" + ColorCodes.RESET);
@@ -40,6 +99,10 @@ public class Main {
                         ColorCodes.YELLOW + "👥 Display all customers" + ColorCodes.RESET);
                 System.out.println(ColorCodes.BRIGHT_PURPLE + "3) " + ColorCodes.RESET +
                         ColorCodes.PURPLE + "📂 Display all categories" + ColorCodes.RESET);
+                System.out.println(ColorCodes.BRIGHT_CYAN + "4) " + ColorCodes.RESET +
+                        ColorCodes.CYAN + "⚡ Offline catalog queries" + ColorCodes.RESET);
+                System.out.println(ColorCodes.BRIGHT_WHITE + "5) " + ColorCodes.RESET +
+                        ColorCodes.GOLD + "📈 Reports" + ColorCodes.RESET);
                 System.out.println(ColorCodes.BRIGHT_RED + "0) " + ColorCodes.RESET +
                         ColorCodes.RED + "🚪 Exit" + ColorCodes.RESET);
                 System.out.print(ColorCodes.BRIGHT_CYAN + "\n💬 Select an option: " + ColorCodes.RESET);
@@ -47,25 +110,43 @@ public class Main {
                 // Read user's menu choice
                 int choice = scanner.nextInt();
 
-                // Process user's selection using if-else chain
+                // Exit is handled before the database work so it never depends on the connection
                 if (choice == 0) {
                     // User wants to exit the application
                     System.out.println(ColorCodes.CORAL + ColorCodes.BOLD +
                             "👋 Thanks for using Database Explorer! Goodbye!" + ColorCodes.RESET);
                     break; // Exit the while loop
-                } else if (choice == 1) {
-                    // User wants to see all products
-                    displayProducts();
-                } else if (choice == 2) {
-                    // User wants to see all customers
-                    displayCustomers();
-                } else if (choice == 3) {
-                    // User wants to see all categories and then products by category
-                    displayCategoriesAndProducts(scanner);
-                } else {
-                    // Invalid menu option selected
+                }
+
+                // A failed action is reported and the menu comes back, so a database outage doesn't end the session
+                try {
+                    // Process user's selection using if-else chain
+                    if (choice == 1) {
+                        // User wants to see all products
+                        displayProducts();
+                    } else if (choice == 2) {
+                        // User wants to see all customers
+                        displayCustomers();
+                    } else if (choice == 3) {
+                        // User wants to see all categories and then products by category
+                        displayCategoriesAndProducts(scanner);
+                    } else if (choice == 4) {
+                        // User wants to filter the in-memory catalog without querying the database
+                        offlineCatalogMenu(scanner);
+                    } else if (choice == 5) {
+                        // User wants aggregate reports computed by the database
+                        reportsMenu(scanner);
+                    } else {
+                        // Invalid menu option selected
+                        System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
+                                "❌ Invalid selection. Please try again.\n" + ColorCodes.RESET);
+                    }
+                } catch (CircuitOpenException e) {
+                    System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
+                            "🔌 Database unavailable, try again in a few seconds" + ColorCodes.RESET);
+                } catch (SQLException e) {
                     System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
-                            "❌ Invalid selection. Please try again.\n" + ColorCodes.RESET);
+                            "💥 Database error: " + ColorCodes.RESET + ColorCodes.RED + e.getMessage() + ColorCodes.RESET);
                 }
             }
         } catch (Exception e) {
@@ -73,6 +154,12 @@ public class Main {
             System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
                     "💥 An error occurred: " + ColorCodes.RESET + ColorCodes.RED + e.getMessage() + ColorCodes.RESET);
             e.printStackTrace();
+        } finally {
+            try {
+                sqlConnectionInfo.close();
+            } catch (SQLException e) {
+                System.out.println(ColorCodes.ORANGE + "⚠️  Error closing replica connections: " + e.getMessage() + ColorCodes.RESET);
+            }
         }
     }
 
@@ -89,37 +176,33 @@ public class Main {
 
     /**
      * Method to retrieve and display all products from the database
-     * Uses try-with-resources to ensure proper cleanup of database resources
+     * Rows are read first (so a transient failure can retry the whole read) and then displayed.
+     * While the database is unavailable the cached catalog snapshot is shown instead
      */
     public static void displayProducts() throws SQLException {
+        ExplorerQueries.Result<Product> result = explorerQueries.products();
+        List<Product> products = result.getRows();
+        printCacheNotice(result);
+
+        RenderEvent render = new RenderEvent();
+        render.begin();
         System.out.println(ColorCodes.BRIGHT_GREEN + ColorCodes.BOLD +
                 "\n📦 ALL PRODUCTS" + ColorCodes.RESET);
         System.out.println(ColorCodes.GREEN + "═══════════════════════════════════════" + ColorCodes.RESET);
 
-        // Try-with-resources automatically closes Connection, Statement, and ResultSet
-        try (Connection connection = DriverManager.getConnection(
-                sqlConnectionInfo.getConnectionString(),
-                sqlConnectionInfo.getUsername(),
-                sqlConnectionInfo.getPassword());
-             Statement statement = connection.createStatement();
-             ResultSet results = statement.executeQuery(
-                     "SELECT ProductID, ProductName, UnitPrice, UnitsInStock FROM Products")) {
-
-            // Iterate through all rows returned by the query
-            while (results.next()) {
-                // Extract and display each product's information
-                System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Product Id: " + ColorCodes.RESET +
-                        ColorCodes.CYAN + results.getInt("ProductID") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_YELLOW + "📝 Name: " + ColorCodes.RESET +
-                        ColorCodes.YELLOW + results.getString("ProductName") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_GREEN + "💰 Price: " + ColorCodes.RESET +
-                        ColorCodes.GREEN + String.format("$%.2f", results.getDouble("UnitPrice")) + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_PURPLE + "📊 Stock: " + ColorCodes.RESET +
-                        ColorCodes.PURPLE + results.getInt("UnitsInStock") + " units" + ColorCodes.RESET);
-                System.out.println(ColorCodes.CYAN + "─────────────────────────" + ColorCodes.RESET);
-            }
+        for (Product product : products) {
+            // Display each product's information
+            System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Product Id: " + ColorCodes.RESET +
+                    ColorCodes.CYAN + product.getProductId() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "📝 Name: " + ColorCodes.RESET +
+                    ColorCodes.YELLOW + product.getProductName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "💰 Price: " + ColorCodes.RESET +
+                    ColorCodes.GREEN + String.format("$%.2f", product.getUnitPrice()) + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "📊 Stock: " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + product.getUnitsInStock() + " units" + ColorCodes.RESET);
+            System.out.println(ColorCodes.CYAN + "─────────────────────────" + ColorCodes.RESET);
         }
-        // Resources are automatically closed here due to try-with-resources
+        render.record("products", products.size());
     }
 
     /**
@@ -127,36 +210,29 @@ public class Main {
      * Results are ordered by country for better organization
      */
     public static void displayCustomers() throws SQLException {
+        List<Customer> customers = explorerQueries.customers().getRows();
+
+        RenderEvent render = new RenderEvent();
+        render.begin();
         System.out.println(ColorCodes.BRIGHT_YELLOW + ColorCodes.BOLD +
                 "\n👥 ALL CUSTOMERS" + ColorCodes.RESET);
         System.out.println(ColorCodes.YELLOW + "═══════════════════════════════════════" + ColorCodes.RESET);
 
-        // Try-with-resources for automatic resource management
-        try (Connection connection = DriverManager.getConnection(
-                sqlConnectionInfo.getConnectionString(),
-                sqlConnectionInfo.getUsername(),
-                sqlConnectionInfo.getPassword());
-             Statement statement = connection.createStatement();
-             ResultSet results = statement.executeQuery(
-                     "SELECT ContactName, CompanyName, City, Country, Phone FROM Customers ORDER BY Country")) {
-
-            // Loop through each customer record returned
-            while (results.next()) {
-                // Extract and display each customer's information
-                System.out.println(ColorCodes.BRIGHT_BLUE + "👤 Contact: " + ColorCodes.RESET +
-                        ColorCodes.CYAN + results.getString("ContactName") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_PURPLE + "🏢 Company: " + ColorCodes.RESET +
-                        ColorCodes.PURPLE + results.getString("CompanyName") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_GREEN + "🏙️  City: " + ColorCodes.RESET +
-                        ColorCodes.GREEN + results.getString("City") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_YELLOW + "🌍 Country: " + ColorCodes.RESET +
-                        ColorCodes.GOLD + results.getString("Country") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_RED + "📞 Phone: " + ColorCodes.RESET +
-                        ColorCodes.RED + results.getString("Phone") + ColorCodes.RESET);
-                System.out.println(ColorCodes.YELLOW + "─────────────────────────" + ColorCodes.RESET);
-            }
+        for (Customer customer : customers) {
+            // Display each customer's information
+            System.out.println(ColorCodes.BRIGHT_BLUE + "👤 Contact: " + ColorCodes.RESET +
+                    ColorCodes.CYAN + customer.getContactName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "🏢 Company: " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + customer.getCompanyName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "🏙️  City: " + ColorCodes.RESET +
+                    ColorCodes.GREEN + customer.getCity() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "🌍 Country: " + ColorCodes.RESET +
+                    ColorCodes.GOLD + customer.getCountry() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_RED + "📞 Phone: " + ColorCodes.RESET +
+                    ColorCodes.RED + customer.getPhone() + ColorCodes.RESET);
+            System.out.println(ColorCodes.YELLOW + "─────────────────────────" + ColorCodes.RESET);
         }
-        // Database resources automatically closed here
+        render.record("customers", customers.size());
     }
 
     /**
@@ -181,30 +257,25 @@ public class Main {
      * Results are ordered by category ID
      */
     public static void displayCategories() throws SQLException {
+        ExplorerQueries.Result<Category> result = explorerQueries.categories();
+        List<Category> categories = result.getRows();
+        printCacheNotice(result);
+
+        RenderEvent render = new RenderEvent();
+        render.begin();
         System.out.println(ColorCodes.BRIGHT_PURPLE + ColorCodes.BOLD +
                 "\n📂 ALL CATEGORIES" + ColorCodes.RESET);
         System.out.println(ColorCodes.PURPLE + "═══════════════════════════════════════" + ColorCodes.RESET);
 
-        // Try-with-resources for automatic resource management
-        try (Connection connection = DriverManager.getConnection(
-                sqlConnectionInfo.getConnectionString(),
-                sqlConnectionInfo.getUsername(),
-                sqlConnectionInfo.getPassword());
-             Statement statement = connection.createStatement();
-             ResultSet results = statement.executeQuery(
-                     "SELECT CategoryID, CategoryName FROM Categories ORDER BY CategoryID")) {
-
-            // Loop through each category record returned
-            while (results.next()) {
-                // Extract and display each category's information
-                System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Category ID: " + ColorCodes.RESET +
-                        ColorCodes.CYAN + results.getInt("CategoryID") + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_GREEN + "📂 Category Name: " + ColorCodes.RESET +
-                        ColorCodes.GREEN + results.getString("CategoryName") + ColorCodes.RESET);
-                System.out.println(ColorCodes.PURPLE + "─────────────────────────" + ColorCodes.RESET);
-            }
+        for (Category category : categories) {
+            // Display each category's information
+            System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Category ID: " + ColorCodes.RESET +
+                    ColorCodes.CYAN + category.getCategoryId() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "📂 Category Name: " + ColorCodes.RESET +
+                    ColorCodes.GREEN + category.getCategoryName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.PURPLE + "─────────────────────────" + ColorCodes.RESET);
         }
-        // Database resources automatically closed here
+        render.record("categories", categories.size());
     }
 
     /**
@@ -212,47 +283,248 @@ public class Main {
      * Uses PreparedStatement to safely handle user input
      */
     public static void displayProductsByCategory(int categoryId) throws SQLException {
+        ExplorerQueries.Result<Product> result = explorerQueries.productsInCategory(categoryId);
+        List<Product> products = result.getRows();
+        printCacheNotice(result);
+
+        RenderEvent render = new RenderEvent();
+        render.begin();
         System.out.println(ColorCodes.ORANGE + ColorCodes.BOLD +
                 "\n🔍 PRODUCTS IN CATEGORY " + categoryId + ColorCodes.RESET);
         System.out.println(ColorCodes.ORANGE + "═══════════════════════════════════════" + ColorCodes.RESET);
 
-        // Try-with-resources for automatic resource management
-        try (Connection connection = DriverManager.getConnection(
-                sqlConnectionInfo.getConnectionString(),
-                sqlConnectionInfo.getUsername(),
-                sqlConnectionInfo.getPassword());
-             PreparedStatement preparedStatement = connection.prepareStatement(
-                     "SELECT ProductID, ProductName, UnitPrice, UnitsInStock FROM Products WHERE CategoryID = ?")) {
-
-            // Set the category ID parameter in the prepared statement
-            preparedStatement.setInt(1, categoryId);
-
-            try (ResultSet results = preparedStatement.executeQuery()) {
-                boolean hasProducts = false;
-
-                // Loop through each product record returned
-                while (results.next()) {
-                    hasProducts = true;
-                    // Extract and display each product's information
-                    System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Product ID: " + ColorCodes.RESET +
-                            ColorCodes.CYAN + results.getInt("ProductID") + ColorCodes.RESET);
-                    System.out.println(ColorCodes.BRIGHT_YELLOW + "📝 Product Name: " + ColorCodes.RESET +
-                            ColorCodes.YELLOW + results.getString("ProductName") + ColorCodes.RESET);
-                    System.out.println(ColorCodes.BRIGHT_GREEN + "💰 Unit Price: " + ColorCodes.RESET +
-                            ColorCodes.GREEN + String.format("$%.2f", results.getDouble("UnitPrice")) + ColorCodes.RESET);
-                    System.out.println(ColorCodes.BRIGHT_PURPLE + "📊 Units in Stock: " + ColorCodes.RESET +
-                            ColorCodes.PURPLE + results.getInt("UnitsInStock") + " units" + ColorCodes.RESET);
-                    System.out.println(ColorCodes.ORANGE + "─────────────────────────" + ColorCodes.RESET);
+        for (Product product : products) {
+            // Display each product's information
+            System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Product ID: " + ColorCodes.RESET +
+                    ColorCodes.CYAN + product.getProductId() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "📝 Product Name: " + ColorCodes.RESET +
+                    ColorCodes.YELLOW + product.getProductName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "💰 Unit Price: " + ColorCodes.RESET +
+                    ColorCodes.GREEN + String.format("$%.2f", product.getUnitPrice()) + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "📊 Units in Stock: " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + product.getUnitsInStock() + " units" + ColorCodes.RESET);
+            System.out.println(ColorCodes.ORANGE + "─────────────────────────" + ColorCodes.RESET);
+        }
+
+        // If no products found in the category
+        if (products.isEmpty()) {
+            System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
+                    "❌ No products found in category " + categoryId + ColorCodes.RESET);
+            System.out.println(ColorCodes.RED + "─────────────────────────" + ColorCodes.RESET);
+        }
+        render.record("productsInCategory", products.size());
+    }
+
+    /**
+     * Tells the user when rows come from the cached catalog because the database is unavailable
+     */
+    private static void printCacheNotice(ExplorerQueries.Result<?> result) {
+        if (result.isCached()) {
+            System.out.println(ColorCodes.ORANGE + ColorCodes.BOLD + "⚠️  Database unavailable, showing cached catalog from " +
+                    result.getCachedAt() + ColorCodes.RESET);
+        }
+    }
+
+    /**
+     * Sub-menu that answers product filter, sort and top-N questions from the in-memory catalog snapshot.
+     * The snapshot is loaded once and only goes back to the database when the user asks for a refresh
+     */
+    public static void offlineCatalogMenu(Scanner scanner) throws SQLException {
+        if (!catalogSnapshot.isLoaded()) {
+            refreshCatalog(false);
+        }
+
+        while (true) {
+            System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD +
+                    "\n⚡ OFFLINE CATALOG " + ColorCodes.RESET + ColorCodes.CYAN +
+                    "(" + catalogSnapshot.getProductCount() + " products, loaded " +
+                    catalogSnapshot.getLoadedAt() + ")" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "1) " + ColorCodes.RESET +
+                    ColorCodes.GREEN + "💰 Products in a price range" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "2) " + ColorCodes.RESET +
+                    ColorCodes.YELLOW + "📉 Low stock products" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "3) " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + "📂 Products by category" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_BLUE + "4) " + ColorCodes.RESET +
+                    ColorCodes.BLUE + "🏆 Top N most expensive products" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_CYAN + "5) " + ColorCodes.RESET +
+                    ColorCodes.CYAN + "🔄 Refresh changed products" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_WHITE + "6) " + ColorCodes.RESET +
+                    ColorCodes.WHITE + "♻️  Full reload from database" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_RED + "0) " + ColorCodes.RESET +
+                    ColorCodes.RED + "↩️  Back to main menu" + ColorCodes.RESET);
+            System.out.print(ColorCodes.BRIGHT_CYAN + "\n💬 Select an option: " + ColorCodes.RESET);
+
+            int choice = scanner.nextInt();
+
+            if (choice == 0) {
+                return;
+            } else if (choice == 1) {
+                System.out.print(ColorCodes.BRIGHT_CYAN + "💲 Minimum price: " + ColorCodes.RESET);
+                double min = scanner.nextDouble();
+                System.out.print(ColorCodes.BRIGHT_CYAN + "💲 Maximum price: " + ColorCodes.RESET);
+                double max = scanner.nextDouble();
+                printProductList("PRODUCTS PRICED $" + min + " - $" + max,
+                        catalogSnapshot.productsInPriceRange(min, max));
+            } else if (choice == 2) {
+                System.out.print(ColorCodes.BRIGHT_CYAN + "📊 Show products with stock below: " + ColorCodes.RESET);
+                int threshold = scanner.nextInt();
+                printProductList("PRODUCTS WITH FEWER THAN " + threshold + " UNITS",
+                        catalogSnapshot.lowStock(threshold));
+            } else if (choice == 3) {
+                for (Category category : catalogSnapshot.getCategories()) {
+                    System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 " + category.getCategoryId() + ColorCodes.RESET +
+                            ColorCodes.GREEN + " " + category.getCategoryName() + ColorCodes.RESET);
                 }
+                System.out.print(ColorCodes.BRIGHT_CYAN + "🔍 Enter a category ID: " + ColorCodes.RESET);
+                int categoryId = scanner.nextInt();
+                printProductList("PRODUCTS IN CATEGORY " + categoryId,
+                        catalogSnapshot.productsInCategory(categoryId));
+            } else if (choice == 4) {
+                System.out.print(ColorCodes.BRIGHT_CYAN + "🏆 How many products: " + ColorCodes.RESET);
+                int n = scanner.nextInt();
+                printProductList("TOP " + n + " MOST EXPENSIVE PRODUCTS", catalogSnapshot.topByPrice(n));
+            } else if (choice == 5) {
+                refreshCatalog(true);
+            } else if (choice == 6) {
+                refreshCatalog(false);
+            } else {
+                System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
+                        "❌ Invalid selection. Please try again.\n" + ColorCodes.RESET);
+            }
+        }
+    }
 
-                // If no products found in the category
-                if (!hasProducts) {
-                    System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
-                            "❌ No products found in category " + categoryId + ColorCodes.RESET);
-                    System.out.println(ColorCodes.RED + "─────────────────────────" + ColorCodes.RESET);
+    /**
+     * Sub-menu of aggregate reports. The database does the grouping and summing, only the totals come back
+     */
+    public static void reportsMenu(Scanner scanner) throws SQLException {
+        while (true) {
+            System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n📈 REPORTS" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "1) " + ColorCodes.RESET +
+                    ColorCodes.GREEN + "💰 Stock value per category" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "2) " + ColorCodes.RESET +
+                    ColorCodes.YELLOW + "🌍 Customers per country" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "3) " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + "🏆 Top products by stock value in each category" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_CYAN + "4) " + ColorCodes.RESET +
+                    ColorCodes.CYAN + "🔄 Clear cached report totals" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_RED + "0) " + ColorCodes.RESET +
+                    ColorCodes.RED + "↩️  Back to main menu" + ColorCodes.RESET);
+            System.out.print(ColorCodes.BRIGHT_CYAN + "\n💬 Select an option: " + ColorCodes.RESET);
+
+            int choice = scanner.nextInt();
+
+            if (choice == 0) {
+                return;
+            } else if (choice == 1) {
+                System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n💰 STOCK VALUE PER CATEGORY" + ColorCodes.RESET);
+                System.out.println(ColorCodes.GOLD + "═══════════════════════════════════════" + ColorCodes.RESET);
+                for (CategoryStock row : inventoryReports.stockValueByCategory()) {
+                    System.out.printf(ColorCodes.BRIGHT_BLUE + "%-3d " + ColorCodes.GREEN + "%-18s" + ColorCodes.PURPLE +
+                                    " %4d products %7d units " + ColorCodes.GOLD + "$%,12.2f" + ColorCodes.RESET + "%n",
+                            row.getCategoryId(), row.getCategoryName(), row.getProductCount(),
+                            row.getUnitsInStock(), row.getStockValue());
                 }
+            } else if (choice == 2) {
+                System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🌍 CUSTOMERS PER COUNTRY" + ColorCodes.RESET);
+                System.out.println(ColorCodes.GOLD + "═══════════════════════════════════════" + ColorCodes.RESET);
+                for (CountryCount row : inventoryReports.customersByCountry()) {
+                    System.out.printf(ColorCodes.YELLOW + "%-15s " + ColorCodes.CYAN + "%4d" + ColorCodes.RESET + "%n",
+                            row.getCountry(), row.getCustomers());
+                }
+            } else if (choice == 3) {
+                System.out.print(ColorCodes.BRIGHT_CYAN + "🏆 Products per category: " + ColorCodes.RESET);
+                int n = scanner.nextInt();
+                System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🏆 TOP " + n +
+                        " PRODUCTS BY STOCK VALUE PER CATEGORY" + ColorCodes.RESET);
+                System.out.println(ColorCodes.GOLD + "═══════════════════════════════════════" + ColorCodes.RESET);
+                for (Product product : inventoryReports.topProductsPerCategory(n)) {
+                    System.out.printf(ColorCodes.BRIGHT_BLUE + "Category %-3d " + ColorCodes.YELLOW + "%-35s" +
+                                    ColorCodes.GOLD + " $%,10.2f" + ColorCodes.RESET + "%n",
+                            product.getCategoryId(), product.getProductName(),
+                            product.getUnitPrice() * product.getUnitsInStock());
+                }
+            } else if (choice == 4) {
+                inventoryReports.invalidate();
+                System.out.println(ColorCodes.BRIGHT_GREEN + "✅ Cached totals cleared" + ColorCodes.RESET);
+            } else {
+                System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD +
+                        "❌ Invalid selection. Please try again.\n" + ColorCodes.RESET);
+            }
+        }
+    }
+
+    /**
+     * Seeds the catalog snapshot from the mapped snapshot file left by a previous run, if there is one
+     */
+    private static void loadCatalogSnapshotFile() {
+        if (!Files.exists(catalogSnapshotPath)) {
+            return;
+        }
+
+        try {
+            CatalogSnapshotFile file = CatalogSnapshotFile.open(catalogSnapshotPath);
+            catalogSnapshot.loadFrom(file);
+            System.out.println(ColorCodes.CYAN + "📁 Catalog snapshot loaded from " + catalogSnapshotPath +
+                    " (" + file.getProductCount() + " products, written " + file.getCreatedAt() + ")" + ColorCodes.RESET);
+        } catch (IOException e) {
+            System.out.println(ColorCodes.ORANGE + "⚠️  Ignoring unreadable snapshot file: " + e.getMessage() +
+                    ColorCodes.RESET);
+        }
+    }
+
+    /**
+     * Refreshes the catalog snapshot, either by merging only the changed rows or with a full reload.
+     * Databases without change tracking (see northwind-change-tracking.sql) always get a full reload
+     */
+    private static void refreshCatalog(boolean incremental) throws SQLException {
+        try {
+            int changed = incremental ? productChangePoller.pollOnce() : -1;
+            if (!incremental) {
+                productChangePoller.reload();
             }
+            System.out.println(ColorCodes.BRIGHT_GREEN + (changed < 0
+                    ? "✅ Snapshot fully reloaded"
+                    : "✅ " + changed + " changed product(s) applied") + ColorCodes.RESET);
+        } catch (SQLSyntaxErrorException e) {
+            // Change tracking column or delete table not installed, a full reload is the only option
+            catalogSnapshot.refresh();
+            System.out.println(ColorCodes.ORANGE + "⚠️  Change tracking not available, snapshot fully reloaded" +
+                    ColorCodes.RESET);
+        }
+
+        // Keep the on-disk copy current so the next start can skip the database
+        try {
+            catalogSnapshot.saveTo(catalogSnapshotPath);
+        } catch (IOException e) {
+            System.out.println(ColorCodes.ORANGE + "⚠️  Could not write snapshot file: " + e.getMessage() +
+                    ColorCodes.RESET);
+        }
+    }
+
+    /**
+     * Prints a list of products from the in-memory snapshot using the same layout as displayProducts
+     */
+    private static void printProductList(String title, List<Product> products) {
+        System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD + "\n⚡ " + title + ColorCodes.RESET);
+        System.out.println(ColorCodes.CYAN + "═══════════════════════════════════════" + ColorCodes.RESET);
+
+        if (products.isEmpty()) {
+            System.out.println(ColorCodes.BRIGHT_RED + ColorCodes.BOLD + "❌ No matching products" + ColorCodes.RESET);
+            return;
+        }
+
+        for (Product product : products) {
+            System.out.println(ColorCodes.BRIGHT_BLUE + "🆔 Product Id: " + ColorCodes.RESET +
+                    ColorCodes.CYAN + product.getProductId() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_YELLOW + "📝 Name: " + ColorCodes.RESET +
+                    ColorCodes.YELLOW + product.getProductName() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_GREEN + "💰 Price: " + ColorCodes.RESET +
+                    ColorCodes.GREEN + String.format("$%.2f", product.getUnitPrice()) + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_PURPLE + "📊 Stock: " + ColorCodes.RESET +
+                    ColorCodes.PURPLE + product.getUnitsInStock() + " units" + ColorCodes.RESET);
+            System.out.println(ColorCodes.CYAN + "─────────────────────────" + ColorCodes.RESET);
         }
-        // Database resources automatically closed here
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,187 @@
+package com.pluralsight.bulk;
+
+import com.pluralsight.sqlConnectionInfo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies a CSV of product price and stock updates to the Products table with JDBC batching.
+ * <p>
+ * Rows are sent in chunks with addBatch/executeBatch, each chunk committed in its own transaction.
+ * rewriteBatchedStatements lets Connector/J send a whole chunk in a few round trips instead of one per
+ * row. A chunk that loses a deadlock (or times out waiting for a lock) is rolled back and replayed.
+ * <p>
+ * Expected CSV layout, header line optional:
+ * <pre>
+ * ProductID,UnitPrice,UnitsInStock
+ * 1,18.00,39
+ * </pre>
+ */
+public class ProductBulkLoader {
+
+    private static final String UPDATE_SQL = "UPDATE Products SET UnitPrice = ?, UnitsInStock = ? WHERE ProductID = ?";
+
+    private static final int DEFAULT_CHUNK_SIZE = 1_000;
+    private static final int MAX_RETRIES = 5;
+
+    // MySQL error codes for "Deadlock found" and "Lock wait timeout exceeded"
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private final sqlConnectionInfo sqlConnectionInfo;
+    private final int chunkSize;
+
+    private long rowsApplied;
+    private long rowsNotFound;
+    private long retries;
+
+    public ProductBulkLoader(sqlConnectionInfo sqlConnectionInfo, int chunkSize) {
+        this.sqlConnectionInfo = sqlConnectionInfo;
+        this.chunkSize = chunkSize;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println("Usage: java com.pluralsight.bulk.ProductBulkLoader " +
+                    "<username> <password> <sqlUrl> <csvFile> [chunkSize]");
+            System.exit(1);
+        }
+
+        int chunkSize = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_CHUNK_SIZE;
+        sqlConnectionInfo info = new sqlConnectionInfo(withBatchRewrite(args[2]), args[0], args[1]);
+
+        try {
+            new ProductBulkLoader(info, chunkSize).load(Path.of(args[3]));
+        } catch (IllegalArgumentException e) {
+            // A malformed CSV line; the message names the line. Chunks before it are already committed
+            System.out.println("Bulk load stopped at bad input, earlier chunks were committed: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException | SQLException e) {
+            System.out.println("Bulk load failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Adds rewriteBatchedStatements=true to a JDBC URL unless it is already set
+     */
+    public static String withBatchRewrite(String url) {
+        if (url.contains("rewriteBatchedStatements")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    /**
+     * Streams the CSV file and applies it chunk by chunk, printing throughput when done
+     *
+     * @throws IllegalArgumentException for a malformed line, naming its line number; chunks before it stay committed
+     */
+    public void load(Path csvFile) throws IOException, SQLException {
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             Connection connection = sqlConnectionInfo.getConnection();
+             PreparedStatement ps = connection.prepareStatement(UPDATE_SQL)) {
+
+            connection.setAutoCommit(false);
+
+            List<ProductUpdate> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || (lineNumber == 1 && line.startsWith("ProductID"))) {
+                    continue;
+                }
+
+                chunk.add(ProductUpdate.parse(line, lineNumber));
+                if (chunk.size() == chunkSize) {
+                    applyChunk(connection, ps, chunk);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                applyChunk(connection, ps, chunk);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Applied %,d update(s) in %.2f s (%,.0f rows/sec), %,d product id(s) not found, %d retried chunk(s)%n",
+                rowsApplied, seconds, rowsApplied / Math.max(seconds, 0.001), rowsNotFound, retries);
+    }
+
+    /**
+     * Sends one chunk as a batch and commits it. Deadlocks and lock wait timeouts roll the chunk back
+     * and replay it with an increasing pause; any other error is passed to the caller
+     */
+    private void applyChunk(Connection connection, PreparedStatement ps, List<ProductUpdate> chunk) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                for (ProductUpdate update : chunk) {
+                    ps.setBigDecimal(1, update.getUnitPrice());
+                    ps.setInt(2, update.getUnitsInStock());
+                    ps.setInt(3, update.getProductId());
+                    ps.addBatch();
+                }
+
+                int[] counts = ps.executeBatch();
+                connection.commit();
+
+                // Connector/J reports matched rows by default, so 0 means no product has that id even when the
+                // values were already current; SUCCESS_NO_INFO (no count from the driver) is taken as applied
+                for (int count : counts) {
+                    if (count == 0) {
+                        rowsNotFound++;
+                    } else {
+                        rowsApplied++;
+                    }
+                }
+                return;
+            } catch (SQLException e) {
+                ps.clearBatch();
+                connection.rollback();
+
+                if (!isRetryable(e) || attempt >= MAX_RETRIES) {
+                    throw e;
+                }
+
+                retries++;
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private static boolean isRetryable(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && (sql.getErrorCode() == ER_LOCK_DEADLOCK
+                    || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT || "40001".equals(sql.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleepBeforeRetry(int attempt) throws SQLException {
+        try {
+            // 50 ms, 100 ms, 200 ms, ... so competing writers get out of each other's way
+            Thread.sleep(50L << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pluralsight.bulk;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a product update CSV: ProductID,UnitPrice,UnitsInStock
+ */
+public class ProductUpdate {
+
+    private final int productId;
+    private final BigDecimal unitPrice;
+    private final int unitsInStock;
+
+    public ProductUpdate(int productId, BigDecimal unitPrice, int unitsInStock) {
+        this.productId = productId;
+        this.unitPrice = unitPrice;
+        this.unitsInStock = unitsInStock;
+    }
+
+    /**
+     * Parses one CSV line, reporting the line number when it is malformed
+     */
+    public static ProductUpdate parse(String line, long lineNumber) {
+        String[] fields = line.split(",");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 3 fields but found " +
+                    fields.length + ": " + line);
+        }
+
+        try {
+            return new ProductUpdate(
+                    Integer.parseInt(fields[0].trim()),
+                    new BigDecimal(fields[1].trim()),
+                    Integer.parseInt(fields[2].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage() + ": " + line, e);
+        }
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public int getUnitsInStock() {
+        return unitsInStock;
+    }
+}
@@ -0,0 +1,272 @@
+package com.pluralsight.catalog;
+
+import com.pluralsight.sqlConnectionInfo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the Products and Categories tables.
+ * The tables are read once (and again whenever {@link #refresh()} is called), after that
+ * every filter, sort and top-N query is answered locally without going back to the database.
+ * Changed and deleted rows can be merged in with {@link #applyChanges(Collection, Collection)} (see
+ * {@link ProductChangePoller}) so keeping the snapshot fresh does not require a full reload.
+ * <p>
+ * Seeded from a {@link CatalogSnapshotFile} instead, queries read the mapped file directly and only the rows they
+ * return are decoded, until the first refresh replaces it with rows from the database.
+ */
+public class CatalogSnapshot {
+
+    // Below this many rows a sequential stream is faster than splitting work across the fork-join pool
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private static final String PRODUCTS_SQL =
+            "SELECT ProductID, ProductName, CategoryID, UnitPrice, UnitsInStock FROM Products";
+    private static final String CATEGORIES_SQL =
+            "SELECT CategoryID, CategoryName FROM Categories ORDER BY CategoryID";
+
+    private final sqlConnectionInfo sqlConnectionInfo;
+
+    // Products, categories and load time are swapped together so readers never see a half-refreshed snapshot.
+    // A published State is never modified; refreshes and merges replace it while holding the snapshot's lock
+    private volatile State state = new State(new ConcurrentHashMap<>(), List.of(), null, null);
+
+    public CatalogSnapshot(sqlConnectionInfo sqlConnectionInfo) {
+        this.sqlConnectionInfo = sqlConnectionInfo;
+    }
+
+    /**
+     * Reloads both tables from the database and replaces the current snapshot
+     */
+    public void refresh() throws SQLException {
+        Map<Integer, Product> products = new ConcurrentHashMap<>();
+        List<Category> categories = new ArrayList<>();
+
+        // One connection for both tables, closed as soon as the rows are copied
+        try (Connection connection = sqlConnectionInfo.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            try (ResultSet results = statement.executeQuery(PRODUCTS_SQL)) {
+                while (results.next()) {
+                    Product product = readProduct(results);
+                    products.put(product.getProductId(), product);
+                }
+            }
+
+            try (ResultSet results = statement.executeQuery(CATEGORIES_SQL)) {
+                while (results.next()) {
+                    categories.add(new Category(results.getInt("CategoryID"), results.getString("CategoryName")));
+                }
+            }
+        }
+
+        synchronized (this) {
+            state = new State(products, List.copyOf(categories), Instant.now(), null);
+        }
+    }
+
+    /**
+     * Serves the snapshot from a mapped snapshot file, without decoding its rows up front.
+     * Used on startup so the offline queries work before (or without) a database round trip
+     */
+    public synchronized void loadFrom(CatalogSnapshotFile file) {
+        state = new State(null, file.allCategories(), file.getCreatedAt(), file);
+    }
+
+    /**
+     * Writes the current snapshot to a file that {@link CatalogSnapshotFile#open(Path)} can map on the next start
+     */
+    public void saveTo(Path path) throws IOException {
+        State current = state;
+        CatalogSnapshotFile.write(path, current.categories, current.file != null
+                ? current.file.allProducts() : new ArrayList<>(current.products.values()));
+    }
+
+    /**
+     * Merges changed rows into the current snapshot, replacing any product with the same id, and drops deleted
+     * products. Rows identical to the snapshot's and ids it doesn't hold are skipped, so applying the same changes
+     * twice is harmless. When something differs the products are copied into a new snapshot, which replaces the
+     * current one as a whole
+     *
+     * @return number of rows that were new, differed from the snapshot or were removed
+     */
+    public synchronized int applyChanges(Collection<Product> changed, Collection<Integer> deletedIds) {
+        State current = state;
+        List<Product> different = new ArrayList<>();
+        for (Product product : changed) {
+            if (!sameRow(find(current, product.getProductId()), product)) {
+                different.add(product);
+            }
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Integer productId : deletedIds) {
+            if (find(current, productId) != null) {
+                removed.add(productId);
+            }
+        }
+        if (different.isEmpty() && removed.isEmpty()) {
+            return 0;
+        }
+
+        // The mapped file is read-only, so the first change also moves the snapshot to the heap
+        Map<Integer, Product> products = new ConcurrentHashMap<>();
+        for (Product product : current.file != null ? current.file.allProducts() : current.products.values()) {
+            products.put(product.getProductId(), product);
+        }
+        for (Product product : different) {
+            products.put(product.getProductId(), product);
+        }
+        for (Integer productId : removed) {
+            products.remove(productId);
+        }
+        state = new State(products, current.categories, current.loadedAt, null);
+        return different.size() + removed.size();
+    }
+
+    private static Product find(State current, int productId) {
+        return current.file != null ? current.file.findProduct(productId) : current.products.get(productId);
+    }
+
+    private static boolean sameRow(Product existing, Product product) {
+        return existing != null
+                && Objects.equals(existing.getProductName(), product.getProductName())
+                && existing.getCategoryId() == product.getCategoryId()
+                && Double.compare(existing.getUnitPrice(), product.getUnitPrice()) == 0
+                && existing.getUnitsInStock() == product.getUnitsInStock();
+    }
+
+    /**
+     * Copies the current row of a Products result set into a Product
+     */
+    static Product readProduct(ResultSet results) throws SQLException {
+        return new Product(
+                results.getInt("ProductID"),
+                results.getString("ProductName"),
+                results.getInt("CategoryID"),
+                results.getDouble("UnitPrice"),
+                results.getInt("UnitsInStock"));
+    }
+
+    /**
+     * Loads the snapshot the first time it is needed
+     */
+    public void ensureLoaded() throws SQLException {
+        if (state.loadedAt == null) {
+            refresh();
+        }
+    }
+
+    public boolean isLoaded() {
+        return state.loadedAt != null;
+    }
+
+    public Instant getLoadedAt() {
+        return state.loadedAt;
+    }
+
+    public int getProductCount() {
+        State current = state;
+        return current.file != null ? current.file.getProductCount() : current.products.size();
+    }
+
+    public List<Product> getProducts() {
+        State current = state;
+        return current.file != null ? current.file.allProducts() : new ArrayList<>(current.products.values());
+    }
+
+    public List<Category> getCategories() {
+        return state.categories;
+    }
+
+    /**
+     * Products whose unit price is between min and max (inclusive), cheapest first
+     */
+    public List<Product> productsInPriceRange(double min, double max) {
+        return matching((categoryId, unitPrice, unitsInStock) -> unitPrice >= min && unitPrice <= max)
+                .sorted(Comparator.comparingDouble(Product::getUnitPrice).thenComparingInt(Product::getProductId))
+                .toList();
+    }
+
+    /**
+     * Products with fewer than threshold units in stock, lowest stock first
+     */
+    public List<Product> lowStock(int threshold) {
+        return matching((categoryId, unitPrice, unitsInStock) -> unitsInStock < threshold)
+                .sorted(Comparator.comparingInt(Product::getUnitsInStock).thenComparingInt(Product::getProductId))
+                .toList();
+    }
+
+    /**
+     * Products in the given category, ordered by product id
+     */
+    public List<Product> productsInCategory(int categoryId) {
+        return matching((productCategoryId, unitPrice, unitsInStock) -> productCategoryId == categoryId)
+                .sorted(Comparator.comparingInt(Product::getProductId))
+                .toList();
+    }
+
+    /**
+     * The n most expensive products
+     */
+    public List<Product> topByPrice(int n) {
+        State current = state;
+        if (current.file != null) {
+            return current.file.topByPrice(n);
+        }
+        return stream(current)
+                .sorted(Comparator.comparingDouble(Product::getUnitPrice).reversed()
+                        .thenComparingInt(Product::getProductId))
+                .limit(n)
+                .toList();
+    }
+
+    /**
+     * Products matching the filter; from a mapped file only the matching rows are decoded
+     */
+    private Stream<Product> matching(CatalogSnapshotFile.ProductFilter filter) {
+        State current = state;
+        if (current.file != null) {
+            return current.file.findProducts(filter).stream();
+        }
+        return stream(current).filter(p -> filter.matches(p.getCategoryId(), p.getUnitPrice(), p.getUnitsInStock()));
+    }
+
+    /**
+     * Parallel stream over the snapshot when it is large enough to benefit from fork-join
+     */
+    private static Stream<Product> stream(State current) {
+        Collection<Product> products = current.products.values();
+        return products.size() >= PARALLEL_THRESHOLD ? products.parallelStream() : products.stream();
+    }
+
+    /**
+     * Either heap rows from the database or a mapped file, never both
+     */
+    private static class State {
+        private final Map<Integer, Product> products;
+        private final List<Category> categories;
+        private final Instant loadedAt;
+        private final CatalogSnapshotFile file;
+
+        private State(Map<Integer, Product> products, List<Category> categories, Instant loadedAt,
+                      CatalogSnapshotFile file) {
+            this.products = products;
+            this.categories = categories;
+            this.loadedAt = loadedAt;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.pluralsight.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Compact binary copy of the Categories and Products tables, opened with {@link FileChannel#map}.
+ * <p>
+ * Nothing is decoded when the file is opened; every lookup reads straight from the mapped buffer, so the
+ * explorer can answer its first queries without waiting for the database (or when it is unreachable).
+ * <pre>
+ * header     int magic, int version, long createdAtMillis, int categoryCount, int productCount
+ * categories categoryCount x [int categoryId, int nameOffset, int nameLength]           sorted by id
+ * products   productCount  x [int productId, int categoryId, double unitPrice,
+ *                             int unitsInStock, int nameOffset, int nameLength]         sorted by id
+ * strings    UTF-8 names, offsets are relative to the start of this section
+ * </pre>
+ */
+public class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x4E574353; // "NWCS"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int CATEGORY_SIZE = 12;
+    private static final int PRODUCT_SIZE = 28;
+
+    private final MappedByteBuffer buffer;
+    private final int categoryCount;
+    private final int productCount;
+    private final int categoriesStart;
+    private final int productsStart;
+    private final int stringsStart;
+    private final Instant createdAt;
+
+    private CatalogSnapshotFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a catalog snapshot file (or written by a different version)");
+        }
+
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(8));
+        this.categoryCount = buffer.getInt(16);
+        this.productCount = buffer.getInt(20);
+        this.categoriesStart = HEADER_SIZE;
+        // Checked in long arithmetic, so huge counts in a corrupt header can't overflow into a plausible size
+        long stringsEnd = HEADER_SIZE + (long) categoryCount * CATEGORY_SIZE + (long) productCount * PRODUCT_SIZE;
+        if (categoryCount < 0 || productCount < 0 || stringsEnd > buffer.capacity()) {
+            throw new IOException("Truncated or corrupt catalog snapshot file");
+        }
+        this.productsStart = categoriesStart + categoryCount * CATEGORY_SIZE;
+        this.stringsStart = productsStart + productCount * PRODUCT_SIZE;
+
+        for (int i = 0; i < categoryCount; i++) {
+            checkString(categoriesStart + i * CATEGORY_SIZE + 4);
+        }
+        for (int i = 0; i < productCount; i++) {
+            checkString(productsStart + i * PRODUCT_SIZE + 20);
+        }
+    }
+
+    /**
+     * Fails unless the offset and length stored at field point inside the string section
+     */
+    private void checkString(int field) throws IOException {
+        int offset = buffer.getInt(field);
+        int length = buffer.getInt(field + 4);
+        if (offset < 0 || length < 0 || (long) stringsStart + offset + length > buffer.capacity()) {
+            throw new IOException("Truncated or corrupt catalog snapshot file");
+        }
+    }
+
+    /**
+     * Maps an existing snapshot file read-only
+     */
+    public static CatalogSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new CatalogSnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the given rows to path. The file is written next to the target and moved into place,
+     * so a reader never maps a half-written snapshot
+     */
+    public static void write(Path path, List<Category> categories, List<Product> products) throws IOException {
+        List<Category> sortedCategories = new ArrayList<>(categories);
+        sortedCategories.sort(Comparator.comparingInt(Category::getCategoryId));
+        List<Product> sortedProducts = new ArrayList<>(products);
+        sortedProducts.sort(Comparator.comparingInt(Product::getProductId));
+
+        List<byte[]> strings = new ArrayList<>();
+        int stringBytes = 0;
+        for (Category category : sortedCategories) {
+            byte[] name = category.getCategoryName().getBytes(StandardCharsets.UTF_8);
+            strings.add(name);
+            stringBytes += name.length;
+        }
+        for (Product product : sortedProducts) {
+            byte[] name = product.getProductName().getBytes(StandardCharsets.UTF_8);
+            strings.add(name);
+            stringBytes += name.length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + sortedCategories.size() * CATEGORY_SIZE
+                + sortedProducts.size() * PRODUCT_SIZE + stringBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        out.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+                .putInt(sortedCategories.size()).putInt(sortedProducts.size());
+
+        int stringIndex = 0;
+        int stringOffset = 0;
+        for (Category category : sortedCategories) {
+            int length = strings.get(stringIndex++).length;
+            out.putInt(category.getCategoryId()).putInt(stringOffset).putInt(length);
+            stringOffset += length;
+        }
+        for (Product product : sortedProducts) {
+            int length = strings.get(stringIndex++).length;
+            out.putInt(product.getProductId()).putInt(product.getCategoryId()).putDouble(product.getUnitPrice())
+                    .putInt(product.getUnitsInStock()).putInt(stringOffset).putInt(length);
+            stringOffset += length;
+        }
+        for (byte[] string : strings) {
+            out.put(string);
+        }
+        out.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    /**
+     * Binary search on the id-sorted product records
+     *
+     * @return the product, or null when no product has this id
+     */
+    public Product findProduct(int productId) {
+        int low = 0;
+        int high = productCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(productsStart + mid * PRODUCT_SIZE);
+            if (id < productId) {
+                low = mid + 1;
+            } else if (id > productId) {
+                high = mid - 1;
+            } else {
+                return productAt(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Products whose fixed-width fields match the filter. Names are only decoded for matching rows
+     */
+    public List<Product> findProducts(ProductFilter filter) {
+        List<Product> matches = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            int record = productsStart + i * PRODUCT_SIZE;
+            if (filter.matches(buffer.getInt(record + 4), buffer.getDouble(record + 8), buffer.getInt(record + 16))) {
+                matches.add(productAt(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The n most expensive products, ties by id. Prices are compared in the buffer and only the n results decoded
+     */
+    public List<Product> topByPrice(int n) {
+        // Min-heap of record indexes: the cheapest of the current top n sits on top and is replaced first
+        Comparator<Integer> byPrice = Comparator.<Integer>comparingDouble(this::priceAt)
+                .thenComparing(Comparator.<Integer>comparingInt(this::productIdAt).reversed());
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, n), byPrice);
+        for (int i = 0; i < productCount && n > 0; i++) {
+            if (top.size() < n) {
+                top.add(i);
+            } else if (byPrice.compare(i, top.peek()) > 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+
+        List<Product> products = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            products.add(productAt(top.poll()));
+        }
+        Collections.reverse(products);
+        return products;
+    }
+
+    /**
+     * Every product in the file, in id order
+     */
+    public List<Product> allProducts() {
+        return findProducts((categoryId, unitPrice, unitsInStock) -> true);
+    }
+
+    /**
+     * Every category in the file, in id order
+     */
+    public List<Category> allCategories() {
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            int record = categoriesStart + i * CATEGORY_SIZE;
+            categories.add(new Category(buffer.getInt(record),
+                    readString(buffer.getInt(record + 4), buffer.getInt(record + 8))));
+        }
+        return categories;
+    }
+
+    private int productIdAt(int index) {
+        return buffer.getInt(productsStart + index * PRODUCT_SIZE);
+    }
+
+    private double priceAt(int index) {
+        return buffer.getDouble(productsStart + index * PRODUCT_SIZE + 8);
+    }
+
+    private Product productAt(int index) {
+        int record = productsStart + index * PRODUCT_SIZE;
+        return new Product(
+                buffer.getInt(record),
+                readString(buffer.getInt(record + 20), buffer.getInt(record + 24)),
+                buffer.getInt(record + 4),
+                buffer.getDouble(record + 8),
+                buffer.getInt(record + 16));
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(stringsStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Filter over the fixed-width product columns, evaluated without building a Product
+     */
+    @FunctionalInterface
+    public interface ProductFilter {
+        boolean matches(int categoryId, double unitPrice, int unitsInStock);
+    }
+}
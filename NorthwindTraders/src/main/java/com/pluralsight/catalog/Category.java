@@ -0,0 +1,23 @@
+package com.pluralsight.catalog;
+
+/**
+ * Immutable copy of one row from the Categories table, held in memory by {@link CatalogSnapshot}
+ */
+public class Category {
+
+    private final int categoryId;
+    private final String categoryName;
+
+    public Category(int categoryId, String categoryName) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+}
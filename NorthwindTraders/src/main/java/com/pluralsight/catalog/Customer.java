@@ -0,0 +1,47 @@
+package com.pluralsight.catalog;
+
+/**
+ * Immutable copy of one row from the Customers table
+ */
+public class Customer {
+
+    private final String customerId;
+    private final String contactName;
+    private final String companyName;
+    private final String city;
+    private final String country;
+    private final String phone;
+
+    public Customer(String customerId, String contactName, String companyName, String city, String country, String phone) {
+        this.customerId = customerId;
+        this.contactName = contactName;
+        this.companyName = companyName;
+        this.city = city;
+        this.country = country;
+        this.phone = phone;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getContactName() {
+        return contactName;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+}
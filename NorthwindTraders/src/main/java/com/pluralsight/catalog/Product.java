@@ -0,0 +1,41 @@
+package com.pluralsight.catalog;
+
+/**
+ * Immutable copy of one row from the Products table, held in memory by {@link CatalogSnapshot}
+ */
+public class Product {
+
+    private final int productId;
+    private final String productName;
+    private final int categoryId;
+    private final double unitPrice;
+    private final int unitsInStock;
+
+    public Product(int productId, String productName, int categoryId, double unitPrice, int unitsInStock) {
+        this.productId = productId;
+        this.productName = productName;
+        this.categoryId = categoryId;
+        this.unitPrice = unitPrice;
+        this.unitsInStock = unitsInStock;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public int getUnitsInStock() {
+        return unitsInStock;
+    }
+}
@@ -0,0 +1,179 @@
+package com.pluralsight.catalog;
+
+import com.pluralsight.sqlConnectionInfo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link CatalogSnapshot} fresh by polling Products for rows changed since the last poll.
+ * <p>
+ * Uses a high-watermark on the LastModified column (added by northwind-change-tracking.sql), so each
+ * poll only transfers the rows that actually changed. Deleted rows cannot be seen through a watermark, so a
+ * trigger records their ids in ProductDeletes (same script) and each poll reads the deletes past the watermark too.
+ * A poll's cost follows the number of changes, not the size of the table.
+ * <p>
+ * LastModified is set when a row is written, not when its transaction commits, so a transaction that commits after
+ * a poll can carry timestamps below the watermark that poll saw. Each poll therefore reaches back an overlap window
+ * behind the watermark, -Dcatalog.pollOverlapSeconds (30), and re-reads those rows; the merge skips rows that are
+ * unchanged. A write whose transaction stays open longer than the window is still missed until the next full
+ * reload, so keep the window above the longest write transaction (and replica lag when reading from replicas).
+ */
+public class ProductChangePoller {
+
+    private static final String WATERMARK_SQL = "SELECT COALESCE(MAX(LastModified), '1970-01-01') FROM Products";
+    private static final String CHANGES_SQL = """
+            SELECT ProductID, ProductName, CategoryID, UnitPrice, UnitsInStock, LastModified
+            FROM Products
+            WHERE LastModified >= ?
+            ORDER BY LastModified
+            """;
+    private static final String DELETES_SQL = """
+            SELECT ProductID, DeletedAt
+            FROM ProductDeletes
+            WHERE DeletedAt >= ?
+            """;
+
+    private final sqlConnectionInfo sqlConnectionInfo;
+    private final CatalogSnapshot snapshot;
+    private final Duration overlap = Duration.ofSeconds(Long.getLong("catalog.pollOverlapSeconds", 30));
+
+    // Highest LastModified or DeletedAt value already merged into the snapshot
+    private Timestamp watermark;
+    // Load time of the snapshot this poller reloaded; a refresh by someone else may have dropped merged changes
+    private Instant reloadedAt;
+    private ScheduledExecutorService scheduler;
+
+    public ProductChangePoller(sqlConnectionInfo sqlConnectionInfo, CatalogSnapshot snapshot) {
+        this.sqlConnectionInfo = sqlConnectionInfo;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Full reload of the snapshot. The watermark is read before the reload, so a row changed while the
+     * reload is running is picked up again by the next poll instead of being missed
+     */
+    public synchronized void reload() throws SQLException {
+        Timestamp newWatermark;
+        try (Connection connection = sqlConnectionInfo.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery(WATERMARK_SQL)) {
+            results.next();
+            newWatermark = results.getTimestamp(1);
+        }
+
+        snapshot.refresh();
+        watermark = newWatermark;
+        reloadedAt = snapshot.getLoadedAt();
+    }
+
+    /**
+     * Merges rows changed or deleted since the last poll into the snapshot. Reloads in full instead when the
+     * snapshot was refreshed by someone else, since that refresh may have replaced rows merged here
+     *
+     * @return number of rows that were changed or removed in the snapshot, or -1 when a full reload was needed
+     */
+    public synchronized int pollOnce() throws SQLException {
+        if (watermark == null || !snapshot.isLoaded() || !snapshot.getLoadedAt().equals(reloadedAt)) {
+            reload();
+            return -1;
+        }
+
+        Map<Integer, Product> changed = new HashMap<>();
+        Map<Integer, Timestamp> changedAt = new HashMap<>();
+        Map<Integer, Timestamp> deletedAt = new HashMap<>();
+        Timestamp newWatermark = watermark;
+
+        // Reach back behind the watermark for rows whose transactions committed late; rows seen before are
+        // re-read and skipped by the merge
+        Timestamp since = new Timestamp(watermark.getTime() - overlap.toMillis());
+
+        try (Connection connection = sqlConnectionInfo.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement(CHANGES_SQL)) {
+                ps.setTimestamp(1, since);
+                try (ResultSet results = ps.executeQuery()) {
+                    while (results.next()) {
+                        Product product = CatalogSnapshot.readProduct(results);
+                        Timestamp lastModified = results.getTimestamp("LastModified");
+                        changed.put(product.getProductId(), product);
+                        changedAt.put(product.getProductId(), lastModified);
+                        if (lastModified.after(newWatermark)) {
+                            newWatermark = lastModified;
+                        }
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(DELETES_SQL)) {
+                ps.setTimestamp(1, since);
+                try (ResultSet results = ps.executeQuery()) {
+                    while (results.next()) {
+                        Timestamp deleted = results.getTimestamp("DeletedAt");
+                        deletedAt.merge(results.getInt("ProductID"), deleted, (a, b) -> a.after(b) ? a : b);
+                        if (deleted.after(newWatermark)) {
+                            newWatermark = deleted;
+                        }
+                    }
+                }
+            }
+        }
+
+        // An id both deleted and written in the window (re-inserted, or deleted after an update) keeps its latest
+        deletedAt.entrySet().removeIf(deleted -> {
+            Timestamp lastModified = changedAt.get(deleted.getKey());
+            return lastModified != null && lastModified.after(deleted.getValue());
+        });
+        changed.keySet().removeAll(deletedAt.keySet());
+
+        int applied = snapshot.applyChanges(changed.values(), deletedAt.keySet());
+        watermark = newWatermark;
+        return applied;
+    }
+
+    /**
+     * Polls in the background every interval until {@link #stop()} is called
+     *
+     * @param warnings told about failed polls, which are retried on the next tick
+     */
+    public synchronized void start(Duration interval, Consumer<String> warnings) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                pollOnce();
+            } catch (SQLException e) {
+                // Keep serving the current snapshot and try again on the next tick
+                warnings.accept("Catalog change poll failed: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.pluralsight.coalesce;
+
+import com.pluralsight.ExplorerQueries;
+import com.pluralsight.catalog.CatalogSnapshot;
+import com.pluralsight.resilience.ResilientConnector;
+import com.pluralsight.sqlConnectionInfo;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bursty load against the explorer's category lookup, run once without and once with request coalescing.
+ * <p>
+ * Every burst releases burstSize virtual threads at the same moment, each asking for the products of a category.
+ * Most ask for category 1, the rest for one of the others, like users opening the same page after an announcement.
+ * Reports database round trips, shared calls, errors, and latency percentiles for both runs.
+ * <p>
+ * Usage: java com.pluralsight.coalesce.CoalescingBenchmark &lt;username&gt; &lt;password&gt; &lt;sqlUrl&gt;
+ * [bursts=50] [burstSize=200] [poolSize=16]
+ */
+public class CoalescingBenchmark {
+
+    private static final int CATEGORY_COUNT = 8;
+    private static final double HOT_SHARE = 0.8;
+    private static final long PAUSE_BETWEEN_BURSTS_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: java com.pluralsight.coalesce.CoalescingBenchmark <username> <password> <sqlUrl> " +
+                    "[bursts] [burstSize] [poolSize]");
+            System.exit(2);
+        }
+
+        int bursts = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int burstSize = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        int poolSize = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        sqlConnectionInfo sqlConnectionInfo = new sqlConnectionInfo(args[2], args[0], args[1]);
+        sqlConnectionInfo.usePool(poolSize);
+        ResilientConnector connector = new ResilientConnector(sqlConnectionInfo::getReadConnection, "read");
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(sqlConnectionInfo);
+
+        try {
+            // Warm-up so connection setup and JIT don't count against the first run
+            run(new ExplorerQueries(connector, catalogSnapshot, new SingleFlight(false)), 5, burstSize, null);
+
+            System.out.printf("%-12s %12s %10s %8s %10s %10s %10s %10s%n",
+                    "coalescing", "round trips", "shared", "errors", "p50 ms", "p99 ms", "max ms", "calls/s");
+            for (boolean enabled : new boolean[]{false, true}) {
+                SingleFlight singleFlight = new SingleFlight(enabled);
+                run(new ExplorerQueries(connector, catalogSnapshot, singleFlight), bursts, burstSize, singleFlight);
+            }
+        } finally {
+            sqlConnectionInfo.close();
+        }
+    }
+
+    /**
+     * Runs the bursts and prints one result line, unless singleFlight is null (warm-up)
+     */
+    private static void run(ExplorerQueries queries, int bursts, int burstSize, SingleFlight singleFlight)
+            throws InterruptedException {
+        long[] latencies = new long[bursts * burstSize];
+        AtomicLong errors = new AtomicLong();
+
+        long started = System.nanoTime();
+        for (int burst = 0; burst < bursts; burst++) {
+            CountDownLatch start = new CountDownLatch(1);
+            int offset = burst * burstSize;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < burstSize; i++) {
+                    int slot = offset + i;
+                    executor.submit(() -> {
+                        start.await();
+                        long callStarted = System.nanoTime();
+                        try {
+                            queries.productsInCategory(pickCategory());
+                        } catch (SQLException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[slot] = System.nanoTime() - callStarted;
+                        return null;
+                    });
+                }
+                start.countDown();
+            }
+            Thread.sleep(PAUSE_BETWEEN_BURSTS_MILLIS);
+        }
+        long busyNanos = System.nanoTime() - started - bursts * PAUSE_BETWEEN_BURSTS_MILLIS * 1_000_000;
+
+        if (singleFlight == null) {
+            return;
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %12d %10d %8d %10.1f %10.1f %10.1f %10.0f%n",
+                singleFlight.isEnabled() ? "on" : "off", singleFlight.getExecutions(), singleFlight.getJoined(),
+                errors.get(), millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                millis(latencies[latencies.length - 1]), latencies.length / (busyNanos / 1e9));
+    }
+
+    /**
+     * Category 1 most of the time, otherwise any of the others
+     */
+    private static int pickCategory() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextDouble() < HOT_SHARE ? 1 : 2 + random.nextInt(CATEGORY_COUNT - 1);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pluralsight.diagnostics;
+
+import com.pluralsight.Main;
+import com.pluralsight.diagnostics.QueryPlanAdvisor.Issue;
+import com.pluralsight.diagnostics.QueryPlanAdvisor.PlannedQuery;
+import com.pluralsight.sqlConnectionInfo;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the plans of every query the Northwind explorer menu uses with {@link QueryPlanAdvisor}.
+ * <p>
+ * Exits with status 2 when an unexpected plan problem is found, so it can run after schema or
+ * server upgrades to catch plan regressions before users notice them.
+ */
+public class NorthwindQueryPlans {
+
+    /**
+     * Every query from the explorer menu, with sample parameters and the plan problems that are expected
+     * (e.g. "display all products" has to read the whole table, so a full scan there is not a regression)
+     */
+    private static final List<PlannedQuery> QUERIES = List.of(
+            new PlannedQuery("Display all products", Main.PRODUCTS_SQL, List.of(),
+                    Set.of(Issue.FULL_SCAN), null),
+            new PlannedQuery("Display all customers", Main.CUSTOMERS_SQL, List.of(),
+                    Set.of(Issue.FULL_SCAN),
+                    "CREATE INDEX IX_Customers_Country_Cover ON Customers (Country, ContactName, CompanyName, City, Phone);"),
+            new PlannedQuery("Display all categories", Main.CATEGORIES_SQL, List.of(),
+                    Set.of(Issue.FULL_SCAN), null),
+            new PlannedQuery("Products by category", Main.PRODUCTS_BY_CATEGORY_SQL, List.of(1),
+                    Set.of(),
+                    "CREATE INDEX IX_Products_Category_Cover ON Products (CategoryID, ProductID, ProductName, UnitPrice, UnitsInStock);")
+    );
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java com.pluralsight.diagnostics.NorthwindQueryPlans <username> <password> <sqlUrl>");
+            System.exit(1);
+        }
+
+        int problems = 0;
+        try (Connection connection = new sqlConnectionInfo(args[2], args[0], args[1]).getConnection()) {
+            problems = new QueryPlanAdvisor(QUERIES).check(connection);
+        } catch (SQLException e) {
+            System.out.println("Plan check failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(problems == 0 ? 0 : 2);
+    }
+}
@@ -0,0 +1,187 @@
+package com.pluralsight.reactive;
+
+import com.pluralsight.Main;
+import com.pluralsight.catalog.Product;
+import com.pluralsight.sqlConnectionInfo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput comparison of the two data paths with the same query mix, connection count and concurrency:
+ * blocking JDBC on a virtual thread per request (a plain prepared statement on a DBCP pool), and R2DBC
+ * ({@link ReactiveExplorerQueries} over a reactive pool) with requests merged by flatMap. Both sides run the same
+ * SQL with the same statement timeout and build the same Product per row; neither has the explorer's retries,
+ * breaker, JFR events, catalog fallback or request coalescing, so only the driver and execution model differ.
+ * <p>
+ * Each request reads the products of one category, cycling through all eight, and every tenth reads all products.
+ * Prints requests per second, latency percentiles, failures and the peak number of platform threads for each path.
+ * Point it at a local MySQL or MariaDB with the northwind schema, not at a shared server. Every request is a round
+ * trip.
+ * <p>
+ * Usage: java com.pluralsight.reactive.ReactiveBenchmark &lt;username&gt; &lt;password&gt; &lt;sqlUrl&gt;
+ * [requests=20000] [concurrency=200] [poolSize=16]
+ */
+public class ReactiveBenchmark {
+
+    private static final int CATEGORY_COUNT = 8;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: java com.pluralsight.reactive.ReactiveBenchmark <username> <password> <sqlUrl> " +
+                    "[requests] [concurrency] [poolSize]");
+            System.exit(2);
+        }
+
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        int poolSize = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        sqlConnectionInfo jdbc = new sqlConnectionInfo(args[2], args[0], args[1]);
+        jdbc.usePool(poolSize);
+
+        try (ReactiveExplorerQueries r2dbc = new ReactiveExplorerQueries(args[2], args[0], args[1], poolSize)) {
+            // Warm-up of both paths so pools are filled and the JIT has compiled them
+            runJdbc(jdbc, requests / 5, concurrency);
+            runR2dbc(r2dbc, requests / 5, concurrency);
+
+            System.out.printf("%-22s %10s %10s %10s %10s %8s %10s%n",
+                    "path", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "threads");
+            print("JDBC + virtual threads", runJdbc(jdbc, requests, concurrency));
+            print("R2DBC + Reactor", runR2dbc(r2dbc, requests, concurrency));
+        } finally {
+            jdbc.close();
+        }
+    }
+
+    /**
+     * One virtual thread per request, at most concurrency of them running a query at once
+     */
+    private static Run runJdbc(sqlConnectionInfo jdbc, int requests, int concurrency) throws InterruptedException {
+        Run run = new Run(requests);
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int request = i;
+                executor.submit(() -> {
+                    long started = System.nanoTime();
+                    try {
+                        if (request % 10 == 9) {
+                            products(jdbc, Main.PRODUCTS_SQL, 0);
+                        } else {
+                            products(jdbc, Main.PRODUCTS_BY_CATEGORY_SQL, request % CATEGORY_COUNT + 1);
+                        }
+                    } catch (SQLException e) {
+                        run.errors.incrementAndGet();
+                    } finally {
+                        run.latencies[request] = System.nanoTime() - started;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * The JDBC side of a request: one pooled connection, one prepared statement, every row read into a Product
+     * the way {@link ReactiveExplorerQueries} maps them. categoryId 0 runs the unparameterized all-products query
+     */
+    private static List<Product> products(sqlConnectionInfo jdbc, String sql, int categoryId) throws SQLException {
+        try (Connection connection = jdbc.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (categoryId != 0) {
+                ps.setInt(1, categoryId);
+            }
+            ps.setQueryTimeout(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS);
+
+            try (ResultSet results = ps.executeQuery()) {
+                List<Product> rows = new ArrayList<>();
+                while (results.next()) {
+                    rows.add(new Product(results.getInt("ProductID"), results.getString("ProductName"), categoryId,
+                            results.getDouble("UnitPrice"), results.getInt("UnitsInStock")));
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * One stream of requests, at most concurrency of them subscribed at once; each request collects its rows
+     */
+    private static Run runR2dbc(ReactiveExplorerQueries queries, int requests, int concurrency) {
+        Run run = new Run(requests);
+
+        Flux.range(0, requests)
+                .flatMap(request -> Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    Flux<?> rows = request % 10 == 9
+                            ? queries.products()
+                            : queries.productsInCategory(request % CATEGORY_COUNT + 1);
+                    return rows.collectList()
+                            .doOnError(e -> run.errors.incrementAndGet())
+                            .onErrorResume(e -> Mono.empty())
+                            .doFinally(signal -> run.latencies[request] = System.nanoTime() - started);
+                }), concurrency)
+                .blockLast();
+        return run.finish();
+    }
+
+    private static void print(String path, Run run) {
+        long[] sorted = run.latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s %10.0f %10.2f %10.2f %10.2f %8d %10d%n", path,
+                sorted.length / (run.elapsedNanos / 1e9), millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)), millis(sorted[sorted.length - 1]), run.errors.get(),
+                run.peakThreads);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Latencies and counters of one run
+     */
+    private static final class Run {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private final long[] latencies;
+        private final AtomicLong errors = new AtomicLong();
+        private final long started;
+        private long elapsedNanos;
+        private int peakThreads;
+
+        private Run(int requests) {
+            this.latencies = new long[requests];
+            THREADS.resetPeakThreadCount();
+            this.started = System.nanoTime();
+        }
+
+        private Run finish() {
+            elapsedNanos = System.nanoTime() - started;
+            // Platform threads only: virtual threads are not counted by the thread MXBean
+            peakThreads = THREADS.getPeakThreadCount();
+            return this;
+        }
+    }
+}
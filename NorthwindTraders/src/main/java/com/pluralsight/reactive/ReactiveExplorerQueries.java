@@ -0,0 +1,125 @@
+package com.pluralsight.reactive;
+
+import com.pluralsight.Main;
+import com.pluralsight.catalog.Category;
+import com.pluralsight.catalog.Customer;
+import com.pluralsight.catalog.Product;
+import com.pluralsight.sqlConnectionInfo;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+/**
+ * The explorer's main menu queries over R2DBC instead of JDBC, for callers that want a non-blocking data path.
+ * <p>
+ * Every query returns a cold {@link Flux}: nothing runs until it is subscribed to, each subscription borrows a
+ * connection from a reactive pool and gives it back when the rows are done, cancelled or failed. Rows are decoded
+ * as the subscriber asks for them, so a slow consumer slows the driver's reads from the socket instead of having
+ * the whole result buffered in memory. No thread is held while MySQL works on a query.
+ * <p>
+ * Uses the same SQL and row types as {@link com.pluralsight.ExplorerQueries}, without its retries, breaker or
+ * catalog fallback. Safe to use from many threads; close it to shut the pool down.
+ */
+public class ReactiveExplorerQueries implements AutoCloseable {
+
+    private final ConnectionPool pool;
+
+    /**
+     * @param sqlUrl         a jdbc:mysql:// or r2dbc:mysql:// URL, e.g. jdbc:mysql://localhost:3306/northwind
+     * @param maxConnections the most connections open at once; more subscribers wait for one
+     */
+    public ReactiveExplorerQueries(String sqlUrl, String username, String password, int maxConnections) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl(sqlUrl)).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(ConnectionFactoryOptions.CONNECT_TIMEOUT, Duration.ofSeconds(3))
+                .option(ConnectionFactoryOptions.STATEMENT_TIMEOUT,
+                        Duration.ofSeconds(sqlConnectionInfo.QUERY_TIMEOUT_SECONDS))
+                .build();
+
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(4, maxConnections))
+                .maxSize(maxConnections)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofMinutes(5))
+                .validationQuery("SELECT 1")
+                .build());
+    }
+
+    /**
+     * All products, ordered by id; the same query as {@link com.pluralsight.ExplorerQueries#products()}
+     */
+    public Flux<Product> products() {
+        return query(Main.PRODUCTS_SQL, (row, metadata) -> product(row, 0));
+    }
+
+    /**
+     * All customers, ordered by country
+     */
+    public Flux<Customer> customers() {
+        return query(Main.CUSTOMERS_SQL, (row, metadata) -> new Customer(null, row.get("ContactName", String.class),
+                row.get("CompanyName", String.class), row.get("City", String.class),
+                row.get("Country", String.class), row.get("Phone", String.class)));
+    }
+
+    /**
+     * All categories, ordered by id
+     */
+    public Flux<Category> categories() {
+        return query(Main.CATEGORIES_SQL, (row, metadata) -> new Category(
+                row.get("CategoryID", Integer.class), row.get("CategoryName", String.class)));
+    }
+
+    /**
+     * Products of one category, with the id bound as a parameter
+     */
+    public Flux<Product> productsInCategory(int categoryId) {
+        return query(Main.PRODUCTS_BY_CATEGORY_SQL, (row, metadata) -> product(row, categoryId), categoryId);
+    }
+
+    /**
+     * Runs the statement on a pooled connection and maps rows on demand. The connection goes back to the pool when
+     * the stream completes, errors or is cancelled
+     */
+    private <T> Flux<T> query(String sql, BiFunction<Row, RowMetadata, T> mapper, Object... parameters) {
+        return Flux.usingWhen(pool.create(),
+                connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.bind(i, parameters[i]);
+                    }
+                    return Flux.from(statement.execute()).flatMap(result -> result.map(mapper));
+                },
+                Connection::close);
+    }
+
+    private static Product product(Row row, int categoryId) {
+        // DECIMAL comes back as BigDecimal, and UnitPrice and UnitsInStock are nullable in Northwind
+        BigDecimal unitPrice = row.get("UnitPrice", BigDecimal.class);
+        Integer unitsInStock = row.get("UnitsInStock", Integer.class);
+        return new Product(row.get("ProductID", Integer.class), row.get("ProductName", String.class), categoryId,
+                unitPrice != null ? unitPrice.doubleValue() : 0, unitsInStock != null ? unitsInStock : 0);
+    }
+
+    /**
+     * The explorers are started with JDBC URLs, so those are accepted too
+     */
+    static String r2dbcUrl(String sqlUrl) {
+        return sqlUrl.startsWith("jdbc:") ? "r2dbc:" + sqlUrl.substring("jdbc:".length()) : sqlUrl;
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,41 @@
+package com.pluralsight.reports;
+
+/**
+ * Aggregate stock figures for one category
+ */
+public class CategoryStock {
+
+    private final int categoryId;
+    private final String categoryName;
+    private final int productCount;
+    private final long unitsInStock;
+    private final double stockValue;
+
+    public CategoryStock(int categoryId, String categoryName, int productCount, long unitsInStock, double stockValue) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.productCount = productCount;
+        this.unitsInStock = unitsInStock;
+        this.stockValue = stockValue;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public long getUnitsInStock() {
+        return unitsInStock;
+    }
+
+    public double getStockValue() {
+        return stockValue;
+    }
+}
@@ -0,0 +1,23 @@
+package com.pluralsight.reports;
+
+/**
+ * Number of customers in one country
+ */
+public class CountryCount {
+
+    private final String country;
+    private final int customers;
+
+    public CountryCount(String country, int customers) {
+        this.country = country;
+        this.customers = customers;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+}
@@ -0,0 +1,224 @@
+package com.pluralsight.reports;
+
+import com.pluralsight.catalog.Product;
+import com.pluralsight.sqlConnectionInfo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inventory and customer reports that let MySQL do the GROUP BY / SUM / window work and only
+ * transfer the aggregate rows.
+ * <p>
+ * Stock value per category is cached. While the cache is younger than {@link #FULL_REFRESH_INTERVAL},
+ * a refresh only recomputes the categories that contain products changed since the last refresh
+ * (found through the LastModified column, see northwind-change-tracking.sql). Like {@link
+ * com.pluralsight.catalog.ProductChangePoller} it reaches back -Dcatalog.pollOverlapSeconds (30) behind the
+ * watermark, so rows whose transactions commit late are not missed. Products moved to another category or deleted
+ * are picked up by the next full refresh. Without the column the cache simply expires after {@link #CACHE_TTL}.
+ * Refreshed rows are swapped in only once their query succeeded, so a failed refresh keeps the previous rows.
+ * <p>
+ * The uncached reports read from a replica when replicas are configured. The stock cache stays on the primary,
+ * because its watermark is compared against the primary's LastModified values.
+ */
+public class InventoryReports {
+
+    private static final Duration FULL_REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration CACHE_TTL = Duration.ofSeconds(30);
+
+    private static final String STOCK_BY_CATEGORY_SQL = """
+            SELECT c.CategoryID, c.CategoryName,
+                   COUNT(p.ProductID) AS ProductCount,
+                   COALESCE(SUM(p.UnitsInStock), 0) AS UnitsInStock,
+                   COALESCE(SUM(p.UnitPrice * p.UnitsInStock), 0) AS StockValue
+            FROM Categories c
+            LEFT JOIN Products p ON p.CategoryID = c.CategoryID
+            %s
+            GROUP BY c.CategoryID, c.CategoryName
+            """;
+
+    private static final String CHANGED_CATEGORIES_SQL =
+            "SELECT DISTINCT CategoryID FROM Products WHERE LastModified >= ?";
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP(3)";
+
+    private static final String CUSTOMERS_BY_COUNTRY_SQL = """
+            SELECT Country, COUNT(*) AS Customers
+            FROM Customers
+            GROUP BY Country
+            ORDER BY Customers DESC, Country
+            """;
+
+    private static final String TOP_PRODUCTS_SQL = """
+            SELECT ProductID, ProductName, CategoryID, UnitPrice, UnitsInStock
+            FROM (SELECT ProductID, ProductName, CategoryID, UnitPrice, UnitsInStock,
+                         ROW_NUMBER() OVER (PARTITION BY CategoryID
+                                            ORDER BY UnitPrice * UnitsInStock DESC, ProductID) AS RankInCategory
+                  FROM Products) ranked
+            WHERE RankInCategory <= ?
+            ORDER BY CategoryID, RankInCategory
+            """;
+
+    private final sqlConnectionInfo sqlConnectionInfo;
+
+    private final Duration overlap = Duration.ofSeconds(Long.getLong("catalog.pollOverlapSeconds", 30));
+
+    // Stock value cache, keyed by category id; replaced as a whole, never modified once stored
+    private Map<Integer, CategoryStock> stockByCategory = new TreeMap<>();
+    private long lastFullRefresh;
+    private long lastRefresh;
+    private Timestamp watermark;
+    private boolean changeTrackingAvailable = true;
+
+    public InventoryReports(sqlConnectionInfo sqlConnectionInfo) {
+        this.sqlConnectionInfo = sqlConnectionInfo;
+    }
+
+    /**
+     * Stock value per category, highest value first, served from the incrementally refreshed cache
+     */
+    public synchronized List<CategoryStock> stockValueByCategory() throws SQLException {
+        long now = System.nanoTime();
+
+        if (stockByCategory.isEmpty() || now - lastFullRefresh > FULL_REFRESH_INTERVAL.toNanos()) {
+            refreshStock(null);
+            lastFullRefresh = now;
+        } else if (changeTrackingAvailable) {
+            refreshChangedCategories();
+        } else if (now - lastRefresh > CACHE_TTL.toNanos()) {
+            refreshStock(null);
+        }
+        lastRefresh = now;
+
+        List<CategoryStock> rows = new ArrayList<>(stockByCategory.values());
+        rows.sort(Comparator.comparingDouble(CategoryStock::getStockValue).reversed());
+        return rows;
+    }
+
+    /**
+     * Drops the cached aggregates so the next report does a full refresh
+     */
+    public synchronized void invalidate() {
+        stockByCategory = new TreeMap<>();
+    }
+
+    /**
+     * Number of customers per country, largest first
+     */
+    public List<CountryCount> customersByCountry() throws SQLException {
+        List<CountryCount> rows = new ArrayList<>();
+        try (Connection connection = sqlConnectionInfo.getReadConnection();
+             PreparedStatement ps = connection.prepareStatement(CUSTOMERS_BY_COUNTRY_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new CountryCount(rs.getString("Country"), rs.getInt("Customers")));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The n products with the highest stock value in each category, ranked by a window function
+     */
+    public List<Product> topProductsPerCategory(int n) throws SQLException {
+        List<Product> rows = new ArrayList<>();
+        try (Connection connection = sqlConnectionInfo.getReadConnection();
+             PreparedStatement ps = connection.prepareStatement(TOP_PRODUCTS_SQL)) {
+            ps.setInt(1, n);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Product(rs.getInt("ProductID"), rs.getString("ProductName"),
+                            rs.getInt("CategoryID"), rs.getDouble("UnitPrice"), rs.getInt("UnitsInStock")));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Recomputes only the categories holding products changed since the last refresh
+     */
+    private void refreshChangedCategories() throws SQLException {
+        List<Integer> changed = new ArrayList<>();
+        Timestamp newWatermark;
+
+        try (Connection connection = sqlConnectionInfo.getConnection()) {
+            newWatermark = currentTimestamp(connection);
+
+            try (PreparedStatement ps = connection.prepareStatement(CHANGED_CATEGORIES_SQL)) {
+                // Rows written before the last refresh but committed after it carry older timestamps
+                ps.setTimestamp(1, new Timestamp(watermark.getTime() - overlap.toMillis()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(rs.getInt(1));
+                    }
+                }
+            }
+        } catch (SQLSyntaxErrorException e) {
+            // No LastModified column, from now on the cache just expires
+            changeTrackingAvailable = false;
+            return;
+        }
+
+        if (!changed.isEmpty()) {
+            refreshStock(changed);
+        }
+        watermark = newWatermark;
+    }
+
+    /**
+     * Runs the stock aggregate for the given categories (all of them when null) and, once every row has been read,
+     * replaces the cache with the result
+     */
+    private void refreshStock(List<Integer> categoryIds) throws SQLException {
+        String where = categoryIds == null ? ""
+                : "WHERE c.CategoryID IN (" + "?, ".repeat(categoryIds.size() - 1) + "?)";
+
+        try (Connection connection = sqlConnectionInfo.getConnection()) {
+            // Taken before the aggregate so a change made while it runs is seen again next time
+            Timestamp newWatermark = currentTimestamp(connection);
+
+            // A full refresh starts from nothing, so categories deleted since drop out
+            Map<Integer, CategoryStock> refreshed =
+                    categoryIds == null ? new TreeMap<>() : new TreeMap<>(stockByCategory);
+
+            try (PreparedStatement ps = connection.prepareStatement(String.format(STOCK_BY_CATEGORY_SQL, where))) {
+                if (categoryIds != null) {
+                    for (int i = 0; i < categoryIds.size(); i++) {
+                        ps.setInt(i + 1, categoryIds.get(i));
+                    }
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        CategoryStock row = new CategoryStock(rs.getInt("CategoryID"), rs.getString("CategoryName"),
+                                rs.getInt("ProductCount"), rs.getLong("UnitsInStock"), rs.getDouble("StockValue"));
+                        refreshed.put(row.getCategoryId(), row);
+                    }
+                }
+            }
+
+            stockByCategory = refreshed;
+            if (categoryIds == null) {
+                watermark = newWatermark;
+            }
+        }
+    }
+
+    private static Timestamp currentTimestamp(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(NOW_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+}
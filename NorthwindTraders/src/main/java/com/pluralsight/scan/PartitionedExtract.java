@@ -0,0 +1,204 @@
+package com.pluralsight.scan;
+
+import com.pluralsight.catalog.Customer;
+import com.pluralsight.catalog.Product;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Full extracts of Products or Customers, split across several connections with {@link PartitionedScan}.
+ * <p>
+ * Products are split into ProductID ranges. Customers are split into Country buckets of roughly equal size,
+ * and the merged output keeps the ORDER BY Country used by the console explorer.
+ * Rows are written to stdout as tab-separated lines.
+ */
+public class PartitionedExtract {
+
+    private static final String PRODUCTS_SQL = """
+            SELECT ProductID, ProductName, CategoryID, UnitPrice, UnitsInStock
+            FROM Products
+            WHERE ProductID BETWEEN ? AND ?
+            ORDER BY ProductID
+            """;
+
+    private static final String CUSTOMERS_SQL = """
+            SELECT CustomerID, ContactName, CompanyName, City, Country, Phone
+            FROM Customers
+            WHERE %s
+            ORDER BY Country, CustomerID
+            """;
+
+    private final DataSource dataSource;
+    private final int partitions;
+
+    public PartitionedExtract(DataSource dataSource, int partitions) {
+        this.dataSource = dataSource;
+        this.partitions = partitions;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4 || !(args[3].equals("products") || args[3].equals("customers"))) {
+            System.out.println("Usage: java com.pluralsight.scan.PartitionedExtract " +
+                    "<username> <password> <sqlUrl> products|customers [partitions]");
+            System.exit(1);
+        }
+
+        int partitions = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setUsername(args[0]);
+        dataSource.setPassword(args[1]);
+        dataSource.setUrl(args[2]);
+        // One connection per partition, plus one for the planning query
+        dataSource.setMaxTotal(partitions + 1);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            long start = System.nanoTime();
+            PartitionedExtract extract = new PartitionedExtract(dataSource, partitions);
+            long rows = args[3].equals("products") ? extract.extractProducts(out) : extract.extractCustomers(out);
+            out.flush();
+
+            System.err.printf("%,d row(s) from %d partition(s) in %d ms%n",
+                    rows, partitions, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | UncheckedIOException | SQLException e) {
+            System.err.println("Extract failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            try {
+                dataSource.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing data source: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Every product, ordered by ProductID, split into equal-width id ranges
+     */
+    public long extractProducts(Writer out) throws SQLException {
+        int minId;
+        int maxId;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(ProductID), MAX(ProductID) FROM Products")) {
+            rs.next();
+            minId = rs.getInt(1);
+            maxId = rs.getInt(2);
+        }
+
+        List<PartitionedScan.Partition> ranges = new ArrayList<>();
+        long width = Math.max(1, ((long) maxId - minId + partitions) / partitions);
+        for (long low = minId; low <= maxId; low += width) {
+            long high = Math.min(maxId, low + width - 1);
+            ranges.add(new PartitionedScan.Partition(PRODUCTS_SQL, List.of((int) low, (int) high)));
+        }
+
+        PartitionedScan<Product> scan = new PartitionedScan<>(dataSource,
+                rs -> new Product(rs.getInt("ProductID"), rs.getString("ProductName"), rs.getInt("CategoryID"),
+                        rs.getDouble("UnitPrice"), rs.getInt("UnitsInStock")),
+                Comparator.comparingInt(Product::getProductId));
+
+        long[] rows = {0};
+        scan.run(ranges, product -> {
+            write(out, product.getProductId() + "\t" + product.getProductName() + "\t" + product.getCategoryId() +
+                    "\t" + product.getUnitPrice() + "\t" + product.getUnitsInStock() + "\n");
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /**
+     * Every customer, ordered by Country then CustomerID, split into country buckets of similar row counts
+     */
+    public long extractCustomers(Writer out) throws SQLException {
+        List<String> countries = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT Country, COUNT(*) FROM Customers GROUP BY Country ORDER BY COUNT(*) DESC")) {
+            while (rs.next()) {
+                countries.add(rs.getString(1));
+                counts.add(rs.getInt(2));
+            }
+        }
+
+        // Largest country first into the lightest bucket keeps the buckets close in size
+        int bucketCount = Math.max(1, Math.min(partitions, countries.size()));
+        List<List<Object>> buckets = new ArrayList<>();
+        long[] bucketRows = new long[bucketCount];
+        boolean[] bucketHasNull = new boolean[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < countries.size(); i++) {
+            int lightest = 0;
+            for (int b = 1; b < bucketCount; b++) {
+                if (bucketRows[b] < bucketRows[lightest]) {
+                    lightest = b;
+                }
+            }
+            if (countries.get(i) == null) {
+                bucketHasNull[lightest] = true;
+            } else {
+                buckets.get(lightest).add(countries.get(i));
+            }
+            bucketRows[lightest] += counts.get(i);
+        }
+
+        List<PartitionedScan.Partition> partitionList = new ArrayList<>();
+        for (int b = 0; b < bucketCount; b++) {
+            List<String> conditions = new ArrayList<>();
+            if (!buckets.get(b).isEmpty()) {
+                conditions.add("Country IN (" + "?, ".repeat(buckets.get(b).size() - 1) + "?)");
+            }
+            if (bucketHasNull[b]) {
+                conditions.add("Country IS NULL");
+            }
+            if (!conditions.isEmpty()) {
+                partitionList.add(new PartitionedScan.Partition(
+                        String.format(CUSTOMERS_SQL, String.join(" OR ", conditions)), buckets.get(b)));
+            }
+        }
+
+        // MySQL sorts NULL countries first, the merge has to agree
+        PartitionedScan<Customer> scan = new PartitionedScan<>(dataSource,
+                rs -> new Customer(rs.getString("CustomerID"), rs.getString("ContactName"),
+                        rs.getString("CompanyName"), rs.getString("City"), rs.getString("Country"),
+                        rs.getString("Phone")),
+                Comparator.comparing(Customer::getCountry, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                        .thenComparing(Customer::getCustomerId, String.CASE_INSENSITIVE_ORDER));
+
+        long[] rows = {0};
+        scan.run(partitionList, customer -> {
+            write(out, customer.getCustomerId() + "\t" + customer.getContactName() + "\t" +
+                    customer.getCompanyName() + "\t" + customer.getCity() + "\t" + customer.getCountry() + "\t" +
+                    customer.getPhone() + "\n");
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static void write(Writer out, String line) {
+        try {
+            out.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pluralsight.scan;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs one ordered query per partition in parallel and merges the results back into a single ordered stream.
+ * <p>
+ * Every partition gets its own pooled connection and its own virtual thread, and streams its rows into a
+ * small bounded queue. The caller's thread does a k-way merge over the queue heads, so memory stays bounded
+ * no matter how big the extract is, and the output keeps the ordering each partition query was sorted by.
+ *
+ * @param <T> row type produced by the mapper
+ */
+public class PartitionedScan<T> {
+
+    // Rows buffered per partition before its producer waits for the merge to catch up
+    private static final int QUEUE_CAPACITY = 1_024;
+
+    private static final Object END = new Object();
+
+    private final DataSource dataSource;
+    private final RowMapper<T> rowMapper;
+    private final Comparator<T> order;
+
+    /**
+     * @param order must match the ORDER BY of every partition query
+     */
+    public PartitionedScan(DataSource dataSource, RowMapper<T> rowMapper, Comparator<T> order) {
+        this.dataSource = dataSource;
+        this.rowMapper = rowMapper;
+        this.order = order;
+    }
+
+    /**
+     * Runs every partition and passes the merged rows to sink, in order, on the calling thread
+     */
+    public void run(List<Partition> partitions, Consumer<T> sink) throws SQLException {
+        List<BlockingQueue<Object>> queues = new ArrayList<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        try {
+            for (Partition partition : partitions) {
+                BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                queues.add(queue);
+                executor.submit(() -> produce(partition, queue));
+            }
+
+            merge(queues, sink);
+        } finally {
+            // Wakes any producer still blocked on a full queue when the merge stopped early
+            executor.shutdownNow();
+            executor.close();
+        }
+    }
+
+    /**
+     * Streams one partition's rows into its queue, followed by END (or the failure)
+     */
+    private Void produce(Partition partition, BlockingQueue<Object> queue) throws InterruptedException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(partition.getSql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            for (int i = 0; i < partition.getParameters().size(); i++) {
+                ps.setObject(i + 1, partition.getParameters().get(i));
+            }
+            // Connector/J streams row by row instead of buffering the whole partition
+            ps.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    queue.put(rowMapper.map(rs));
+                }
+            }
+            queue.put(END);
+        } catch (SQLException | RuntimeException e) {
+            queue.put(new Failure(e));
+        }
+        return null;
+    }
+
+    private void merge(List<BlockingQueue<Object>> queues, Consumer<T> sink) throws SQLException {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.row, b.row));
+
+        for (BlockingQueue<Object> queue : queues) {
+            advance(queue, heads);
+        }
+
+        while (!heads.isEmpty()) {
+            Head<T> smallest = heads.poll();
+            sink.accept(smallest.row);
+            advance(smallest.queue, heads);
+        }
+    }
+
+    /**
+     * Takes the next row from a partition and adds it to the heads, unless the partition is finished
+     */
+    @SuppressWarnings("unchecked")
+    private void advance(BlockingQueue<Object> queue, PriorityQueue<Head<T>> heads) throws SQLException {
+        Object next;
+        try {
+            next = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while merging partitions", e);
+        }
+
+        if (next instanceof Failure failure) {
+            if (failure.cause instanceof SQLException sql) {
+                throw sql;
+            }
+            throw (RuntimeException) failure.cause;
+        }
+        if (next != END) {
+            heads.add(new Head<>((T) next, queue));
+        }
+    }
+
+    /**
+     * Maps the current row of a result set to a T
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * One slice of the scan: an ordered query and its parameters
+     */
+    public static class Partition {
+        private final String sql;
+        private final List<Object> parameters;
+
+        public Partition(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+    }
+
+    private static class Head<T> {
+        private final T row;
+        private final BlockingQueue<Object> queue;
+
+        private Head(T row, BlockingQueue<Object> queue) {
+            this.row = row;
+            this.queue = queue;
+        }
+    }
+
+    private static class Failure {
+        private final Exception cause;
+
+        private Failure(Exception cause) {
+            this.cause = cause;
+        }
+    }
+}
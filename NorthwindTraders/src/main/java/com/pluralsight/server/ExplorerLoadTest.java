@@ -0,0 +1,161 @@
+package com.pluralsight.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the explorer server: opens many sessions at once, each on a virtual thread, and has every session
+ * send a list of commands in turn. Prints throughput, latency percentiles and how many replies were BUSY or ERR,
+ * so pool size and concurrency limits can be tuned against a realistic crowd.
+ * <p>
+ * Works against any server speaking the {@link ExplorerSession} protocol, including SakilaMovies' server mode
+ * when given its commands.
+ */
+public class ExplorerLoadTest {
+
+    private static final String DEFAULT_COMMANDS = "products;categories;category 1;customers;price 10 20;top 5;stock";
+
+    private final String host;
+    private final int port;
+
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejectedSessions = new AtomicLong();
+    private final AtomicLong failedSessions = new AtomicLong();
+
+    public ExplorerLoadTest(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: java com.pluralsight.server.ExplorerLoadTest <host> <port> " +
+                    "[sessions] [rounds] [\"command;command;...\"]");
+            System.exit(1);
+        }
+
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        List<String> commands = Arrays.asList((args.length > 4 ? args[4] : DEFAULT_COMMANDS).split(";"));
+
+        new ExplorerLoadTest(args[0], Integer.parseInt(args[1])).run(sessions, rounds, commands);
+    }
+
+    /**
+     * Runs sessions concurrently, each sending every command rounds times, and prints the results
+     */
+    public void run(int sessions, int rounds, List<String> commands) throws InterruptedException {
+        List<long[]> latencies = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long startedAt;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                long[] sessionLatencies = new long[rounds * commands.size()];
+                Arrays.fill(sessionLatencies, -1);
+                latencies.add(sessionLatencies);
+                int offset = i;
+                executor.submit(() -> runSession(start, rounds, commands, offset, sessionLatencies));
+            }
+
+            // Everyone connects at the same moment, like a shift starting
+            startedAt = System.nanoTime();
+            start.countDown();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).filter(nanos -> nanos >= 0).sorted().toArray();
+        System.out.printf("%d session(s), %d command(s) in %.2f s: %.0f commands/s%n",
+                sessions, all.length, elapsedNanos / 1e9, all.length / (elapsedNanos / 1e9));
+        if (all.length > 0) {
+            System.out.printf("latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+        System.out.printf("replies  OK %d  BUSY %d  ERR %d;  sessions rejected %d, failed %d%n",
+                ok.get(), busy.get(), errors.get(), rejectedSessions.get(), failedSessions.get());
+    }
+
+    /**
+     * One simulated user. Starts at a different command than its neighbours so the mix stays even
+     */
+    private void runSession(CountDownLatch start, int rounds, List<String> commands, int offset, long[] latencies) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        try (Socket socket = new Socket(host, port)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            if (readReply(in).startsWith("BUSY")) {
+                rejectedSessions.incrementAndGet();
+                return;
+            }
+
+            for (int i = 0; i < latencies.length; i++) {
+                String command = commands.get((offset + i) % commands.size());
+                long sent = System.nanoTime();
+                out.write(command + "\r\n");
+                out.flush();
+                String status = readReply(in);
+                latencies[i] = System.nanoTime() - sent;
+
+                if (status.startsWith("OK")) {
+                    ok.incrementAndGet();
+                } else if (status.startsWith("BUSY")) {
+                    busy.incrementAndGet();
+                } else {
+                    errors.incrementAndGet();
+                }
+            }
+
+            out.write("quit\r\n");
+            out.flush();
+            readReply(in);
+        } catch (IOException e) {
+            failedSessions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads one reply up to its "." line and returns the status line
+     */
+    private static String readReply(BufferedReader in) throws IOException {
+        String status = in.readLine();
+        if (status == null) {
+            throw new IOException("Server closed the connection");
+        }
+
+        String line = status;
+        while (!line.equals(".")) {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("Server closed the connection mid-reply");
+            }
+        }
+        return status;
+    }
+
+    private static double percentile(long[] sortedNanos, double fraction) {
+        int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+}
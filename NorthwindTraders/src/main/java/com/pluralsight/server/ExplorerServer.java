@@ -0,0 +1,207 @@
+package com.pluralsight.server;
+
+import com.pluralsight.ExplorerQueries;
+import com.pluralsight.catalog.CatalogSnapshot;
+import com.pluralsight.catalog.CatalogSnapshotFile;
+import com.pluralsight.catalog.ProductChangePoller;
+import com.pluralsight.coalesce.QueryPermits;
+import com.pluralsight.coalesce.SingleFlight;
+import com.pluralsight.reports.InventoryReports;
+import com.pluralsight.resilience.ResilientConnector;
+import com.pluralsight.sqlConnectionInfo;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serves the explorer menu to many users from one JVM over a plain-text socket protocol (see {@link ExplorerSession}).
+ * <p>
+ * Every session runs on its own virtual thread, so a session waiting on its user or on MySQL costs almost nothing.
+ * All sessions share one connection pool, one catalog snapshot and one report cache. Two limits protect the
+ * database: at most maxSessions connected users (more are turned away with BUSY), and at most
+ * maxConcurrentQueries database queries at once, which matches the pool size. A query that cannot get a
+ * permit within the queue timeout is answered with BUSY instead of piling up. Menu reads that join an identical
+ * query already in flight wait for its result without taking a permit.
+ * <p>
+ * Settings: -Dserver.maxSessions (500), -Dserver.maxConcurrentQueries (16), -Dserver.queueTimeoutMs (2000),
+ * -Dserver.idleTimeoutSeconds (300). Only listens on the loopback interface.
+ */
+public class ExplorerServer {
+
+    private static final int DEFAULT_PORT = 5050;
+
+    private final ExplorerQueries explorerQueries;
+    private final CatalogSnapshot catalogSnapshot;
+    private final InventoryReports inventoryReports;
+
+    private final int maxSessions = Integer.getInteger("server.maxSessions", 500);
+    private final Semaphore sessionPermits;
+    private final QueryPermits queryPermits;
+    private final int idleTimeoutMillis = Integer.getInteger("server.idleTimeoutSeconds", 300) * 1_000;
+
+    /**
+     * @param queryPermits also the gate of explorerQueries' coalescing, so menu reads share the query limit
+     */
+    public ExplorerServer(ExplorerQueries explorerQueries, CatalogSnapshot catalogSnapshot,
+                          InventoryReports inventoryReports, QueryPermits queryPermits) {
+        this.explorerQueries = explorerQueries;
+        this.catalogSnapshot = catalogSnapshot;
+        this.inventoryReports = inventoryReports;
+        this.sessionPermits = new Semaphore(maxSessions);
+        this.queryPermits = queryPermits;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java com.pluralsight.server.ExplorerServer <username> <password> <sqlUrl> [port]");
+            System.exit(1);
+        }
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PORT;
+        int maxConcurrentQueries = Integer.getInteger("server.maxConcurrentQueries", 16);
+
+        // One pool for every session, sized to the query limit so a permit always finds a connection
+        sqlConnectionInfo sqlConnectionInfo = new sqlConnectionInfo(args[2], args[0], args[1]);
+        sqlConnectionInfo.usePool(maxConcurrentQueries);
+        String replicaUrls = System.getProperty("db.replicaUrls");
+        if (replicaUrls != null && !replicaUrls.isBlank()) {
+            sqlConnectionInfo.useReadReplicas(List.of(replicaUrls.split(",")));
+        }
+
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(sqlConnectionInfo);
+        ProductChangePoller poller = new ProductChangePoller(sqlConnectionInfo, catalogSnapshot);
+
+        try {
+            loadCatalog(catalogSnapshot);
+            String pollSeconds = System.getProperty("catalog.pollSeconds");
+            if (pollSeconds != null) {
+                poller.start(Duration.ofSeconds(Long.parseLong(pollSeconds)), System.out::println);
+            }
+
+            QueryPermits queryPermits =
+                    new QueryPermits(maxConcurrentQueries, Long.getLong("server.queueTimeoutMs", 2_000));
+            SingleFlight singleFlight =
+                    new SingleFlight(Boolean.parseBoolean(System.getProperty("db.coalesceReads", "true")), queryPermits);
+            ResilientConnector connector = new ResilientConnector(sqlConnectionInfo::getReadConnection, "read");
+            ExplorerServer server = new ExplorerServer(new ExplorerQueries(connector, catalogSnapshot, singleFlight),
+                    catalogSnapshot, new InventoryReports(sqlConnectionInfo), queryPermits);
+            server.serve(port);
+        } catch (IOException | SQLException e) {
+            System.out.println("Server failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            poller.stop();
+            try {
+                sqlConnectionInfo.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing connection pool: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads the shared catalog before accepting users, from the snapshot file when there is one
+     */
+    private static void loadCatalog(CatalogSnapshot catalogSnapshot) throws SQLException {
+        Path snapshotPath = Path.of(System.getProperty("catalog.snapshotFile", "northwind-catalog.snap"));
+        if (Files.exists(snapshotPath)) {
+            try {
+                catalogSnapshot.loadFrom(CatalogSnapshotFile.open(snapshotPath));
+                return;
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable snapshot file: " + e.getMessage());
+            }
+        }
+        catalogSnapshot.refresh();
+    }
+
+    /**
+     * Accepts sessions until the process is stopped
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 1_024, InetAddress.getLoopbackAddress());
+             ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            System.out.println("Explorer server listening on " + serverSocket.getLocalSocketAddress() +
+                    " (max " + maxSessions + " sessions, " + queryPermits.getMaxConcurrentQueries() +
+                    " concurrent queries)");
+
+            while (true) {
+                Socket socket = serverSocket.accept();
+                if (!sessionPermits.tryAcquire()) {
+                    reject(socket);
+                    continue;
+                }
+
+                sessions.submit(() -> {
+                    try (socket) {
+                        socket.setSoTimeout(idleTimeoutMillis);
+                        new ExplorerSession(this, socket).run();
+                    } catch (IOException e) {
+                        // Client went away or sat idle too long, nothing left to answer
+                    } finally {
+                        sessionPermits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void reject(Socket socket) {
+        try (socket;
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.print("BUSY too many sessions, try again later\r\n.\r\n");
+        } catch (IOException e) {
+            // Rejected client already gone
+        }
+    }
+
+    /**
+     * Runs database work that isn't coalesced (the reports) once a query permit is free
+     *
+     * @throws QueryPermits.BusyException when no permit frees up within the queue timeout
+     */
+    <T> T withQueryPermit(DatabaseCall<T> work) throws SQLException {
+        return queryPermits.run(work::call);
+    }
+
+    ExplorerQueries getExplorerQueries() {
+        return explorerQueries;
+    }
+
+    CatalogSnapshot getCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    InventoryReports getInventoryReports() {
+        return inventoryReports;
+    }
+
+    int getActiveSessions() {
+        return maxSessions - sessionPermits.availablePermits();
+    }
+
+    int getQueriesInFlight() {
+        return queryPermits.getInFlight();
+    }
+
+    /**
+     * A menu operation that may query the database
+     */
+    @FunctionalInterface
+    interface DatabaseCall<T> {
+        T call() throws SQLException;
+    }
+}
@@ -0,0 +1,190 @@
+package com.pluralsight.server;
+
+import com.pluralsight.ExplorerQueries;
+import com.pluralsight.catalog.Category;
+import com.pluralsight.catalog.Customer;
+import com.pluralsight.catalog.Product;
+import com.pluralsight.coalesce.QueryPermits;
+import com.pluralsight.reports.CategoryStock;
+import com.pluralsight.reports.CountryCount;
+import com.pluralsight.resilience.CircuitOpenException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One connected user of the {@link ExplorerServer}.
+ * <p>
+ * The protocol is line based: the client sends one command per line, and every reply (including the greeting)
+ * is a block of lines ended by a line holding a single ".". Data lines are tab-separated; a data line that
+ * itself starts with "." gets an extra "." in front, as in SMTP. The first line of a reply is "OK",
+ * "BUSY &lt;reason&gt;" (retry later) or "ERR &lt;reason&gt;". A "# cached ..." line after OK means the rows
+ * come from the catalog snapshot because the database is unavailable.
+ */
+class ExplorerSession {
+
+    private static final String HELP = """
+            products                  all products: id, name, price, stock
+            customers                 all customers: contact, company, city, country, phone
+            categories                all categories: id, name
+            category <id>             products in a category
+            price <min> <max>         products in a price range (catalog snapshot)
+            lowstock <threshold>      products with fewer units in stock (catalog snapshot)
+            top <n>                   n most expensive products (catalog snapshot)
+            stock                     stock value per category
+            countries                 customers per country
+            topstock <n>              n products with the highest stock value per category
+            status                    server load
+            quit                      end the session""";
+
+    private final ExplorerServer server;
+    private final Socket socket;
+
+    ExplorerSession(ExplorerServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    void run() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+        reply(out, "OK Northwind explorer, type help for commands", List.of());
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] words = line.trim().split("\\s+");
+            String command = words[0].toLowerCase(Locale.ROOT);
+            if (command.equals("quit")) {
+                reply(out, "OK bye", List.of());
+                return;
+            }
+
+            try {
+                execute(command, words, out);
+            } catch (QueryPermits.BusyException | CircuitOpenException e) {
+                reply(out, "BUSY " + e.getMessage(), List.of());
+            } catch (SQLException e) {
+                reply(out, "ERR " + e.getMessage(), List.of());
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                // NumberFormatException included
+                reply(out, "ERR bad arguments for " + command + ", type help for usage", List.of());
+            } catch (RuntimeException e) {
+                // A bug in one command must not end the session or leak past the protocol
+                reply(out, "ERR " + command + " failed: " + e, List.of());
+            }
+        }
+    }
+
+    private void execute(String command, String[] words, Writer out) throws SQLException, IOException {
+        ExplorerQueries queries = server.getExplorerQueries();
+
+        switch (command) {
+            case "help" -> reply(out, "OK", HELP.lines().toList());
+            // Menu reads take a query permit inside their coalescing, only when they actually go to the database
+            case "products" -> replyProducts(out, queries.products());
+            case "customers" -> {
+                ExplorerQueries.Result<Customer> result = queries.customers();
+                reply(out, "OK", result.getRows().stream()
+                        .map(c -> c.getContactName() + "\t" + c.getCompanyName() + "\t" + c.getCity() + "\t" +
+                                c.getCountry() + "\t" + c.getPhone())
+                        .toList());
+            }
+            case "categories" -> {
+                ExplorerQueries.Result<Category> result = queries.categories();
+                reply(out, header(result), result.getRows().stream()
+                        .map(c -> c.getCategoryId() + "\t" + c.getCategoryName())
+                        .toList());
+            }
+            case "category" -> {
+                int categoryId = Integer.parseInt(words[1]);
+                replyProducts(out, queries.productsInCategory(categoryId));
+            }
+            // The snapshot answers from memory, so these don't need a query slot
+            case "price" -> reply(out, "OK", productLines(server.getCatalogSnapshot()
+                    .productsInPriceRange(Double.parseDouble(words[1]), Double.parseDouble(words[2]))));
+            case "lowstock" -> reply(out, "OK", productLines(server.getCatalogSnapshot()
+                    .lowStock(Integer.parseInt(words[1]))));
+            case "top" -> reply(out, "OK", productLines(server.getCatalogSnapshot()
+                    .topByPrice(count(words[1]))));
+            case "stock" -> {
+                List<CategoryStock> rows = server.withQueryPermit(server.getInventoryReports()::stockValueByCategory);
+                reply(out, "OK", rows.stream()
+                        .map(r -> r.getCategoryId() + "\t" + r.getCategoryName() + "\t" + r.getProductCount() + "\t" +
+                                r.getUnitsInStock() + "\t" + String.format(Locale.ROOT, "%.2f", r.getStockValue()))
+                        .toList());
+            }
+            case "countries" -> {
+                List<CountryCount> rows = server.withQueryPermit(server.getInventoryReports()::customersByCountry);
+                reply(out, "OK", rows.stream().map(r -> r.getCountry() + "\t" + r.getCustomers()).toList());
+            }
+            case "topstock" -> {
+                int n = count(words[1]);
+                reply(out, "OK", productLines(server.withQueryPermit(
+                        () -> server.getInventoryReports().topProductsPerCategory(n))));
+            }
+            case "status" -> reply(out, "OK", List.of(
+                    "sessions\t" + server.getActiveSessions(),
+                    "queriesInFlight\t" + server.getQueriesInFlight(),
+                    "catalogProducts\t" + server.getCatalogSnapshot().getProductCount(),
+                    "catalogLoadedAt\t" + server.getCatalogSnapshot().getLoadedAt(),
+                    "queriesRun\t" + queries.getSingleFlight().getExecutions(),
+                    "queriesShared\t" + queries.getSingleFlight().getJoined()));
+            default -> reply(out, "ERR unknown command " + command + ", type help for commands", List.of());
+        }
+    }
+
+    /**
+     * A row count argument, which can't be negative
+     */
+    private static int count(String word) {
+        int n = Integer.parseInt(word);
+        if (n < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + n);
+        }
+        return n;
+    }
+
+    private void replyProducts(Writer out, ExplorerQueries.Result<Product> result) throws IOException {
+        reply(out, header(result), productLines(result.getRows()));
+    }
+
+    private static String header(ExplorerQueries.Result<?> result) {
+        return result.isCached() ? "OK\n# cached catalog from " + result.getCachedAt() : "OK";
+    }
+
+    private static List<String> productLines(List<Product> products) {
+        return products.stream()
+                .map(p -> p.getProductId() + "\t" + p.getProductName() + "\t" +
+                        String.format(Locale.ROOT, "%.2f", p.getUnitPrice()) + "\t" + p.getUnitsInStock())
+                .toList();
+    }
+
+    /**
+     * Writes the status line(s), the data lines and the terminating "." in one flush
+     */
+    private static void reply(Writer out, String status, List<String> lines) throws IOException {
+        for (String statusLine : status.split("\n")) {
+            out.write(statusLine);
+            out.write("\r\n");
+        }
+        for (String line : lines) {
+            if (line.startsWith(".")) {
+                out.write('.');
+            }
+            out.write(line);
+            out.write("\r\n");
+        }
+        out.write(".\r\n");
+        out.flush();
+    }
+}
@@ -1,11 +1,35 @@
 package com.pluralsight;
 
+import com.pluralsight.routing.ReplicaRoutingDataSource;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 public class sqlConnectionInfo {
 
+    // Bounded waits so a slow or restarting MySQL cannot hang the explorer: -Ddb.connectTimeoutMs, -Ddb.socketTimeoutMs
+    private static final String CONNECT_TIMEOUT_MS = System.getProperty("db.connectTimeoutMs", "3000");
+    private static final String SOCKET_TIMEOUT_MS = System.getProperty("db.socketTimeoutMs", "15000");
+
+    // Per-statement limit for Statement.setQueryTimeout: -Ddb.queryTimeoutSeconds
+    public static final int QUERY_TIMEOUT_SECONDS = Integer.getInteger("db.queryTimeoutSeconds", 10);
+
     private String connectionString;
     private String username;
     private String password;
 
+    // Set when connections are pooled, see usePool
+    private BasicDataSource pool;
+
+    // Set when read replicas are configured, see useReadReplicas
+    private ReplicaRoutingDataSource readDataSource;
+
     public sqlConnectionInfo(String connectionString, String username, String password) {
         this.connectionString = connectionString;
         this.username = username;
@@ -35,4 +59,78 @@ public class sqlConnectionInfo {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    /**
+     * Opens a new connection using the stored connection details, with connect and socket timeouts.
+     * Once {@link #usePool(int)} was called the connection comes from the pool instead
+     */
+    public Connection getConnection() throws SQLException {
+        if (pool != null) {
+            return pool.getConnection();
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("connectTimeout", CONNECT_TIMEOUT_MS);
+        properties.setProperty("socketTimeout", SOCKET_TIMEOUT_MS);
+        return DriverManager.getConnection(connectionString, properties);
+    }
+
+    /**
+     * Pools the primary connections, for long-running processes serving many users at once.
+     * Call before {@link #useReadReplicas(List)} so the replica router falls back to this pool
+     */
+    public void usePool(int maxConnections) {
+        pool = createPool(connectionString);
+        pool.setMaxTotal(maxConnections);
+        pool.setMaxIdle(maxConnections);
+    }
+
+    /**
+     * Sends read-only work from {@link #getReadConnection()} to the given replicas, least loaded first,
+     * falling back to the primary when none is healthy. Replicas use the same username and password
+     */
+    public void useReadReplicas(List<String> replicaUrls) {
+        List<BasicDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            replicas.add(createPool(url.trim()));
+        }
+        Duration healthCheckInterval = Duration.ofSeconds(Integer.getInteger("db.replicaHealthCheckSeconds", 5));
+        BasicDataSource primary = pool != null ? pool : createPool(connectionString);
+        readDataSource = new ReplicaRoutingDataSource(primary, replicas, healthCheckInterval);
+    }
+
+    public ReplicaRoutingDataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    /**
+     * Connection for read-only queries: a replica when replicas are configured, otherwise the primary.
+     * Replicas can lag behind, so reads that must see the latest writes should use {@link #getConnection()}
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readDataSource == null ? getConnection() : readDataSource.getConnection();
+    }
+
+    /**
+     * Closes the connection pool and the replica pools, if any
+     */
+    public void close() throws SQLException {
+        if (readDataSource != null) {
+            readDataSource.close();
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private BasicDataSource createPool(String url) {
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setConnectionProperties("connectTimeout=" + CONNECT_TIMEOUT_MS + ";socketTimeout=" + SOCKET_TIMEOUT_MS);
+        return dataSource;
+    }
 }
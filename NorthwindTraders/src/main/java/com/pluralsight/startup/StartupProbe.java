@@ -0,0 +1,58 @@
+package com.pluralsight.startup;
+
+import com.pluralsight.Color.ColorCodes;
+import com.pluralsight.ExplorerQueries;
+import com.pluralsight.catalog.CatalogSnapshot;
+import com.pluralsight.catalog.Category;
+import com.pluralsight.resilience.ResilientConnector;
+import com.pluralsight.sqlConnectionInfo;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Starts the explorer's database stack, runs the first menu query and reports how long that took from JVM launch.
+ * <p>
+ * Used twice by the aot Maven profile: as the training run that records which classes get loaded, and by
+ * startup-benchmark.sh to compare time-to-first-query with and without the AOT cache. Exits with 1 when the
+ * first query fails, which fails the aot build rather than recording a cache without the query path.
+ */
+public class StartupProbe {
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java com.pluralsight.startup.StartupProbe <username> <password> <sqlUrl>");
+            System.exit(2);
+        }
+
+        long mainStarted = System.nanoTime();
+
+        // The same objects Main builds before its first menu query
+        sqlConnectionInfo sqlConnectionInfo = new sqlConnectionInfo(args[2], args[0], args[1]);
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(sqlConnectionInfo);
+        ExplorerQueries explorerQueries = new ExplorerQueries(
+                new ResilientConnector(sqlConnectionInfo::getReadConnection, "read"), catalogSnapshot);
+
+        try {
+            List<Category> categories = explorerQueries.categories().getRows();
+            long firstQueryDone = System.nanoTime();
+
+            System.out.println(ColorCodes.CYAN + categories.size() + " categories" + ColorCodes.RESET);
+            System.out.println("main-to-first-query-ms " + (firstQueryDone - mainStarted) / 1_000_000);
+            System.out.println("launch-to-first-query-ms " + sinceLaunch().toMillis());
+        } catch (SQLException e) {
+            System.out.println("First query failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Time since the OS started this process, so JVM boot and class loading are included
+     */
+    private static Duration sinceLaunch() {
+        Instant launched = ProcessHandle.current().info().startInstant().orElseThrow();
+        return Duration.between(launched, Instant.now());
+    }
+}
@@ -0,0 +1,25 @@
+-- Adds the change tracking used by ProductChangePoller.
+-- MySQL maintains LastModified on every INSERT/UPDATE, the index lets each poll
+-- read only the rows changed since the previous watermark.
+
+ALTER TABLE Products
+    ADD COLUMN LastModified TIMESTAMP(3) NOT NULL
+        DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+CREATE INDEX IX_Products_LastModified ON Products (LastModified);
+
+-- Deleted rows leave nothing behind in Products, so a trigger records their ids
+-- and the poll reads the deletes since the watermark the same way.
+
+CREATE TABLE ProductDeletes (
+    ProductID INT NOT NULL,
+    DeletedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX IX_ProductDeletes_DeletedAt (DeletedAt)
+);
+
+CREATE TRIGGER TR_Products_Delete AFTER DELETE ON Products
+    FOR EACH ROW INSERT INTO ProductDeletes (ProductID) VALUES (OLD.ProductID);
+
+-- Old tombstones are only needed by pollers that are that far behind, which reload in full
+-- anyway; trim them now and then, e.g.:
+-- DELETE FROM ProductDeletes WHERE DeletedAt < NOW() - INTERVAL 7 DAY;
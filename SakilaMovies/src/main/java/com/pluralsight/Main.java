@@ -1,24 +1,85 @@
 package com.pluralsight;
 
 import com.pluralsight.Color.ColorCodes;
+import com.pluralsight.batch.BatchFilmographyReport;
+import com.pluralsight.graph.CoStar;
+import com.pluralsight.graph.CoStarGraph;
+import com.pluralsight.jfr.RenderEvent;
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import com.pluralsight.offheap.FilmDescriptions;
+import com.pluralsight.search.FilmMatch;
+import com.pluralsight.search.FilmSearchIndex;
+import com.pluralsight.routing.ReplicaRoutingDataSource;
+import com.pluralsight.snapshot.SakilaSnapshotFile;
+import com.pluralsight.snapshot.SnapshotRefresher;
 import org.apache.commons.dbcp2.BasicDataSource;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
 
-    private static BasicDataSource dataSource;
+    // Explorer queries, shared with SakilaQueryPlans so the diagnostics always check what users actually run
+    public static final String ACTORS_BY_LAST_NAME_SQL =
+            "SELECT actor_id, first_name, last_name FROM actor WHERE last_name = ? ORDER BY first_name";
+    public static final String MOVIES_BY_ACTOR_SQL = """
+            SELECT DISTINCT f.film_id, f.title, f.release_year, f.length
+            FROM film f
+            JOIN film_actor fa ON f.film_id = fa.film_id
+            JOIN actor a ON fa.actor_id = a.actor_id
+            WHERE a.first_name = ? AND a.last_name = ?
+            ORDER BY f.title
+            """;
+    public static final String MOVIES_BY_ACTOR_WITH_DESCRIPTION_SQL = """
+            SELECT DISTINCT f.film_id, f.title, f.description, f.release_year, f.length
+            FROM film f
+            JOIN film_actor fa ON f.film_id = fa.film_id
+            JOIN actor a ON fa.actor_id = a.actor_id
+            WHERE a.first_name = ? AND a.last_name = ?
+            ORDER BY f.title
+            """;
+
+    private static final int CO_STARS_SHOWN = 10;
+    private static final int FILM_MATCHES_SHOWN = 15;
+
+    // Every query here is read-only, so with -Ddb.replicaUrls set this is a ReplicaRoutingDataSource
+    private static DataSource dataSource;
+
+    // Memory-mapped copy of actor/film/film_actor, used instead of the database once it exists
+    private static final Path snapshotPath = Path.of(System.getProperty("sakila.snapshotFile", "sakila-reference.snap"));
+
+    // Rewrites the snapshot when the reference tables change
+    private static SnapshotRefresher snapshotRefresher;
+
+    // Actor and filmography lookups, from the snapshot once it exists, otherwise from the database
+    private static MovieQueries movieQueries;
 
     public static void main(String[] args) {
-        if (args.length != 3) {
+        boolean batchMode = args.length >= 5 && args[3].equals("--batch");
+        if (args.length != 3 && !batchMode) {
             System.out.println(ColorCodes.BRIGHT_RED + "❌ Application needs three arguments to run:" + ColorCodes.RESET);
             System.out.println(ColorCodes.YELLOW + "   java com.pluralsight.SakilaMovies <username> <password> <database_url>" + ColorCodes.RESET);
+            System.out.println(ColorCodes.YELLOW + "   java com.pluralsight.SakilaMovies <username> <password> <database_url> --batch <names_file> [output_file]" + ColorCodes.RESET);
             System.exit(1);
         }
 
+        if (batchMode) {
+            runBatch(args);
+            return;
+        }
+
         // Initialize the data source
         dataSource = createDataSource(args[0], args[1], args[2]);
+        movieQueries = new MovieQueries(dataSource,
+                warning -> System.out.println(ColorCodes.ORANGE + "⚠️  " + warning + ColorCodes.RESET));
+        openSnapshot();
 
         System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD + "🎬 Welcome to Sakila Movies Database Explorer!" + ColorCodes.RESET);
         System.out.println(ColorCodes.BRIGHT_BLUE + "================================================" + ColorCodes.RESET);
@@ -29,7 +90,8 @@ public class Main {
             while (continueProgram) {
                 // Step 1: Get actors by last name
                 System.out.print(ColorCodes.BRIGHT_GREEN + "\n🔍 Enter the last name of an actor you like: " + ColorCodes.RESET
-                        + ColorCodes.BRIGHT_GREEN + "(e.g 'STALLONE', 'CRONYN', 'TEMPLE', 'PINKETT',MIRANDA):\n" + ColorCodes.RESET);
+                        + ColorCodes.BRIGHT_GREEN + "(e.g 'STALLONE', 'CRONYN', 'TEMPLE', 'PINKETT',MIRANDA)" + ColorCodes.RESET
+                        + ColorCodes.BRIGHT_CYAN + " or 'search' to find films by keyword:\n" + ColorCodes.RESET);
                 String lastName = scanner.nextLine().trim();
 
                 if (lastName.isEmpty()) {
@@ -37,6 +99,17 @@ public class Main {
                     continue; // Go back to the beginning of the loop
                 }
 
+                if (lastName.equalsIgnoreCase("search")) {
+                    System.out.print(ColorCodes.BRIGHT_CYAN + "🔎 Enter keywords (e.g. 'feminist drama', 'shark canadian'): " + ColorCodes.RESET);
+                    String keywords = scanner.nextLine().trim();
+                    System.out.print(ColorCodes.BRIGHT_CYAN + "🔎 Films must contain all keywords? (y/n): " + ColorCodes.RESET);
+                    String allChoice = scanner.nextLine().trim().toLowerCase();
+
+                    searchFilms(keywords, allChoice.equals("y") || allChoice.equals("yes")
+                            ? FilmSearchIndex.Mode.ALL : FilmSearchIndex.Mode.ANY);
+                    continue; // Back to the actor search
+                }
+
                 displayActorsByLastName(lastName);
 
                 // Step 2: Get movies by actor's full name
@@ -53,6 +126,19 @@ public class Main {
 
                 displayMoviesByActor(firstName, actorLastName);
 
+                // Step 3: Optionally see who the actor worked with and how they connect to someone else
+                System.out.print(ColorCodes.PURPLE + "\n🤝 Show co-stars of " + firstName + " " + actorLastName + "? (y/n): " + ColorCodes.RESET);
+                String coStarChoice = scanner.nextLine().trim().toLowerCase();
+                if (coStarChoice.equals("y") || coStarChoice.equals("yes")) {
+                    displayCoStars(firstName, actorLastName);
+
+                    System.out.print(ColorCodes.BRIGHT_PURPLE + "\n🔗 Enter another actor's first and last name to see how they are connected (Enter to skip): " + ColorCodes.RESET);
+                    String otherActor = scanner.nextLine().trim();
+                    if (!otherActor.isEmpty()) {
+                        displayConnection(firstName, actorLastName, otherActor);
+                    }
+                }
+
                 // Ask if user wants to continue
                 boolean validChoice = false;
                 while (!validChoice) {
@@ -77,9 +163,15 @@ public class Main {
             e.printStackTrace();
         } finally {
             // Close the data source when done
+            if (snapshotRefresher != null) {
+                snapshotRefresher.stop();
+            }
+            if (movieQueries != null) {
+                movieQueries.close();
+            }
             if (dataSource != null) {
                 try {
-                    dataSource.close();
+                    closeDataSource();
                     System.out.println(ColorCodes.BRIGHT_GREEN + "\n👋 Database connection closed. Goodbye!" + ColorCodes.RESET);
                 } catch (SQLException e) {
                     System.out.println(ColorCodes.ORANGE + "⚠️  Error closing data source: " + e.getMessage() + ColorCodes.RESET);
@@ -89,9 +181,28 @@ public class Main {
     }
 
     /**
-     * Creates and configures a BasicDataSource with the provided connection details
+     * Creates and configures a BasicDataSource with the provided connection details.
+     * When -Ddb.replicaUrls lists read replicas (same credentials), queries are spread over them
+     * and the given url is only used when no replica is healthy
      */
-    private static BasicDataSource createDataSource(String username, String password, String url) {
+    private static DataSource createDataSource(String username, String password, String url) {
+        BasicDataSource ds = createPool(username, password, url);
+
+        String replicaUrls = System.getProperty("db.replicaUrls");
+        if (replicaUrls == null || replicaUrls.isBlank()) {
+            return ds;
+        }
+
+        List<BasicDataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls.split(",")) {
+            replicas.add(createPool(username, password, replicaUrl.trim()));
+        }
+        Duration healthCheckInterval = Duration.ofSeconds(Integer.getInteger("db.replicaHealthCheckSeconds", 5));
+        System.out.println(ColorCodes.BRIGHT_CYAN + "🔀 Reading from " + replicas.size() + " replica(s)" + ColorCodes.RESET);
+        return new ReplicaRoutingDataSource(ds, replicas, healthCheckInterval);
+    }
+
+    private static BasicDataSource createPool(String username, String password, String url) {
         BasicDataSource ds = new BasicDataSource();
         ds.setUrl(url);
         ds.setUsername(username);
@@ -101,39 +212,68 @@ public class Main {
     }
 
     /**
-     * Displays all actors with the specified last name
+     * Closes the pool, or the primary and replica pools when routing
      */
-    private static void displayActorsByLastName(String lastName) {
-        String sql = "SELECT actor_id, first_name, last_name FROM actor WHERE last_name = ? ORDER BY first_name";
-
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
-
-            ps.setString(1, lastName);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                boolean foundActors = false;
-
-                System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🌟 Actors with last name '" + lastName + "':" + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_BLUE + "----------------------------------------" + ColorCodes.RESET);
+    private static void closeDataSource() throws SQLException {
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            routing.close();
+        } else if (dataSource instanceof BasicDataSource pool) {
+            pool.close();
+        }
+    }
 
-                while (rs.next()) {
-                    foundActors = true;
-                    int actorId = rs.getInt("actor_id");
-                    String firstName = rs.getString("first_name");
-                    String actorLastName = rs.getString("last_name");
+    /**
+     * Batch mode: resolves every actor name in a file and writes their filmographies without prompting
+     */
+    private static void runBatch(String[] args) {
+        dataSource = createDataSource(args[0], args[1], args[2]);
+        Path output = args.length > 5 ? Path.of(args[5]) : null;
 
-                    System.out.printf(ColorCodes.CYAN + "ID: " + ColorCodes.BRIGHT_WHITE + "%-3d" + ColorCodes.CYAN + " | " +
-                                    ColorCodes.BRIGHT_YELLOW + "%s %s" + ColorCodes.RESET + "%n",
-                            actorId, firstName, actorLastName);
-                }
+        try {
+            new BatchFilmographyReport(dataSource).run(Path.of(args[4]), output);
+        } catch (IOException | SQLException e) {
+            System.err.println("💥 Batch run failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            try {
+                closeDataSource();
+            } catch (SQLException e) {
+                System.err.println("⚠️  Error closing data source: " + e.getMessage());
+            }
+        }
+    }
 
-                if (!foundActors) {
-                    System.out.println(ColorCodes.BRIGHT_RED + "❌ No actors found with last name '" + lastName + "'" + ColorCodes.RESET);
-                    System.out.println(ColorCodes.YELLOW + "   Please try a different last name (e.g., 'Johansson', 'Wahlberg', 'Davis')" + ColorCodes.RESET);
-                }
+    /**
+     * Maps the reference snapshot left by a previous run, so the first lookups skip the database, and keeps it in
+     * step with the database in the background: checked straight away and then every -Dsakila.snapshotRefreshSeconds
+     * (60), rewritten when actor, film or film_actor changed. With no snapshot yet, the first check writes one
+     */
+    private static void openSnapshot() {
+        snapshotRefresher = new SnapshotRefresher(dataSource, snapshotPath, movieQueries::setSnapshot);
+        try {
+            SakilaSnapshotFile snapshot = snapshotRefresher.openExisting();
+            if (snapshot != null) {
+                System.out.println(ColorCodes.CYAN + "📁 Using reference snapshot " + snapshotPath + " (" +
+                        snapshot.getActorCount() + " actors, " + snapshot.getFilmCount() + " films, written " +
+                        snapshot.getCreatedAt() + ")" + ColorCodes.RESET);
             }
+        } catch (IOException e) {
+            System.out.println(ColorCodes.ORANGE + "⚠️  Ignoring unreadable snapshot file: " + e.getMessage() +
+                    ColorCodes.RESET);
+        }
 
+        // Not fatal when it fails, lookups keep going to the current snapshot or the database
+        snapshotRefresher.start(Duration.ofSeconds(Long.getLong("sakila.snapshotRefreshSeconds", 60)),
+                warning -> System.out.println(ColorCodes.ORANGE + "⚠️  " + warning + ColorCodes.RESET));
+    }
+
+    /**
+     * Displays all actors with the specified last name
+     */
+    private static void displayActorsByLastName(String lastName) {
+        try {
+            printActors(lastName, movieQueries.actorsByLastName(lastName));
         } catch (SQLException e) {
             System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while searching for actors: " + e.getMessage() + ColorCodes.RESET);
             e.printStackTrace();
@@ -144,53 +284,179 @@ public class Main {
      * Displays all movies featuring the specified actor
      */
     private static void displayMoviesByActor(String firstName, String lastName) {
-        String sql = """
-            SELECT DISTINCT f.film_id, f.title, f.description, f.release_year, f.length
-            FROM film f
-            JOIN film_actor fa ON f.film_id = fa.film_id
-            JOIN actor a ON fa.actor_id = a.actor_id
-            WHERE a.first_name = ? AND a.last_name = ?
-            ORDER BY f.title
-            """;
+        try {
+            List<Film> films = movieQueries.moviesByActor(firstName, lastName);
+            printMovies(firstName, lastName, films, movieQueries.filmDescriptions());
+        } catch (SQLException e) {
+            System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while searching for movies: " + e.getMessage() + ColorCodes.RESET);
+            e.printStackTrace();
+        }
+    }
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+    /**
+     * Displays the films whose title or description best match the keywords, from the in-memory keyword index
+     */
+    private static void searchFilms(String keywords, FilmSearchIndex.Mode mode) {
+        if (keywords.isEmpty()) {
+            System.out.println(ColorCodes.BRIGHT_RED + "❌ Keywords cannot be empty!" + ColorCodes.RESET);
+            return;
+        }
 
-            ps.setString(1, firstName);
-            ps.setString(2, lastName);
+        try {
+            FilmSearchIndex index = movieQueries.filmSearchIndex();
+            long started = System.nanoTime();
+            List<FilmMatch> matches = index.search(keywords, mode, FILM_MATCHES_SHOWN);
+            long micros = (System.nanoTime() - started) / 1_000;
+
+            System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🎞️  Films matching " + (mode == FilmSearchIndex.Mode.ALL ? "all" : "any") +
+                    " of '" + keywords + "':" + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_BLUE + "----------------------------------------" + ColorCodes.RESET);
+            for (FilmMatch match : matches) {
+                System.out.printf(ColorCodes.CYAN + "ID: " + ColorCodes.BRIGHT_WHITE + "%-4d" + ColorCodes.CYAN + " | " +
+                                ColorCodes.BRIGHT_YELLOW + "%-28s" + ColorCodes.CYAN + " | " + ColorCodes.SNOW + "%d" +
+                                ColorCodes.CYAN + " | score " + ColorCodes.SNOW + "%.2f" + ColorCodes.RESET + "%n",
+                        match.getFilmId(), match.getTitle(), match.getReleaseYear(), match.getScore());
+            }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                boolean foundMovies = false;
+            if (matches.isEmpty()) {
+                System.out.println(ColorCodes.BRIGHT_RED + "❌ No films found for '" + keywords + "'" + ColorCodes.RESET);
+            }
+            System.out.println(ColorCodes.LAVENDER + "   Searched " + index.getFilmCount() + " films in " + micros + " µs" + ColorCodes.RESET);
+        } catch (SQLException e) {
+            System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while building the film index: " + e.getMessage() + ColorCodes.RESET);
+            e.printStackTrace();
+        }
+    }
 
-                System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD + "\n🎬 Movies starring " + firstName + " " + lastName + ":" + ColorCodes.RESET);
-                System.out.println(ColorCodes.BRIGHT_BLUE + "=".repeat(50) + ColorCodes.RESET);
+    /**
+     * Displays the actor's co-stars with the most shared films, from the in-memory co-star graph
+     */
+    private static void displayCoStars(String firstName, String lastName) {
+        try {
+            CoStarGraph graph = movieQueries.coStarGraph();
+            int[] actorIds = graph.actorIdsByName(firstName, lastName);
+            if (actorIds.length == 0) {
+                System.out.println(ColorCodes.BRIGHT_RED + "❌ No actor named '" + firstName + " " + lastName + "'" + ColorCodes.RESET);
+                return;
+            }
 
-                while (rs.next()) {
-                    foundMovies = true;
-                    int filmId = rs.getInt("film_id");
-                    String title = rs.getString("title");
-                    String description = rs.getString("description");
-                    int releaseYear = rs.getInt("release_year");
-                    int length = rs.getInt("length");
+            for (int actorId : actorIds) {
+                long started = System.nanoTime();
+                List<CoStar> coStars = graph.coStars(actorId);
+                long micros = (System.nanoTime() - started) / 1_000;
 
-                    System.out.println(ColorCodes.BRIGHT_GREEN + "\n🎥 " + ColorCodes.BRIGHT_WHITE + ColorCodes.BOLD + title +
-                            ColorCodes.RESET + ColorCodes.BRIGHT_YELLOW + " (" + releaseYear + ")" + ColorCodes.RESET);
-                    System.out.println(ColorCodes.CYAN + "   ID: " + ColorCodes.SNOW + filmId +
-                            ColorCodes.CYAN + " | Length: " + ColorCodes.SNOW + length + " minutes" + ColorCodes.RESET);
-                    System.out.println(ColorCodes.LAVENDER + "   Description: " + ColorCodes.GOLD + ColorCodes.BOLD + description + ColorCodes.RESET);
-                    System.out.println(ColorCodes.BRIGHT_BLUE + "-".repeat(50) + ColorCodes.RESET);
+                System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🤝 Co-stars of " + graph.actorName(actorId) +
+                        " (ID " + actorId + ", " + graph.filmCount(actorId) + " films):" + ColorCodes.RESET);
+                System.out.println(ColorCodes.BRIGHT_BLUE + "----------------------------------------" + ColorCodes.RESET);
+                for (CoStar coStar : coStars.subList(0, Math.min(CO_STARS_SHOWN, coStars.size()))) {
+                    System.out.printf(ColorCodes.CYAN + "ID: " + ColorCodes.BRIGHT_WHITE + "%-3d" + ColorCodes.CYAN + " | " +
+                                    ColorCodes.BRIGHT_YELLOW + "%-25s" + ColorCodes.CYAN + " | " + ColorCodes.SNOW + "%d shared film(s)" +
+                                    ColorCodes.RESET + "%n",
+                            coStar.getActorId(), coStar.getName(), coStar.getSharedFilms());
                 }
+                System.out.println(ColorCodes.LAVENDER + "   " + coStars.size() + " co-star(s) in total, found in " + micros + " µs" + ColorCodes.RESET);
+            }
+        } catch (SQLException e) {
+            System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while loading the co-star graph: " + e.getMessage() + ColorCodes.RESET);
+            e.printStackTrace();
+        }
+    }
 
-                if (!foundMovies) {
-                    System.out.println(ColorCodes.BRIGHT_RED + "❌ No movies found for actor '" + firstName + " " + lastName + "'" + ColorCodes.RESET);
-                    System.out.println(ColorCodes.YELLOW + "   Please check the spelling or try a different actor name." + ColorCodes.RESET);
-                    System.out.println(ColorCodes.BRIGHT_CYAN + "   Tip: Search by last name first to see available actors!" + ColorCodes.RESET);
-                }
+    /**
+     * Displays the shortest chain of shared films between two actors and how many films they made together
+     */
+    private static void displayConnection(String firstName, String lastName, String otherFullName) {
+        int split = otherFullName.lastIndexOf(' ');
+        if (split < 0) {
+            System.out.println(ColorCodes.BRIGHT_RED + "❌ Please enter both a first and a last name!" + ColorCodes.RESET);
+            return;
+        }
+
+        try {
+            CoStarGraph graph = movieQueries.coStarGraph();
+            int[] from = graph.actorIdsByName(firstName, lastName);
+            int[] to = graph.actorIdsByName(otherFullName.substring(0, split), otherFullName.substring(split + 1));
+            if (from.length == 0 || to.length == 0) {
+                System.out.println(ColorCodes.BRIGHT_RED + "❌ No actor named '" + (from.length == 0 ? firstName + " " + lastName : otherFullName) + "'" + ColorCodes.RESET);
+                return;
             }
 
+            long started = System.nanoTime();
+            int[] path = graph.path(from[0], to[0]);
+            int[] shared = graph.sharedFilms(from[0], to[0]);
+            long micros = (System.nanoTime() - started) / 1_000;
+
+            System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🔗 " + graph.actorName(from[0]) + " → " + graph.actorName(to[0]) + ":" + ColorCodes.RESET);
+            if (path.length == 0) {
+                System.out.println(ColorCodes.BRIGHT_RED + "❌ These actors are not connected through any films" + ColorCodes.RESET);
+            } else {
+                System.out.println(ColorCodes.BRIGHT_YELLOW + "   " + graph.actorName(path[0]) + ColorCodes.RESET);
+                for (int i = 1; i < path.length; i += 2) {
+                    System.out.println(ColorCodes.CYAN + "     ↳ in " + ColorCodes.BRIGHT_WHITE + graph.filmTitle(path[i]) +
+                            ColorCodes.CYAN + " with " + ColorCodes.BRIGHT_YELLOW + graph.actorName(path[i + 1]) + ColorCodes.RESET);
+                }
+                System.out.println(ColorCodes.SNOW + "   " + path.length / 2 + " degree(s) of separation, " + shared.length +
+                        " film(s) together" + ColorCodes.RESET);
+            }
+            System.out.println(ColorCodes.LAVENDER + "   Found in " + micros + " µs" + ColorCodes.RESET);
         } catch (SQLException e) {
-            System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while searching for movies: " + e.getMessage() + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_RED + "💥 Database error while loading the co-star graph: " + e.getMessage() + ColorCodes.RESET);
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Prints the actor search results, whether they came from the database or the snapshot
+     */
+    private static void printActors(String lastName, List<Actor> actors) {
+        RenderEvent render = new RenderEvent();
+        render.begin();
+        System.out.println(ColorCodes.GOLD + ColorCodes.BOLD + "\n🌟 Actors with last name '" + lastName + "':" + ColorCodes.RESET);
+        System.out.println(ColorCodes.BRIGHT_BLUE + "----------------------------------------" + ColorCodes.RESET);
+
+        for (Actor actor : actors) {
+            System.out.printf(ColorCodes.CYAN + "ID: " + ColorCodes.BRIGHT_WHITE + "%-3d" + ColorCodes.CYAN + " | " +
+                            ColorCodes.BRIGHT_YELLOW + "%s %s" + ColorCodes.RESET + "%n",
+                    actor.getActorId(), actor.getFirstName(), actor.getLastName());
+        }
+
+        if (actors.isEmpty()) {
+            System.out.println(ColorCodes.BRIGHT_RED + "❌ No actors found with last name '" + lastName + "'" + ColorCodes.RESET);
+            System.out.println(ColorCodes.YELLOW + "   Please try a different last name (e.g., 'Johansson', 'Wahlberg', 'Davis')" + ColorCodes.RESET);
+        }
+        render.record("actorsByLastName", actors.size());
+    }
+
+    /**
+     * Prints an actor's filmography, whether it came from the database or the snapshot.
+     * Films without a description string get theirs written straight from descriptions
+     */
+    private static void printMovies(String firstName, String lastName, List<Film> films, FilmDescriptions descriptions) {
+        RenderEvent render = new RenderEvent();
+        render.begin();
+        System.out.println(ColorCodes.BRIGHT_CYAN + ColorCodes.BOLD + "\n🎬 Movies starring " + firstName + " " + lastName + ":" + ColorCodes.RESET);
+        System.out.println(ColorCodes.BRIGHT_BLUE + "=".repeat(50) + ColorCodes.RESET);
+
+        for (Film film : films) {
+            System.out.println(ColorCodes.BRIGHT_GREEN + "\n🎥 " + ColorCodes.BRIGHT_WHITE + ColorCodes.BOLD + film.getTitle() +
+                    ColorCodes.RESET + ColorCodes.BRIGHT_YELLOW + " (" + film.getReleaseYear() + ")" + ColorCodes.RESET);
+            System.out.println(ColorCodes.CYAN + "   ID: " + ColorCodes.SNOW + film.getFilmId() +
+                    ColorCodes.CYAN + " | Length: " + ColorCodes.SNOW + film.getLength() + " minutes" + ColorCodes.RESET);
+            System.out.print(ColorCodes.LAVENDER + "   Description: " + ColorCodes.GOLD + ColorCodes.BOLD);
+            if (film.getDescription() != null) {
+                System.out.print(film.getDescription());
+            } else if (descriptions == null || !descriptions.writeDescription(film.getFilmId(), System.out)) {
+                System.out.print(movieQueries.missingDescription(film.getFilmId()));
+            }
+            System.out.println(ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_BLUE + "-".repeat(50) + ColorCodes.RESET);
+        }
+
+        if (films.isEmpty()) {
+            System.out.println(ColorCodes.BRIGHT_RED + "❌ No movies found for actor '" + firstName + " " + lastName + "'" + ColorCodes.RESET);
+            System.out.println(ColorCodes.YELLOW + "   Please check the spelling or try a different actor name." + ColorCodes.RESET);
+            System.out.println(ColorCodes.BRIGHT_CYAN + "   Tip: Search by last name first to see available actors!" + ColorCodes.RESET);
+        }
+        render.record("moviesByActor", films.size());
+    }
+}
@@ -0,0 +1,332 @@
+package com.pluralsight;
+
+import com.pluralsight.coalesce.SingleFlight;
+import com.pluralsight.graph.CoStarGraph;
+import com.pluralsight.jfr.ConnectionAcquireEvent;
+import com.pluralsight.jfr.QueryExecuteEvent;
+import com.pluralsight.jfr.RowFetchEvent;
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import com.pluralsight.offheap.FilmDescriptionStore;
+import com.pluralsight.offheap.FilmDescriptions;
+import com.pluralsight.search.FilmSearchIndex;
+import com.pluralsight.snapshot.SakilaSnapshotFile;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The explorer's actor and filmography lookups, shared by the console {@link Main} and the multi-session server.
+ * <p>
+ * Lookups are answered from the mapped reference snapshot once one is set (kept current by the
+ * {@link com.pluralsight.snapshot.SnapshotRefresher}), otherwise from the database.
+ * Film descriptions come from the snapshot or the off-heap description store, so the filmography query can skip
+ * the description column. Identical database lookups that overlap in time share one query through
+ * {@link SingleFlight} (-Ddb.coalesceReads=false turns that off), so their lists are shared and can't be modified.
+ * Safe to use from many threads.
+ */
+public class MovieQueries {
+
+    private static final long FIRST_DESCRIPTION_BACKOFF_MILLIS = 5_000;
+    private static final long MAX_DESCRIPTION_BACKOFF_MILLIS = 300_000;
+
+    private static final String DESCRIPTION_SQL = "SELECT description FROM film WHERE film_id = ?";
+
+    private final DataSource dataSource;
+    private final Consumer<String> warnings;
+    private final SingleFlight singleFlight;
+
+    private volatile SakilaSnapshotFile snapshot;
+
+    // Off-heap film descriptions, loaded the first time a filmography is read without a snapshot and reloaded
+    // every -Dsakila.descriptionRefreshSeconds (300), or sooner once a film turns out to be missing from it
+    private FilmDescriptionStore descriptionStore;
+    private final long descriptionRefreshNanos =
+            Duration.ofSeconds(Long.getLong("sakila.descriptionRefreshSeconds", 300)).toNanos();
+    private long descriptionLoadedAt;
+    private boolean descriptionStale;
+    private boolean descriptionLoading;
+    // After a failed load the store isn't tried again before this System.nanoTime(), with the wait doubling each time
+    private long descriptionRetryAt;
+    private long descriptionBackoffMillis = FIRST_DESCRIPTION_BACKOFF_MILLIS;
+    private boolean closed;
+
+    // Who played with whom, loaded the first time a co-star question is asked and again after the snapshot changes
+    private CoStarGraph coStarGraph;
+
+    // Keyword index over film titles and descriptions, built the first time films are searched and again after
+    // the snapshot changes
+    private FilmSearchIndex filmSearchIndex;
+
+    /**
+     * @param warnings receives messages about optional features that could not be loaded
+     */
+    public MovieQueries(DataSource dataSource, Consumer<String> warnings) {
+        this(dataSource, warnings, new SingleFlight(Boolean.parseBoolean(System.getProperty("db.coalesceReads", "true"))));
+    }
+
+    /**
+     * @param singleFlight coalesces database lookups; its gate runs only the lookups that reach the database
+     */
+    public MovieQueries(DataSource dataSource, Consumer<String> warnings, SingleFlight singleFlight) {
+        this.dataSource = dataSource;
+        this.warnings = warnings;
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * Called by the snapshot refresher with each new snapshot, which means actor, film or film_actor changed;
+     * the co-star graph and the film search index are rebuilt on their next use
+     */
+    public void setSnapshot(SakilaSnapshotFile snapshot) {
+        synchronized (this) {
+            coStarGraph = null;
+            filmSearchIndex = null;
+        }
+        this.snapshot = snapshot;
+    }
+
+    public SakilaSnapshotFile getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Actors with the given last name, ordered by first name
+     */
+    public List<Actor> actorsByLastName(String lastName) throws SQLException {
+        SakilaSnapshotFile current = snapshot;
+        if (current != null) {
+            return current.actorsByLastName(lastName);
+        }
+
+        return singleFlight.execute(Main.ACTORS_BY_LAST_NAME_SQL, List.of(lastName), () -> {
+            try (Connection connection = connection();
+                 PreparedStatement ps = connection.prepareStatement(Main.ACTORS_BY_LAST_NAME_SQL)) {
+
+                ps.setString(1, lastName);
+
+                try (ResultSet rs = execute("actorsByLastName", Main.ACTORS_BY_LAST_NAME_SQL, ps)) {
+                    RowFetchEvent fetch = new RowFetchEvent();
+                    fetch.begin();
+                    List<Actor> actors = new ArrayList<>();
+                    while (rs.next()) {
+                        actors.add(new Actor(rs.getInt("actor_id"), fetch.text(rs, "first_name"),
+                                fetch.text(rs, "last_name")));
+                    }
+                    fetch.record("actorsByLastName", actors.size());
+                    return Collections.unmodifiableList(actors);
+                }
+            }
+        });
+    }
+
+    /**
+     * Films featuring the actor, ordered by title. Films without a description string get theirs from
+     * {@link #filmDescriptions()}
+     */
+    public List<Film> moviesByActor(String firstName, String lastName) throws SQLException {
+        SakilaSnapshotFile current = snapshot;
+        if (current != null) {
+            return current.filmsByActorName(firstName, lastName);
+        }
+
+        // With the off-heap store loaded the big description column no longer has to come back with every film
+        FilmDescriptions descriptions = filmDescriptions();
+        String sql = descriptions != null ? Main.MOVIES_BY_ACTOR_SQL : Main.MOVIES_BY_ACTOR_WITH_DESCRIPTION_SQL;
+
+        return singleFlight.execute(sql, List.of(firstName, lastName), () -> {
+            try (Connection connection = connection();
+                 PreparedStatement ps = connection.prepareStatement(sql)) {
+
+                ps.setString(1, firstName);
+                ps.setString(2, lastName);
+
+                try (ResultSet rs = execute("moviesByActor", sql, ps)) {
+                    RowFetchEvent fetch = new RowFetchEvent();
+                    fetch.begin();
+                    List<Film> films = new ArrayList<>();
+                    while (rs.next()) {
+                        films.add(new Film(rs.getInt("film_id"), fetch.text(rs, "title"),
+                                descriptions != null ? null : fetch.text(rs, "description"),
+                                rs.getInt("release_year"), rs.getInt("length")));
+                    }
+                    fetch.record("moviesByActor", films.size());
+                    return Collections.unmodifiableList(films);
+                }
+            }
+        });
+    }
+
+    /**
+     * A pooled connection, inside a {@link ConnectionAcquireEvent}
+     */
+    private Connection connection() throws SQLException {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            Connection connection = dataSource.getConnection();
+            succeeded = true;
+            return connection;
+        } finally {
+            event.record("pool", succeeded);
+        }
+    }
+
+    /**
+     * Runs the statement inside a {@link QueryExecuteEvent}
+     */
+    private static ResultSet execute(String queryName, String sql, PreparedStatement ps) throws SQLException {
+        QueryExecuteEvent event = new QueryExecuteEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            ResultSet rs = ps.executeQuery();
+            succeeded = true;
+            return rs;
+        } finally {
+            event.record(queryName, sql, succeeded);
+        }
+    }
+
+    /**
+     * How many database lookups ran and how many were shared
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Where descriptions of films without a description string come from: the snapshot, or the off-heap store
+     * (loaded on first use, reloaded when it is due). One caller loads while the others keep the store they had.
+     * A failed load is not retried for a while (5 s, doubling up to 5 min), so an outage doesn't turn every
+     * filmography into a full description scan. Films the result has no description for get theirs from
+     * {@link #missingDescription(int)}
+     *
+     * @return null when neither is available (descriptions then come back with the filmography query)
+     */
+    public FilmDescriptions filmDescriptions() {
+        SakilaSnapshotFile current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            boolean due = descriptionStore == null || descriptionStale ||
+                    System.nanoTime() - descriptionLoadedAt >= descriptionRefreshNanos;
+            if (!due || closed || descriptionLoading || System.nanoTime() - descriptionRetryAt < 0) {
+                return descriptionStore;
+            }
+            descriptionLoading = true;
+        }
+
+        FilmDescriptionStore loaded = null;
+        try {
+            loaded = FilmDescriptionStore.load(dataSource);
+            if (loaded.getDroppedRows() > 0) {
+                warnings.accept(loaded.getDroppedRows() + " film description(s) did not fit the description store");
+            }
+        } catch (SQLException e) {
+            warnings.accept("Could not load film descriptions, retrying in " +
+                    descriptionBackoffMillis / 1_000 + " s: " + e.getMessage());
+        }
+
+        FilmDescriptionStore replaced;
+        synchronized (this) {
+            descriptionLoading = false;
+            if (loaded == null) {
+                descriptionRetryAt = System.nanoTime() + descriptionBackoffMillis * 1_000_000;
+                descriptionBackoffMillis = Math.min(descriptionBackoffMillis * 2, MAX_DESCRIPTION_BACKOFF_MILLIS);
+                return descriptionStore;
+            }
+            if (closed) {
+                loaded.close();
+                return null;
+            }
+            replaced = descriptionStore;
+            descriptionStore = loaded;
+            descriptionLoadedAt = System.nanoTime();
+            descriptionStale = false;
+            descriptionBackoffMillis = FIRST_DESCRIPTION_BACKOFF_MILLIS;
+        }
+        if (replaced != null) {
+            // Freed once sessions still writing from it are done
+            replaced.close();
+        }
+        return loaded;
+    }
+
+    /**
+     * The description of a film that {@link #filmDescriptions()} had none for, read from the database. The film
+     * was most likely added after the store was loaded, so the store is reloaded on its next use
+     *
+     * @return the description, "" when the film has none, or a placeholder when it can't be read
+     */
+    public String missingDescription(int filmId) {
+        synchronized (this) {
+            descriptionStale = true;
+        }
+
+        try {
+            return singleFlight.execute(DESCRIPTION_SQL, List.of(filmId), () -> {
+                try (Connection connection = connection();
+                     PreparedStatement ps = connection.prepareStatement(DESCRIPTION_SQL)) {
+
+                    ps.setInt(1, filmId);
+
+                    try (ResultSet rs = execute("filmDescription", DESCRIPTION_SQL, ps)) {
+                        if (!rs.next()) {
+                            return "(film no longer exists)";
+                        }
+                        String description = rs.getString("description");
+                        return description != null ? description : "";
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            warnings.accept("Could not read the description of film " + filmId + ": " + e.getMessage());
+            return "(description unavailable)";
+        }
+    }
+
+    /**
+     * The co-star graph, loaded from film_actor on first use. Later calls return the same graph until a new
+     * snapshot is set; without a snapshot refresher it stays a copy as of its load
+     */
+    public synchronized CoStarGraph coStarGraph() throws SQLException {
+        if (coStarGraph == null) {
+            coStarGraph = CoStarGraph.load(dataSource);
+        }
+        return coStarGraph;
+    }
+
+    /**
+     * The film keyword index, built from one pass over film on first use. Later calls return the same index
+     * until a new snapshot is set; without a snapshot refresher it stays a copy as of its load
+     */
+    public synchronized FilmSearchIndex filmSearchIndex() throws SQLException {
+        if (filmSearchIndex == null) {
+            filmSearchIndex = FilmSearchIndex.load(dataSource);
+        }
+        return filmSearchIndex;
+    }
+
+    /**
+     * Frees the off-heap description store once no thread is writing from it
+     */
+    public synchronized void close() {
+        closed = true;
+        if (descriptionStore != null) {
+            descriptionStore.close();
+            descriptionStore = null;
+        }
+    }
+}
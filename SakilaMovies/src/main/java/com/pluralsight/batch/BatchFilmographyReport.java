@@ -0,0 +1,156 @@
+package com.pluralsight.batch;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Non-interactive filmography report for a file of actor names.
+ * <p>
+ * Each line of the input holds one actor as "FIRST,LAST" (or "FIRST LAST"); blank lines and lines
+ * starting with # are skipped. Names are de-duplicated and resolved a chunk at a time with a single
+ * row-constructor IN query per chunk, so thousands of names cost a handful of round trips instead of
+ * one prompt and one query each. Rows are written as tab-separated lines as they arrive; an actor without films
+ * gets one line with empty film columns.
+ */
+public class BatchFilmographyReport {
+
+    // Names per query, keeps the statement well under max_allowed_packet and the placeholder limit
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String SQL_PREFIX = """
+            SELECT a.actor_id, a.first_name, a.last_name, f.film_id, f.title, f.release_year, f.length
+            FROM actor a
+            LEFT JOIN film_actor fa ON fa.actor_id = a.actor_id
+            LEFT JOIN film f ON f.film_id = fa.film_id
+            WHERE (a.first_name, a.last_name) IN (""";
+    private static final String SQL_SUFFIX = ") ORDER BY a.last_name, a.first_name, a.actor_id, f.title";
+
+    private final DataSource dataSource;
+
+    public BatchFilmographyReport(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Runs the report for every name in input and writes it to output (stdout when output is null).
+     * A summary, including names that matched no actor, goes to stderr
+     */
+    public void run(Path input, Path output) throws IOException, SQLException {
+        long start = System.nanoTime();
+        List<List<String>> names = readNames(input);
+
+        Set<List<String>> found = new LinkedHashSet<>();
+        long rows = 0;
+
+        // Only a file is closed at the end; stdout is flushed and left open for the caller
+        Writer writer = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        try (Connection connection = dataSource.getConnection()) {
+
+            writer.write("first_name\tlast_name\tactor_id\tfilm_id\ttitle\trelease_year\tlength\n");
+
+            for (int from = 0; from < names.size(); from += CHUNK_SIZE) {
+                List<List<String>> chunk = names.subList(from, Math.min(from + CHUNK_SIZE, names.size()));
+                rows += writeChunk(connection, chunk, writer, found);
+            }
+            writer.flush();
+        } finally {
+            if (output != null) {
+                writer.close();
+            }
+        }
+
+        PrintStream err = System.err;
+        err.printf("%d name(s) requested, %d resolved, %d film row(s) written in %d ms%n",
+                names.size(), found.size(), rows, (System.nanoTime() - start) / 1_000_000);
+        for (List<String> name : names) {
+            if (!found.contains(name)) {
+                err.println("Not found: " + name.get(0) + " " + name.get(1));
+            }
+        }
+    }
+
+    /**
+     * Resolves one chunk of names with a single query and streams its rows to writer
+     *
+     * @return number of film rows written
+     */
+    private long writeChunk(Connection connection, List<List<String>> chunk, Writer writer,
+                            Set<List<String>> found) throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder(SQL_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+        }
+        sql.append(SQL_SUFFIX);
+
+        long rows = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            int parameter = 1;
+            for (List<String> name : chunk) {
+                ps.setString(parameter++, name.get(0));
+                ps.setString(parameter++, name.get(1));
+            }
+
+            // Connector/J buffers the whole result unless the URL sets useCursorFetch, so no fetch size here; one
+            // chunk's rows (its actors' filmographies) are small enough to hold
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String firstName = rs.getString("first_name");
+                    String lastName = rs.getString("last_name");
+                    found.add(List.of(firstName.toUpperCase(Locale.ROOT), lastName.toUpperCase(Locale.ROOT)));
+
+                    int filmId = rs.getInt("film_id");
+                    if (rs.wasNull()) {
+                        // Actor without films (or whose film_actor rows point at no film)
+                        writer.write(firstName + '\t' + lastName + '\t' + rs.getInt("actor_id") + "\t\t\t\t\n");
+                        continue;
+                    }
+
+                    writer.write(firstName + '\t' + lastName + '\t' + rs.getInt("actor_id") + '\t' +
+                            filmId + '\t' + rs.getString("title") + '\t' +
+                            rs.getInt("release_year") + '\t' + rs.getInt("length") + '\n');
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads "FIRST,LAST" or "FIRST LAST" lines, upper-cased and de-duplicated in file order
+     */
+    static List<List<String>> readNames(Path input) throws IOException {
+        Set<List<String>> names = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.contains(",") ? line.split(",", 2) : line.split("\\s+", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                System.err.println("Skipping malformed line: " + line);
+                continue;
+            }
+            names.add(List.of(parts[0].trim().toUpperCase(Locale.ROOT), parts[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        return new ArrayList<>(names);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pluralsight.diagnostics;
+
+import com.pluralsight.Main;
+import com.pluralsight.diagnostics.QueryPlanAdvisor.Issue;
+import com.pluralsight.diagnostics.QueryPlanAdvisor.PlannedQuery;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the plans of every query the Sakila explorer menu uses with {@link QueryPlanAdvisor}.
+ * <p>
+ * Exits with status 2 when an unexpected plan problem is found, so it can run after schema or
+ * server upgrades to catch plan regressions before users notice them.
+ */
+public class SakilaQueryPlans {
+
+    /**
+     * Every query from the explorer menu, with sample parameters and the plan problems that are expected
+     * (e.g. a filmography's DISTINCT and ORDER BY title always sort in a temporary table, so that is not a
+     * regression)
+     */
+    private static final List<PlannedQuery> QUERIES = List.of(
+            new PlannedQuery("Actors by last name", Main.ACTORS_BY_LAST_NAME_SQL, List.of("TEMPLE"),
+                    Set.of(),
+                    "CREATE INDEX idx_actor_last_first ON actor (last_name, first_name, actor_id);"),
+            // DISTINCT + ORDER BY title over a join always needs a temporary table and a sort
+            new PlannedQuery("Movies by actor", Main.MOVIES_BY_ACTOR_SQL, List.of("PENELOPE", "GUINESS"),
+                    Set.of(Issue.FILESORT, Issue.TEMPORARY_TABLE),
+                    "CREATE INDEX idx_actor_last_first ON actor (last_name, first_name, actor_id);"),
+            new PlannedQuery("Movies by actor (with descriptions)", Main.MOVIES_BY_ACTOR_WITH_DESCRIPTION_SQL,
+                    List.of("PENELOPE", "GUINESS"),
+                    Set.of(Issue.FILESORT, Issue.TEMPORARY_TABLE),
+                    "CREATE INDEX idx_actor_last_first ON actor (last_name, first_name, actor_id);")
+    );
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java com.pluralsight.diagnostics.SakilaQueryPlans <username> <password> <database_url>");
+            System.exit(1);
+        }
+
+        int problems = 0;
+        try (BasicDataSource dataSource = new BasicDataSource()) {
+            dataSource.setUsername(args[0]);
+            dataSource.setPassword(args[1]);
+            dataSource.setUrl(args[2]);
+            try (Connection connection = dataSource.getConnection()) {
+                problems = new QueryPlanAdvisor(QUERIES).check(connection);
+            }
+        } catch (SQLException e) {
+            System.out.println("Plan check failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(problems == 0 ? 0 : 2);
+    }
+}
@@ -0,0 +1,29 @@
+package com.pluralsight.graph;
+
+/**
+ * An actor who appeared in at least one film with another actor, and in how many
+ */
+public class CoStar {
+
+    private final int actorId;
+    private final String name;
+    private final int sharedFilms;
+
+    public CoStar(int actorId, String name, int sharedFilms) {
+        this.actorId = actorId;
+        this.name = name;
+        this.sharedFilms = sharedFilms;
+    }
+
+    public int getActorId() {
+        return actorId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSharedFilms() {
+        return sharedFilms;
+    }
+}
@@ -0,0 +1,320 @@
+package com.pluralsight.graph;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The actor/film bipartite graph from film_actor, held in compressed sparse row form so co-star lists, shared film
+ * counts and degrees of separation are answered from memory instead of with self-joins on film_actor.
+ * <pre>
+ * actorFilmStart  (maxActorId + 2) ints   films of actor a are actorFilms[actorFilmStart[a] .. actorFilmStart[a + 1])
+ * actorFilms      one film id per credit, sorted within each actor
+ * filmActorStart  (maxFilmId + 2) ints    actors of film f are filmActors[filmActorStart[f] .. filmActorStart[f + 1])
+ * filmActors      one actor id per credit, sorted within each film
+ * </pre>
+ * Arrays are addressed directly by id, like the off-heap description store. The graph is immutable once loaded and
+ * safe to use from many threads; reload it to pick up new credits.
+ */
+public class CoStarGraph {
+
+    private static final String SIZE_SQL = """
+            SELECT (SELECT COALESCE(MAX(actor_id), 0) FROM actor),
+                   (SELECT COALESCE(MAX(film_id), 0) FROM film),
+                   (SELECT COUNT(*) FROM film_actor)
+            """;
+    private static final String ACTORS_SQL = "SELECT actor_id, first_name, last_name FROM actor";
+    private static final String FILMS_SQL = "SELECT film_id, title FROM film";
+    private static final String CREDITS_SQL = "SELECT actor_id, film_id FROM film_actor ORDER BY actor_id, film_id";
+
+    private final int[] actorFilmStart;
+    private final int[] actorFilms;
+    private final int[] filmActorStart;
+    private final int[] filmActors;
+    private final String[] actorNames;
+    private final String[] filmTitles;
+
+    private CoStarGraph(int[] actorFilmStart, int[] actorFilms, int[] filmActorStart, int[] filmActors,
+                        String[] actorNames, String[] filmTitles) {
+        this.actorFilmStart = actorFilmStart;
+        this.actorFilms = actorFilms;
+        this.filmActorStart = filmActorStart;
+        this.filmActors = filmActors;
+        this.actorNames = actorNames;
+        this.filmTitles = filmTitles;
+    }
+
+    /**
+     * Sizes the arrays with one aggregate query, then reads actor names, film titles and every credit once
+     */
+    public static CoStarGraph load(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            int maxActorId;
+            int maxFilmId;
+            int creditCount;
+            try (ResultSet rs = statement.executeQuery(SIZE_SQL)) {
+                rs.next();
+                maxActorId = rs.getInt(1);
+                maxFilmId = rs.getInt(2);
+                creditCount = rs.getInt(3);
+            }
+
+            String[] actorNames = new String[maxActorId + 1];
+            try (ResultSet rs = statement.executeQuery(ACTORS_SQL)) {
+                while (rs.next()) {
+                    int actorId = rs.getInt("actor_id");
+                    if (actorId <= maxActorId) {
+                        actorNames[actorId] = rs.getString("first_name") + " " + rs.getString("last_name");
+                    }
+                }
+            }
+
+            String[] filmTitles = new String[maxFilmId + 1];
+            try (ResultSet rs = statement.executeQuery(FILMS_SQL)) {
+                while (rs.next()) {
+                    int filmId = rs.getInt("film_id");
+                    if (filmId <= maxFilmId) {
+                        filmTitles[filmId] = rs.getString("title");
+                    }
+                }
+            }
+
+            // Credits arrive sorted by actor, so the actor side is filled in order and only needs start offsets
+            int[] creditActors = new int[creditCount];
+            int[] creditFilms = new int[creditCount];
+            int credits = 0;
+            try (ResultSet rs = statement.executeQuery(CREDITS_SQL)) {
+                while (rs.next() && credits < creditCount) {
+                    int actorId = rs.getInt(1);
+                    int filmId = rs.getInt(2);
+                    if (actorId <= maxActorId && filmId <= maxFilmId) {
+                        // Rows added since the sizing query are left out until the next load
+                        creditActors[credits] = actorId;
+                        creditFilms[credits] = filmId;
+                        credits++;
+                    }
+                }
+            }
+
+            return build(creditActors, creditFilms, credits, actorNames, filmTitles);
+        }
+    }
+
+    /**
+     * Builds both directions of the graph from credits sorted by actor, then film
+     */
+    private static CoStarGraph build(int[] creditActors, int[] creditFilms, int credits,
+                                     String[] actorNames, String[] filmTitles) {
+        int[] actorFilmStart = new int[actorNames.length + 1];
+        int[] filmActorStart = new int[filmTitles.length + 1];
+        for (int i = 0; i < credits; i++) {
+            actorFilmStart[creditActors[i] + 1]++;
+            filmActorStart[creditFilms[i] + 1]++;
+        }
+        for (int id = 1; id < actorFilmStart.length; id++) {
+            actorFilmStart[id] += actorFilmStart[id - 1];
+        }
+        for (int id = 1; id < filmActorStart.length; id++) {
+            filmActorStart[id] += filmActorStart[id - 1];
+        }
+
+        int[] actorFilms = Arrays.copyOf(creditFilms, credits);
+
+        // Scattering in actor order keeps each film's actor list sorted
+        int[] filmActors = new int[credits];
+        int[] next = Arrays.copyOf(filmActorStart, filmActorStart.length - 1);
+        for (int i = 0; i < credits; i++) {
+            filmActors[next[creditFilms[i]]++] = creditActors[i];
+        }
+
+        return new CoStarGraph(actorFilmStart, actorFilms, filmActorStart, filmActors, actorNames, filmTitles);
+    }
+
+    public int getActorCount() {
+        return (int) Arrays.stream(actorNames).filter(name -> name != null).count();
+    }
+
+    public int getFilmCount() {
+        return (int) Arrays.stream(filmTitles).filter(title -> title != null).count();
+    }
+
+    public int getCreditCount() {
+        return actorFilms.length;
+    }
+
+    /**
+     * @return "FIRST LAST", or null for an unknown id
+     */
+    public String actorName(int actorId) {
+        return actorId >= 0 && actorId < actorNames.length ? actorNames[actorId] : null;
+    }
+
+    /**
+     * @return the title, or null for an unknown id
+     */
+    public String filmTitle(int filmId) {
+        return filmId >= 0 && filmId < filmTitles.length ? filmTitles[filmId] : null;
+    }
+
+    /**
+     * Ids of the actors with this name, ignoring case (Sakila has a few actors who share a name)
+     */
+    public int[] actorIdsByName(String firstName, String lastName) {
+        String name = firstName.trim() + " " + lastName.trim();
+        int[] ids = new int[4];
+        int count = 0;
+        for (int actorId = 0; actorId < actorNames.length; actorId++) {
+            if (name.equalsIgnoreCase(actorNames[actorId])) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = actorId;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Number of films the actor appeared in
+     */
+    public int filmCount(int actorId) {
+        return isActor(actorId) ? actorFilmStart[actorId + 1] - actorFilmStart[actorId] : 0;
+    }
+
+    /**
+     * Everyone who appeared in a film with the actor, most shared films first, then by id
+     */
+    public List<CoStar> coStars(int actorId) {
+        if (!isActor(actorId)) {
+            return List.of();
+        }
+
+        int[] shared = new int[actorNames.length];
+        int[] found = new int[actorNames.length];
+        int foundCount = 0;
+        for (int f = actorFilmStart[actorId]; f < actorFilmStart[actorId + 1]; f++) {
+            int filmId = actorFilms[f];
+            for (int a = filmActorStart[filmId]; a < filmActorStart[filmId + 1]; a++) {
+                int coStarId = filmActors[a];
+                if (coStarId != actorId && shared[coStarId]++ == 0) {
+                    found[foundCount++] = coStarId;
+                }
+            }
+        }
+
+        List<CoStar> coStars = new ArrayList<>(foundCount);
+        for (int i = 0; i < foundCount; i++) {
+            coStars.add(new CoStar(found[i], actorNames[found[i]], shared[found[i]]));
+        }
+        coStars.sort((x, y) -> x.getSharedFilms() != y.getSharedFilms()
+                ? Integer.compare(y.getSharedFilms(), x.getSharedFilms())
+                : Integer.compare(x.getActorId(), y.getActorId()));
+        return coStars;
+    }
+
+    /**
+     * Ids of the films both actors appeared in, by merging their sorted film lists
+     */
+    public int[] sharedFilms(int actorId, int otherActorId) {
+        if (!isActor(actorId) || !isActor(otherActorId)) {
+            return new int[0];
+        }
+
+        int i = actorFilmStart[actorId];
+        int iEnd = actorFilmStart[actorId + 1];
+        int j = actorFilmStart[otherActorId];
+        int jEnd = actorFilmStart[otherActorId + 1];
+        int[] shared = new int[Math.min(iEnd - i, jEnd - j)];
+        int count = 0;
+        while (i < iEnd && j < jEnd) {
+            if (actorFilms[i] < actorFilms[j]) {
+                i++;
+            } else if (actorFilms[i] > actorFilms[j]) {
+                j++;
+            } else {
+                shared[count++] = actorFilms[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(shared, count);
+    }
+
+    /**
+     * Shortest chain of shared films from one actor to another, found breadth first.
+     *
+     * @return actor and film ids alternating, starting and ending with an actor (so the degrees of separation are
+     *         length / 2), just the actor when both are the same, or an empty array when they aren't connected
+     */
+    public int[] path(int fromActorId, int toActorId) {
+        if (!isActor(fromActorId) || !isActor(toActorId)) {
+            return new int[0];
+        }
+        if (fromActorId == toActorId) {
+            return new int[]{fromActorId};
+        }
+
+        // previousActor[a] / viaFilm[a] say how actor a was reached; -1 means not reached yet
+        int[] previousActor = new int[actorNames.length];
+        int[] viaFilm = new int[actorNames.length];
+        Arrays.fill(previousActor, -1);
+        boolean[] filmSeen = new boolean[filmTitles.length];
+        int[] queue = new int[actorNames.length];
+        int head = 0;
+        int tail = 0;
+
+        previousActor[fromActorId] = fromActorId;
+        queue[tail++] = fromActorId;
+        while (head < tail) {
+            int actorId = queue[head++];
+            for (int f = actorFilmStart[actorId]; f < actorFilmStart[actorId + 1]; f++) {
+                int filmId = actorFilms[f];
+                if (filmSeen[filmId]) {
+                    continue;
+                }
+                // Every actor of a film is reached the first time the film is, so no film is scanned twice
+                filmSeen[filmId] = true;
+                for (int a = filmActorStart[filmId]; a < filmActorStart[filmId + 1]; a++) {
+                    int next = filmActors[a];
+                    if (previousActor[next] != -1) {
+                        continue;
+                    }
+                    previousActor[next] = actorId;
+                    viaFilm[next] = filmId;
+                    if (next == toActorId) {
+                        return tracePath(previousActor, viaFilm, fromActorId, toActorId);
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    private static int[] tracePath(int[] previousActor, int[] viaFilm, int fromActorId, int toActorId) {
+        int hops = 0;
+        for (int actorId = toActorId; actorId != fromActorId; actorId = previousActor[actorId]) {
+            hops++;
+        }
+
+        int[] path = new int[hops * 2 + 1];
+        int i = path.length - 1;
+        for (int actorId = toActorId; actorId != fromActorId; actorId = previousActor[actorId]) {
+            path[i--] = actorId;
+            path[i--] = viaFilm[actorId];
+        }
+        path[0] = fromActorId;
+        return path;
+    }
+
+    private boolean isActor(int actorId) {
+        return actorId >= 0 && actorId < actorNames.length && actorNames[actorId] != null;
+    }
+}
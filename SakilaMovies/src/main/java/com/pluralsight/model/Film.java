@@ -0,0 +1,41 @@
+package com.pluralsight.model;
+
+/**
+ * One row of the film table, limited to the columns the explorer displays
+ */
+public class Film {
+
+    private final int filmId;
+    private final String title;
+    private final String description;
+    private final int releaseYear;
+    private final int length;
+
+    public Film(int filmId, String title, String description, int releaseYear, int length) {
+        this.filmId = filmId;
+        this.title = title;
+        this.description = description;
+        this.releaseYear = releaseYear;
+        this.length = length;
+    }
+
+    public int getFilmId() {
+        return filmId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
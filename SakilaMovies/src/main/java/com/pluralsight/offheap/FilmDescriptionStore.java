@@ -0,0 +1,232 @@
+package com.pluralsight.offheap;
+
+import javax.sql.DataSource;
+import java.io.PrintStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Off-heap dictionary of film id to UTF-8 description, allocated with the Foreign Memory API.
+ * <p>
+ * film.description is the largest column the explorer shows. Loading it once into native memory keeps
+ * the filmography query down to ids and small columns, and rendering copies the bytes through a small
+ * reusable buffer instead of creating a String per film, so long sessions create far less garbage.
+ * <pre>
+ * index  (maxFilmId + 1) x [int offset, int length]   addressed directly by film id, length -1 = no row
+ * text   UTF-8 descriptions back to back
+ * </pre>
+ * A film without a description has length 0. The store is a copy as of its load; {@link #close()} can be called
+ * while other threads are still writing descriptions, the memory is freed once the last of them is done.
+ */
+public class FilmDescriptionStore implements FilmDescriptions, AutoCloseable {
+
+    private static final String SIZE_SQL =
+            "SELECT COALESCE(MAX(film_id), 0), COALESCE(SUM(LENGTH(description)), 0) FROM film";
+    private static final String DESCRIPTIONS_SQL = "SELECT film_id, description FROM film";
+
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    // Reused per rendering thread so writeDescription does not allocate once it has warmed up
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final NativeBuffer index;
+    private final NativeBuffer text;
+    private final int maxFilmId;
+    private final int droppedRows;
+
+    // Threads inside writeDescription plus one for the owner; the memory is freed when it drops to 0
+    private final AtomicInteger users = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private FilmDescriptionStore(NativeBuffer index, NativeBuffer text, int droppedRows) {
+        this.index = index;
+        this.text = text;
+        this.maxFilmId = (int) (index.segment.byteSize() / INDEX_ENTRY_SIZE) - 1;
+        this.droppedRows = droppedRows;
+    }
+
+    /**
+     * Sizes the store with one aggregate query, then copies every description into native memory. The sizes are
+     * only a first guess: the server counts bytes in the column's character set and films can be added meanwhile,
+     * so both parts grow when the rows fetched need more room
+     */
+    public static FilmDescriptionStore load(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            int maxFilmId;
+            long textSize;
+            try (ResultSet rs = statement.executeQuery(SIZE_SQL)) {
+                rs.next();
+                maxFilmId = rs.getInt(1);
+                textSize = rs.getLong(2);
+            }
+
+            // Shared so the store can be read from any thread; freed when the store is closed
+            NativeBuffer index = new NativeBuffer((maxFilmId + 1L) * INDEX_ENTRY_SIZE);
+            NativeBuffer text;
+            try {
+                text = new NativeBuffer(textSize);
+            } catch (RuntimeException e) {
+                index.close();
+                throw e;
+            }
+
+            try {
+                long offset = 0;
+                int droppedRows = 0;
+                try (ResultSet rs = statement.executeQuery(DESCRIPTIONS_SQL)) {
+                    while (rs.next()) {
+                        int filmId = rs.getInt("film_id");
+                        byte[] bytes = rs.getBytes("description");
+                        int length = bytes != null ? bytes.length : 0;
+                        // Offsets are stored as int, so the text section can't grow past 2 GB
+                        if (filmId < 0 || offset + length > Integer.MAX_VALUE) {
+                            droppedRows++;
+                            continue;
+                        }
+
+                        if (length > 0) {
+                            MemorySegment.copy(bytes, 0, text.ensure(offset + length), ValueLayout.JAVA_BYTE,
+                                    offset, length);
+                        }
+                        MemorySegment entries = index.ensure((filmId + 1L) * INDEX_ENTRY_SIZE);
+                        entries.setAtIndex(ValueLayout.JAVA_INT, filmId * 2L, (int) offset);
+                        entries.setAtIndex(ValueLayout.JAVA_INT, filmId * 2L + 1, length);
+                        offset += length;
+                    }
+                }
+
+                return new FilmDescriptionStore(index, text, droppedRows);
+            } catch (SQLException | RuntimeException e) {
+                index.close();
+                text.close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean writeDescription(int filmId, PrintStream out) {
+        if (filmId < 0 || filmId > maxFilmId || !acquire()) {
+            return false;
+        }
+
+        try {
+            int length = index.segment.getAtIndex(ValueLayout.JAVA_INT, filmId * 2L + 1);
+            if (length < 0) {
+                return false;
+            }
+            int offset = index.segment.getAtIndex(ValueLayout.JAVA_INT, filmId * 2L);
+
+            byte[] scratch = SCRATCH.get();
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+                SCRATCH.set(scratch);
+            }
+
+            MemorySegment.copy(text.segment, ValueLayout.JAVA_BYTE, offset, scratch, 0, length);
+            out.write(scratch, 0, length);
+            return true;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Rows that could not be stored (a negative id, or past the 2 GB the int offsets can address)
+     */
+    public int getDroppedRows() {
+        return droppedRows;
+    }
+
+    /**
+     * Native memory held by the store, in bytes
+     */
+    public long footprintBytes() {
+        return index.segment.byteSize() + text.segment.byteSize();
+    }
+
+    private boolean acquire() {
+        if (closed.get()) {
+            return false;
+        }
+        for (int count = users.get(); count > 0; count = users.get()) {
+            if (users.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release() {
+        if (users.decrementAndGet() == 0) {
+            index.close();
+            text.close();
+        }
+    }
+
+    /**
+     * Frees the native memory as soon as no thread is writing a description. Later calls to
+     * {@link #writeDescription} return false
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * Native memory that grows while the store is loaded. Each size has its own arena, so the smaller segment is
+     * freed as soon as its bytes have been moved
+     */
+    private static final class NativeBuffer {
+        private Arena arena;
+        private MemorySegment segment;
+
+        NativeBuffer(long size) {
+            this.arena = Arena.ofShared();
+            this.segment = allocate(arena, size);
+        }
+
+        /**
+         * The segment, at least size bytes long; grows it to at least twice its size when it is too small
+         */
+        MemorySegment ensure(long size) {
+            if (size > segment.byteSize()) {
+                Arena grownArena = Arena.ofShared();
+                MemorySegment grown;
+                try {
+                    grown = allocate(grownArena, Math.max(size, segment.byteSize() * 2));
+                } catch (RuntimeException e) {
+                    grownArena.close();
+                    throw e;
+                }
+                MemorySegment.copy(segment, 0, grown, 0, segment.byteSize());
+                arena.close();
+                arena = grownArena;
+                segment = grown;
+            }
+            return segment;
+        }
+
+        /**
+         * Every byte 0xFF, so every int in a new index is -1 (no row)
+         */
+        private static MemorySegment allocate(Arena arena, long size) {
+            return arena.allocate(Math.max(size, 1), Integer.BYTES).fill((byte) -1);
+        }
+
+        void close() {
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pluralsight.offheap;
+
+import java.io.PrintStream;
+
+/**
+ * Source of film descriptions that can write the UTF-8 text straight to an output stream,
+ * without building a String for every film that is rendered
+ */
+public interface FilmDescriptions {
+
+    /**
+     * Writes the description of a film to out
+     *
+     * @return false when this source has no description for the film
+     */
+    boolean writeDescription(int filmId, PrintStream out);
+}
@@ -0,0 +1,211 @@
+package com.pluralsight.reactive;
+
+import com.pluralsight.Main;
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import org.apache.commons.dbcp2.BasicDataSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput comparison of the two data paths with the same query mix, connection count and concurrency:
+ * blocking JDBC on a virtual thread per request (a plain prepared statement on a DBCP pool), and R2DBC
+ * ({@link ReactiveMovieQueries} over a reactive pool) with requests merged by flatMap. Both sides run the same
+ * SQL with the same statement timeout and build the same Actor or Film per row; neither has the explorer's
+ * snapshot, description store or request coalescing, so only the driver and execution model differ.
+ * <p>
+ * Each request looks up the actors with one last name, cycling through a few, and every tenth reads one actor's
+ * filmography with descriptions. Prints requests per second, latency percentiles, failures and the peak number of
+ * platform threads for each path. Point it at a local MySQL or MariaDB with the sakila schema, not at a shared
+ * server.
+ * <p>
+ * Usage: java com.pluralsight.reactive.ReactiveBenchmark &lt;username&gt; &lt;password&gt; &lt;database_url&gt;
+ * [requests=20000] [concurrency=200] [poolSize=16]
+ */
+public class ReactiveBenchmark {
+
+    private static final String[] LAST_NAMES = {"GUINESS", "WAHLBERG", "CHASE", "DAVIS", "BERRY", "KILMER"};
+    private static final String FILM_FIRST_NAME = "PENELOPE";
+    private static final String FILM_LAST_NAME = "GUINESS";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: java com.pluralsight.reactive.ReactiveBenchmark <username> <password> " +
+                    "<database_url> [requests] [concurrency] [poolSize]");
+            System.exit(2);
+        }
+
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        int poolSize = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        BasicDataSource jdbc = new BasicDataSource();
+        jdbc.setUrl(args[2]);
+        jdbc.setUsername(args[0]);
+        jdbc.setPassword(args[1]);
+        jdbc.setMaxTotal(poolSize);
+        jdbc.setMaxIdle(poolSize);
+
+        try (ReactiveMovieQueries r2dbc = new ReactiveMovieQueries(args[2], args[0], args[1], poolSize)) {
+            // Warm-up of both paths so pools are filled and the JIT has compiled them
+            runJdbc(jdbc, requests / 5, concurrency);
+            runR2dbc(r2dbc, requests / 5, concurrency);
+
+            System.out.printf("%-22s %10s %10s %10s %10s %8s %10s%n",
+                    "path", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "threads");
+            print("JDBC + virtual threads", runJdbc(jdbc, requests, concurrency));
+            print("R2DBC + Reactor", runR2dbc(r2dbc, requests, concurrency));
+        } finally {
+            jdbc.close();
+        }
+    }
+
+    /**
+     * One virtual thread per request, at most concurrency of them running a query at once
+     */
+    private static Run runJdbc(BasicDataSource jdbc, int requests, int concurrency) throws InterruptedException {
+        Run run = new Run(requests);
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int request = i;
+                executor.submit(() -> {
+                    long started = System.nanoTime();
+                    try {
+                        if (request % 10 == 9) {
+                            films(jdbc);
+                        } else {
+                            actors(jdbc, LAST_NAMES[request % LAST_NAMES.length]);
+                        }
+                    } catch (SQLException e) {
+                        run.errors.incrementAndGet();
+                    } finally {
+                        run.latencies[request] = System.nanoTime() - started;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * The JDBC side of an actor lookup, mapped the way {@link ReactiveMovieQueries} maps it
+     */
+    private static List<Actor> actors(BasicDataSource jdbc, String lastName) throws SQLException {
+        try (Connection connection = jdbc.getConnection();
+             PreparedStatement ps = connection.prepareStatement(Main.ACTORS_BY_LAST_NAME_SQL)) {
+            ps.setString(1, lastName);
+            ps.setQueryTimeout(ReactiveMovieQueries.QUERY_TIMEOUT_SECONDS);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Actor> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(new Actor(rs.getInt("actor_id"), rs.getString("first_name"), rs.getString("last_name")));
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * The JDBC side of a filmography lookup, descriptions included like {@link ReactiveMovieQueries#moviesByActor}
+     */
+    private static List<Film> films(BasicDataSource jdbc) throws SQLException {
+        try (Connection connection = jdbc.getConnection();
+             PreparedStatement ps = connection.prepareStatement(Main.MOVIES_BY_ACTOR_WITH_DESCRIPTION_SQL)) {
+            ps.setString(1, FILM_FIRST_NAME);
+            ps.setString(2, FILM_LAST_NAME);
+            ps.setQueryTimeout(ReactiveMovieQueries.QUERY_TIMEOUT_SECONDS);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Film> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(new Film(rs.getInt("film_id"), rs.getString("title"), rs.getString("description"),
+                            rs.getInt("release_year"), rs.getInt("length")));
+                }
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * One stream of requests, at most concurrency of them subscribed at once; each request collects its rows
+     */
+    private static Run runR2dbc(ReactiveMovieQueries queries, int requests, int concurrency) {
+        Run run = new Run(requests);
+
+        Flux.range(0, requests)
+                .flatMap(request -> Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    Flux<?> rows = request % 10 == 9
+                            ? queries.moviesByActor(FILM_FIRST_NAME, FILM_LAST_NAME)
+                            : queries.actorsByLastName(LAST_NAMES[request % LAST_NAMES.length]);
+                    return rows.collectList()
+                            .doOnError(e -> run.errors.incrementAndGet())
+                            .onErrorResume(e -> Mono.empty())
+                            .doFinally(signal -> run.latencies[request] = System.nanoTime() - started);
+                }), concurrency)
+                .blockLast();
+        return run.finish();
+    }
+
+    private static void print(String path, Run run) {
+        long[] sorted = run.latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s %10.0f %10.2f %10.2f %10.2f %8d %10d%n", path,
+                sorted.length / (run.elapsedNanos / 1e9), millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)), millis(sorted[sorted.length - 1]), run.errors.get(),
+                run.peakThreads);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Latencies and counters of one run
+     */
+    private static final class Run {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private final long[] latencies;
+        private final AtomicLong errors = new AtomicLong();
+        private final long started;
+        private long elapsedNanos;
+        private int peakThreads;
+
+        private Run(int requests) {
+            this.latencies = new long[requests];
+            THREADS.resetPeakThreadCount();
+            this.started = System.nanoTime();
+        }
+
+        private Run finish() {
+            elapsedNanos = System.nanoTime() - started;
+            // Platform threads only: virtual threads are not counted by the thread MXBean
+            peakThreads = THREADS.getPeakThreadCount();
+            return this;
+        }
+    }
+}
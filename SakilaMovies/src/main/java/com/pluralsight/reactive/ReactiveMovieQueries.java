@@ -0,0 +1,117 @@
+package com.pluralsight.reactive;
+
+import com.pluralsight.Main;
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.function.BiFunction;
+
+/**
+ * The explorer's actor and filmography lookups over R2DBC instead of JDBC, for callers that want a non-blocking
+ * data path.
+ * <p>
+ * Every lookup returns a cold {@link Flux}: nothing runs until it is subscribed to, each subscription borrows a
+ * connection from a reactive pool and gives it back when the rows are done, cancelled or failed. Rows are decoded
+ * as the subscriber asks for them, so a slow consumer slows the driver's reads instead of having the whole result
+ * buffered. Always reads from the database (no snapshot), and films come with their description.
+ * <p>
+ * Uses the same SQL and row types as {@link com.pluralsight.MovieQueries}, without its snapshot, description store
+ * or coalescing; {@link ReactiveBenchmark} compares the two paths. Safe to use from many threads; close it to shut
+ * the pool down.
+ */
+public class ReactiveMovieQueries implements AutoCloseable {
+
+    // Per-statement limit, the same setting as the NorthwindTraders explorer: -Ddb.queryTimeoutSeconds
+    static final int QUERY_TIMEOUT_SECONDS = Integer.getInteger("db.queryTimeoutSeconds", 10);
+
+    private final ConnectionPool pool;
+
+    /**
+     * @param sqlUrl         a jdbc:mysql:// or r2dbc:mysql:// URL, e.g. jdbc:mysql://localhost:3306/sakila
+     * @param maxConnections the most connections open at once; more subscribers wait for one
+     */
+    public ReactiveMovieQueries(String sqlUrl, String username, String password, int maxConnections) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl(sqlUrl)).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(ConnectionFactoryOptions.CONNECT_TIMEOUT, Duration.ofSeconds(3))
+                .option(ConnectionFactoryOptions.STATEMENT_TIMEOUT, Duration.ofSeconds(QUERY_TIMEOUT_SECONDS))
+                .build();
+
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(4, maxConnections))
+                .maxSize(maxConnections)
+                .maxAcquireTime(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofMinutes(5))
+                .validationQuery("SELECT 1")
+                .build());
+    }
+
+    /**
+     * Actors with the given last name, ordered by first name
+     */
+    public Flux<Actor> actorsByLastName(String lastName) {
+        return query(Main.ACTORS_BY_LAST_NAME_SQL, (row, metadata) -> new Actor(intValue(row, "actor_id"),
+                row.get("first_name", String.class), row.get("last_name", String.class)), lastName);
+    }
+
+    /**
+     * Films featuring the actor, ordered by title
+     */
+    public Flux<Film> moviesByActor(String firstName, String lastName) {
+        return query(Main.MOVIES_BY_ACTOR_WITH_DESCRIPTION_SQL, (row, metadata) -> new Film(intValue(row, "film_id"),
+                row.get("title", String.class), row.get("description", String.class),
+                intValue(row, "release_year"), intValue(row, "length")), firstName, lastName);
+    }
+
+    /**
+     * Runs the statement on a pooled connection and maps rows on demand. The connection goes back to the pool when
+     * the stream completes, errors or is cancelled
+     */
+    private <T> Flux<T> query(String sql, BiFunction<Row, RowMetadata, T> mapper, Object... parameters) {
+        return Flux.usingWhen(pool.create(),
+                connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.bind(i, parameters[i]);
+                    }
+                    return Flux.from(statement.execute()).flatMap(result -> result.map(mapper));
+                },
+                Connection::close);
+    }
+
+    /**
+     * Sakila's ids, years and lengths are unsigned SMALLINT and YEAR columns, which the driver returns as different
+     * number types; null (no length) becomes 0 like JDBC's getInt
+     */
+    private static int intValue(Row row, String column) {
+        Object value = row.get(column);
+        if (value instanceof Year year) {
+            return year.getValue();
+        }
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    /**
+     * The explorers are started with JDBC URLs, so those are accepted too
+     */
+    static String r2dbcUrl(String sqlUrl) {
+        return sqlUrl.startsWith("jdbc:") ? "r2dbc:" + sqlUrl.substring("jdbc:".length()) : sqlUrl;
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,35 @@
+package com.pluralsight.search;
+
+/**
+ * A film found by a keyword search, with its relevance score (higher is better)
+ */
+public class FilmMatch {
+
+    private final int filmId;
+    private final String title;
+    private final int releaseYear;
+    private final double score;
+
+    public FilmMatch(int filmId, String title, int releaseYear, double score) {
+        this.filmId = filmId;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.score = score;
+    }
+
+    public int getFilmId() {
+        return filmId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,282 @@
+package com.pluralsight.search;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over film titles and descriptions, so keyword searches don't need a LIKE '%word%' scan of film.
+ * <p>
+ * Built from one streaming pass over film. Text is lower-cased and split on anything that isn't a letter or digit;
+ * one-letter words and a few very common words are skipped. Every term has a posting list of film positions and
+ * weights in two int arrays, sorted by position: the weight counts a title occurrence as {@value #TITLE_WEIGHT} and a
+ * description occurrence as 1. A film's score is the sum over the query terms it contains of weight times the term's
+ * inverse document frequency, so rare words count for more than words half the catalog uses.
+ * <p>
+ * Immutable once built and safe to search from many threads. Rebuild it to pick up film changes.
+ */
+public class FilmSearchIndex {
+
+    /**
+     * Whether a film must contain all query terms or at least one
+     */
+    public enum Mode { ALL, ANY }
+
+    private static final String FILMS_SQL = "SELECT film_id, title, description, release_year FROM film";
+
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "as", "at", "by", "for", "in", "is", "it", "of", "on", "or", "the", "to", "who", "with");
+
+    private final int[] filmIds;
+    private final String[] titles;
+    private final int[] releaseYears;
+    private final Map<String, Integer> termIndex;
+    private final int[][] postingFilms;
+    private final int[][] postingWeights;
+
+    private FilmSearchIndex(int[] filmIds, String[] titles, int[] releaseYears, Map<String, Integer> termIndex,
+                            int[][] postingFilms, int[][] postingWeights) {
+        this.filmIds = filmIds;
+        this.titles = titles;
+        this.releaseYears = releaseYears;
+        this.termIndex = termIndex;
+        this.postingFilms = postingFilms;
+        this.postingWeights = postingWeights;
+    }
+
+    /**
+     * Reads every film once, row by row, and indexes its title and description
+     */
+    public static FilmSearchIndex load(DataSource dataSource) throws SQLException {
+        Builder builder = new Builder();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(FILMS_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Connector/J streams row by row instead of buffering every description
+            ps.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(rs.getInt("film_id"), rs.getString("title"), rs.getString("description"),
+                            rs.getInt("release_year"));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int getFilmCount() {
+        return filmIds.length;
+    }
+
+    public int getTermCount() {
+        return termIndex.size();
+    }
+
+    /**
+     * Films matching the query, best first (ties by title)
+     *
+     * @param limit at most this many matches are returned
+     */
+    public List<FilmMatch> search(String query, Mode mode, int limit) {
+        List<String> terms = tokenize(query);
+        List<Integer> postings = new ArrayList<>();
+        for (String term : terms) {
+            Integer posting = termIndex.get(term);
+            if (posting != null) {
+                if (!postings.contains(posting)) {
+                    postings.add(posting);
+                }
+            } else if (mode == Mode.ALL) {
+                // A word no film contains can't be matched by all of them
+                return List.of();
+            }
+        }
+        if (postings.isEmpty()) {
+            return List.of();
+        }
+
+        double[] scores = new double[filmIds.length];
+        int[] matched = mode == Mode.ALL ? intersect(postings) : union(postings);
+        for (int posting : postings) {
+            double idf = Math.log(1 + (double) filmIds.length / postingFilms[posting].length);
+            int[] films = postingFilms[posting];
+            int[] weights = postingWeights[posting];
+            for (int i = 0; i < films.length; i++) {
+                scores[films[i]] += weights[i] * idf;
+            }
+        }
+
+        List<FilmMatch> matches = new ArrayList<>(matched.length);
+        for (int film : matched) {
+            matches.add(new FilmMatch(filmIds[film], titles[film], releaseYears[film], scores[film]));
+        }
+        matches.sort((a, b) -> a.getScore() != b.getScore()
+                ? Double.compare(b.getScore(), a.getScore())
+                : a.getTitle().compareTo(b.getTitle()));
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+
+    /**
+     * Films in every posting list: walks the shortest list and binary-searches forward through the others
+     */
+    private int[] intersect(List<Integer> postings) {
+        List<int[]> lists = new ArrayList<>();
+        for (int posting : postings) {
+            lists.add(postingFilms[posting]);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] shortest = lists.get(0);
+        int[] result = new int[shortest.length];
+        int[] cursors = new int[lists.size()];
+        int count = 0;
+        candidates:
+        for (int film : shortest) {
+            for (int l = 1; l < lists.size(); l++) {
+                int[] list = lists.get(l);
+                int found = Arrays.binarySearch(list, cursors[l], list.length, film);
+                if (found < 0) {
+                    cursors[l] = -found - 1;
+                    continue candidates;
+                }
+                cursors[l] = found + 1;
+            }
+            result[count++] = film;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Films in any posting list
+     */
+    private int[] union(List<Integer> postings) {
+        boolean[] seen = new boolean[filmIds.length];
+        int count = 0;
+        for (int posting : postings) {
+            for (int film : postingFilms[posting]) {
+                if (!seen[film]) {
+                    seen[film] = true;
+                    count++;
+                }
+            }
+        }
+
+        int[] result = new int[count];
+        int next = 0;
+        for (int film = 0; film < seen.length; film++) {
+            if (seen[film]) {
+                result[next++] = film;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lower-case words of two or more letters or digits, without stop words
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start > 1) {
+                    String term = lower.substring(start, i);
+                    if (!STOP_WORDS.contains(term)) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Collects films and growing posting lists during the load, then packs them into exact-size arrays
+     */
+    private static final class Builder {
+        private final List<Integer> filmIds = new ArrayList<>();
+        private final List<String> titles = new ArrayList<>();
+        private final List<Integer> releaseYears = new ArrayList<>();
+        private final Map<String, Integer> termIndex = new HashMap<>();
+        private final List<int[]> films = new ArrayList<>();
+        private final List<int[]> weights = new ArrayList<>();
+        private final List<Integer> sizes = new ArrayList<>();
+
+        void add(int filmId, String title, String description, int releaseYear) {
+            int film = filmIds.size();
+            filmIds.add(filmId);
+            titles.add(title);
+            releaseYears.add(releaseYear);
+
+            for (String term : tokenize(title)) {
+                addOccurrence(term, film, TITLE_WEIGHT);
+            }
+            for (String term : tokenize(description)) {
+                addOccurrence(term, film, 1);
+            }
+        }
+
+        /**
+         * Films are added in order, so a term's list only ever grows at the end or bumps its last weight
+         */
+        private void addOccurrence(String term, int film, int weight) {
+            int posting = termIndex.computeIfAbsent(term, t -> {
+                films.add(new int[4]);
+                weights.add(new int[4]);
+                sizes.add(0);
+                return films.size() - 1;
+            });
+
+            int size = sizes.get(posting);
+            if (size > 0 && films.get(posting)[size - 1] == film) {
+                weights.get(posting)[size - 1] += weight;
+                return;
+            }
+            if (size == films.get(posting).length) {
+                films.set(posting, Arrays.copyOf(films.get(posting), size * 2));
+                weights.set(posting, Arrays.copyOf(weights.get(posting), size * 2));
+            }
+            films.get(posting)[size] = film;
+            weights.get(posting)[size] = weight;
+            sizes.set(posting, size + 1);
+        }
+
+        FilmSearchIndex build() {
+            int[][] postingFilms = new int[films.size()][];
+            int[][] postingWeights = new int[films.size()][];
+            for (int posting = 0; posting < films.size(); posting++) {
+                postingFilms[posting] = Arrays.copyOf(films.get(posting), sizes.get(posting));
+                postingWeights[posting] = Arrays.copyOf(weights.get(posting), sizes.get(posting));
+            }
+
+            return new FilmSearchIndex(
+                    filmIds.stream().mapToInt(Integer::intValue).toArray(),
+                    titles.toArray(new String[0]),
+                    releaseYears.stream().mapToInt(Integer::intValue).toArray(),
+                    Map.copyOf(termIndex), postingFilms, postingWeights);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.pluralsight.server;
+
+import com.pluralsight.MovieQueries;
+import com.pluralsight.coalesce.QueryPermits;
+import com.pluralsight.coalesce.SingleFlight;
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import com.pluralsight.offheap.FilmDescriptions;
+import com.pluralsight.snapshot.SnapshotRefresher;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serves the actor and filmography lookups to many users from one JVM over a plain-text socket protocol.
+ * <p>
+ * Every session runs on its own virtual thread and all sessions share one connection pool, the mapped reference
+ * snapshot and the off-heap description store. At most maxSessions users are connected at once (more get BUSY),
+ * and at most maxConcurrentQueries database queries run at once; a query that can't start within the queue timeout
+ * gets BUSY. Lookups answered from the snapshot, or sharing an identical query already in flight, take no slot.
+ * <p>
+ * Protocol: one command per line. Each reply is a status line ("OK", "BUSY &lt;reason&gt;" or "ERR &lt;reason&gt;"),
+ * tab-separated data lines and a final line holding a single "."; data lines starting with "." get an extra "."
+ * in front. The NorthwindTraders ExplorerLoadTest can drive it, e.g. with "actors GUINESS;films PENELOPE GUINESS".
+ * <p>
+ * Settings: -Dserver.maxSessions (500), -Dserver.maxConcurrentQueries (16), -Dserver.queueTimeoutMs (2000),
+ * -Dserver.idleTimeoutSeconds (300), -Dsakila.snapshotRefreshSeconds (60), -Dsakila.descriptionRefreshSeconds (300).
+ * Only listens on the loopback interface.
+ */
+public class MovieServer {
+
+    private static final int DEFAULT_PORT = 5051;
+
+    private static final String HELP = """
+            actors <last name>                 actors with that last name: id, first name, last name
+            films <first name> <last name>     the actor's films: id, title, year, length, description
+            status                             server load
+            quit                               end the session""";
+
+    private final MovieQueries movieQueries;
+
+    private final int maxSessions = Integer.getInteger("server.maxSessions", 500);
+    private final Semaphore sessionPermits;
+    private final QueryPermits queryPermits;
+    private final int idleTimeoutMillis = Integer.getInteger("server.idleTimeoutSeconds", 300) * 1_000;
+
+    /**
+     * @param queryPermits the gate of movieQueries' {@link SingleFlight}, reported by the status command
+     */
+    public MovieServer(MovieQueries movieQueries, QueryPermits queryPermits) {
+        this.movieQueries = movieQueries;
+        this.sessionPermits = new Semaphore(maxSessions);
+        this.queryPermits = queryPermits;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java com.pluralsight.server.MovieServer <username> <password> <database_url> [port]");
+            System.exit(1);
+        }
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PORT;
+        int maxConcurrentQueries = Integer.getInteger("server.maxConcurrentQueries", 16);
+
+        // One pool for every session, sized to the query limit so a permit always finds a connection
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setUrl(args[2]);
+        dataSource.setUsername(args[0]);
+        dataSource.setPassword(args[1]);
+        dataSource.setMaxTotal(maxConcurrentQueries);
+        dataSource.setMaxIdle(maxConcurrentQueries);
+
+        // The permit is taken inside the coalescing, so lookups that join a query in flight don't hold one
+        QueryPermits queryPermits =
+                new QueryPermits(maxConcurrentQueries, Long.getLong("server.queueTimeoutMs", 2_000));
+        MovieQueries movieQueries = new MovieQueries(dataSource, System.out::println,
+                new SingleFlight(Boolean.parseBoolean(System.getProperty("db.coalesceReads", "true")), queryPermits));
+        Path snapshotPath = Path.of(System.getProperty("sakila.snapshotFile", "sakila-reference.snap"));
+        SnapshotRefresher snapshotRefresher = new SnapshotRefresher(dataSource, snapshotPath, movieQueries::setSnapshot);
+        int exitStatus = 0;
+        try {
+            // The snapshot answers lookups from memory, so make sure it is current before the first user arrives
+            try {
+                snapshotRefresher.openExisting();
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable snapshot file: " + e.getMessage());
+            }
+            snapshotRefresher.refreshIfStale();
+            snapshotRefresher.start(Duration.ofSeconds(Long.getLong("sakila.snapshotRefreshSeconds", 60)),
+                    System.out::println);
+
+            new MovieServer(movieQueries, queryPermits).serve(port);
+        } catch (IOException | SQLException e) {
+            System.out.println("Server failed: " + e.getMessage());
+            e.printStackTrace();
+            exitStatus = 1;
+        } finally {
+            // serve() has waited for every session, so nothing reads the off-heap store any more
+            snapshotRefresher.stop();
+            movieQueries.close();
+            try {
+                dataSource.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing data source: " + e.getMessage());
+            }
+        }
+        System.exit(exitStatus);
+    }
+
+    /**
+     * Accepts sessions until the process is stopped or accepting fails. Returns, or throws, only after every
+     * session has ended, so the shared stores can be closed afterwards
+     */
+    public void serve(int port) throws IOException {
+        ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+        try (sessions; ServerSocket serverSocket = new ServerSocket(port, 1_024, InetAddress.getLoopbackAddress())) {
+            System.out.println("Movie server listening on " + serverSocket.getLocalSocketAddress() +
+                    " (max " + maxSessions + " sessions, " + queryPermits.getMaxConcurrentQueries() +
+                    " concurrent queries)");
+
+            while (true) {
+                Socket socket = serverSocket.accept();
+                if (!sessionPermits.tryAcquire()) {
+                    try (socket) {
+                        PrintStream out = new PrintStream(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+                        reply(out, "BUSY too many sessions, try again later", List.of());
+                    } catch (IOException e) {
+                        // Rejected client already gone
+                    }
+                    continue;
+                }
+
+                sessions.submit(() -> {
+                    try (socket) {
+                        socket.setSoTimeout(idleTimeoutMillis);
+                        runSession(socket);
+                    } catch (IOException e) {
+                        // Client went away or sat idle too long, nothing left to answer
+                    } finally {
+                        sessionPermits.release();
+                    }
+                });
+            }
+        } finally {
+            // Interrupting a session's virtual thread closes its socket; closing the executor then waits for them
+            sessions.shutdownNow();
+        }
+    }
+
+    private void runSession(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, StandardCharsets.UTF_8);
+
+        reply(out, "OK Sakila movies, type help for commands", List.of());
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] words = line.trim().split("\\s+");
+            String command = words[0].toLowerCase(Locale.ROOT);
+
+            switch (command) {
+                case "quit" -> {
+                    reply(out, "OK bye", List.of());
+                    return;
+                }
+                case "help" -> reply(out, "OK", HELP.lines().toList());
+                case "actors", "films" -> lookup(command, words, out);
+                case "status" -> reply(out, "OK", List.of(
+                        "sessions\t" + (maxSessions - sessionPermits.availablePermits()),
+                        "queriesInFlight\t" + queryPermits.getInFlight(),
+                        "lookupsRun\t" + movieQueries.getSingleFlight().getExecutions(),
+                        "lookupsShared\t" + movieQueries.getSingleFlight().getJoined()));
+                default -> reply(out, "ERR unknown command " + command + ", type help for commands", List.of());
+            }
+            if (out.checkError()) {
+                throw new IOException("Client connection lost");
+            }
+        }
+    }
+
+    /**
+     * Runs an actor or filmography lookup; a database query waits for a free query slot
+     */
+    private void lookup(String command, String[] words, PrintStream out) throws IOException {
+        if (words.length != (command.equals("actors") ? 2 : 3)) {
+            reply(out, "ERR bad arguments for " + command + ", type help for usage", List.of());
+            return;
+        }
+
+        try {
+            if (command.equals("actors")) {
+                List<Actor> actors = movieQueries.actorsByLastName(words[1]);
+                reply(out, "OK", actors.stream()
+                        .map(a -> a.getActorId() + "\t" + a.getFirstName() + "\t" + a.getLastName())
+                        .toList());
+            } else {
+                List<Film> films = movieQueries.moviesByActor(words[1], words[2]);
+                replyFilms(out, films, movieQueries.filmDescriptions());
+            }
+        } catch (QueryPermits.BusyException e) {
+            reply(out, "BUSY " + e.getMessage(), List.of());
+        } catch (SQLException e) {
+            reply(out, "ERR " + e.getMessage(), List.of());
+        } catch (RuntimeException e) {
+            // A bug in one lookup must not end the session or leak past the protocol
+            reply(out, "ERR " + command + " failed: " + e, List.of());
+        }
+    }
+
+    /**
+     * Films are written one by one so descriptions can be copied straight from the snapshot or off-heap store
+     */
+    private void replyFilms(PrintStream out, List<Film> films, FilmDescriptions descriptions) {
+        out.print("OK\r\n");
+        for (Film film : films) {
+            // Lines start with the numeric film id, so they never need the "." escape
+            out.print(film.getFilmId() + "\t" + film.getTitle() + "\t" + film.getReleaseYear() + "\t" +
+                    film.getLength() + "\t");
+            if (film.getDescription() != null) {
+                out.print(film.getDescription());
+            } else if (descriptions == null || !descriptions.writeDescription(film.getFilmId(), out)) {
+                out.print(movieQueries.missingDescription(film.getFilmId()));
+            }
+            out.print("\r\n");
+        }
+        out.print(".\r\n");
+        out.flush();
+    }
+
+    /**
+     * Writes the status line, the data lines and the terminating "." in one flush
+     */
+    private static void reply(PrintStream out, String status, List<String> lines) {
+        out.print(status + "\r\n");
+        for (String line : lines) {
+            if (line.startsWith(".")) {
+                out.print('.');
+            }
+            out.print(line + "\r\n");
+        }
+        out.print(".\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,456 @@
+package com.pluralsight.snapshot;
+
+import com.pluralsight.model.Actor;
+import com.pluralsight.model.Film;
+import com.pluralsight.offheap.FilmDescriptions;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary copy of the actor, film and film_actor reference tables, opened with {@link FileChannel#map}.
+ * <p>
+ * Opening the file only reads the header; lookups binary-search and compare bytes directly in the mapped
+ * buffer and only decode the rows they return. The explorer can therefore answer its first queries in
+ * milliseconds, even while the database is slow or unreachable.
+ * <p>
+ * The header records the database's reference_version counter as of the write, which triggers bump on every change
+ * to the three tables (see sakila-change-tracking.sql), so {@link #isCurrent} can tell with one primary key read
+ * whether the database has moved on since; {@link SnapshotRefresher} then rewrites the file. Databases without the
+ * counter are compared by row counts and newest last_update instead, which scans the tables and misses a change
+ * made in the same second as the write, or an insert and a delete that leave the counts alone.
+ * <pre>
+ * header     int magic, int version, long createdAtMillis, long sourceUpdatedAtMillis, int actorCount,
+ *            int filmCount, int filmActorCount, int unused, long changeVersion (-1 without the counter)
+ * actors     actorCount     x [int actorId, int firstOffset, int firstLength, int lastOffset, int lastLength]
+ * films      filmCount      x [int filmId, int releaseYear, int length, int titleOffset, int titleLength,
+ *                              int descriptionOffset, int descriptionLength]
+ * film_actor filmActorCount x [int actorId, int filmId]            sorted by actor, then film
+ * strings    UTF-8 text, offsets are relative to the start of this section
+ * </pre>
+ * Actors and films are sorted by id. Descriptions are never decoded; {@link #writeDescription} copies
+ * their bytes straight from the mapped file to the output.
+ */
+public class SakilaSnapshotFile implements FilmDescriptions {
+
+    private static final int MAGIC = 0x534B4C53; // "SKLS"
+    private static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int ACTOR_SIZE = 20;
+    private static final int FILM_SIZE = 28;
+    private static final int FILM_ACTOR_SIZE = 8;
+
+    // Reused per rendering thread so writeDescription does not allocate once it has warmed up
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    // Bumped by triggers on every change to the three tables, when sakila-change-tracking.sql is installed
+    private static final String CHANGE_VERSION_SQL = "SELECT version FROM reference_version WHERE id = 1";
+
+    // Without the counter: row counts and the newest change of the tables; deletes only show in the counts
+    private static final String SOURCE_SQL = """
+            SELECT (SELECT COUNT(*) FROM actor),
+                   (SELECT COUNT(*) FROM film),
+                   (SELECT COUNT(*) FROM film_actor),
+                   GREATEST((SELECT COALESCE(MAX(last_update), '1970-01-01') FROM actor),
+                            (SELECT COALESCE(MAX(last_update), '1970-01-01') FROM film),
+                            (SELECT COALESCE(MAX(last_update), '1970-01-01') FROM film_actor))
+            """;
+
+    private final MappedByteBuffer buffer;
+    private final Instant createdAt;
+    private final long sourceUpdatedAtMillis;
+    private final long changeVersion;
+    private final int actorCount;
+    private final int filmCount;
+    private final int filmActorCount;
+    private final int actorsStart;
+    private final int filmsStart;
+    private final int filmActorsStart;
+    private final int stringsStart;
+
+    private SakilaSnapshotFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a Sakila snapshot file (or written by a different version)");
+        }
+
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(8));
+        this.sourceUpdatedAtMillis = buffer.getLong(16);
+        this.actorCount = buffer.getInt(24);
+        this.filmCount = buffer.getInt(28);
+        this.filmActorCount = buffer.getInt(32);
+        this.changeVersion = buffer.getLong(40);
+        this.actorsStart = HEADER_SIZE;
+
+        // Checked in long arithmetic, so huge counts in a corrupt header can't overflow into a plausible size
+        long stringsEnd = HEADER_SIZE + (long) actorCount * ACTOR_SIZE + (long) filmCount * FILM_SIZE +
+                (long) filmActorCount * FILM_ACTOR_SIZE;
+        if (actorCount < 0 || filmCount < 0 || filmActorCount < 0 || stringsEnd > buffer.capacity()) {
+            throw new IOException("Truncated or corrupt Sakila snapshot file");
+        }
+        this.filmsStart = actorsStart + actorCount * ACTOR_SIZE;
+        this.filmActorsStart = filmsStart + filmCount * FILM_SIZE;
+        this.stringsStart = filmActorsStart + filmActorCount * FILM_ACTOR_SIZE;
+
+        for (int i = 0; i < actorCount; i++) {
+            checkString(actorsStart + i * ACTOR_SIZE + 4);
+            checkString(actorsStart + i * ACTOR_SIZE + 12);
+        }
+        for (int i = 0; i < filmCount; i++) {
+            checkString(filmsStart + i * FILM_SIZE + 12);
+            checkString(filmsStart + i * FILM_SIZE + 20);
+        }
+    }
+
+    /**
+     * Fails unless the offset and length stored at field point inside the string section
+     */
+    private void checkString(int field) throws IOException {
+        int offset = buffer.getInt(field);
+        int length = buffer.getInt(field + 4);
+        if (offset < 0 || length < 0 || (long) stringsStart + offset + length > buffer.capacity()) {
+            throw new IOException("Truncated or corrupt Sakila snapshot file");
+        }
+    }
+
+    /**
+     * Maps an existing snapshot file read-only
+     */
+    public static SakilaSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new SakilaSnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the three reference tables and writes them to path. The file is written next to the target
+     * and moved into place, so a reader never maps a half-written snapshot
+     */
+    public static void writeFromDatabase(DataSource dataSource, Path path) throws SQLException, IOException {
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        int actorCount = 0;
+        int filmCount = 0;
+        int filmActorCount = 0;
+
+        long sourceUpdatedAtMillis = 0;
+        long changeVersion;
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            // Read before the tables, so a change made while they are read makes the next isCurrent false
+            changeVersion = changeVersion(statement);
+            if (changeVersion < 0) {
+                try (ResultSet rs = statement.executeQuery(SOURCE_SQL)) {
+                    rs.next();
+                    sourceUpdatedAtMillis = rs.getTimestamp(4).getTime();
+                }
+            }
+
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT actor_id, first_name, last_name FROM actor ORDER BY actor_id")) {
+                while (rs.next()) {
+                    ByteBuffer record = record(ACTOR_SIZE).putInt(rs.getInt("actor_id"));
+                    putString(record, strings, rs.getString("first_name"));
+                    putString(record, strings, rs.getString("last_name"));
+                    records.write(record.array());
+                    actorCount++;
+                }
+            }
+
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT film_id, title, description, release_year, length FROM film ORDER BY film_id")) {
+                while (rs.next()) {
+                    ByteBuffer record = record(FILM_SIZE).putInt(rs.getInt("film_id"))
+                            .putInt(rs.getInt("release_year")).putInt(rs.getInt("length"));
+                    putString(record, strings, rs.getString("title"));
+                    putString(record, strings, rs.getString("description"));
+                    records.write(record.array());
+                    filmCount++;
+                }
+            }
+
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT actor_id, film_id FROM film_actor ORDER BY actor_id, film_id")) {
+                while (rs.next()) {
+                    records.write(record(FILM_ACTOR_SIZE).putInt(rs.getInt("actor_id"))
+                            .putInt(rs.getInt("film_id")).array());
+                    filmActorCount++;
+                }
+            }
+        }
+
+        ByteBuffer header = record(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+                .putLong(sourceUpdatedAtMillis).putInt(actorCount).putInt(filmCount).putInt(filmActorCount)
+                .putInt(0).putLong(changeVersion);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ByteBuffer part : new ByteBuffer[]{header.flip(), ByteBuffer.wrap(records.toByteArray()),
+                    ByteBuffer.wrap(strings.toByteArray())}) {
+                while (part.hasRemaining()) {
+                    channel.write(part);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Whether the database still has the rows this snapshot was written from: the same reference_version, or
+     * without the counter the same row counts and no last_update newer than the one recorded at write time.
+     * A counter installed or removed since the write counts as a change
+     */
+    public boolean isCurrent(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            long version = changeVersion(statement);
+            if (version >= 0 || changeVersion >= 0) {
+                return version == changeVersion;
+            }
+            try (ResultSet rs = statement.executeQuery(SOURCE_SQL)) {
+                rs.next();
+                return rs.getInt(1) == actorCount && rs.getInt(2) == filmCount && rs.getInt(3) == filmActorCount &&
+                        rs.getTimestamp(4).getTime() == sourceUpdatedAtMillis;
+            }
+        }
+    }
+
+    /**
+     * The reference_version counter, or -1 when sakila-change-tracking.sql is not installed
+     */
+    private static long changeVersion(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(CHANGE_VERSION_SQL)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        } catch (SQLSyntaxErrorException e) {
+            // No such table
+            return -1;
+        }
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getActorCount() {
+        return actorCount;
+    }
+
+    public int getFilmCount() {
+        return filmCount;
+    }
+
+    /**
+     * Actors whose last name matches (ignoring ASCII case, like the default MySQL collation), by first name
+     */
+    public List<Actor> actorsByLastName(String lastName) {
+        byte[] wanted = lastName.getBytes(StandardCharsets.UTF_8);
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < actorCount; i++) {
+            int record = actorsStart + i * ACTOR_SIZE;
+            if (equalsIgnoreCase(buffer.getInt(record + 12), buffer.getInt(record + 16), wanted)) {
+                actors.add(actorAt(i));
+            }
+        }
+        actors.sort(Comparator.comparing(Actor::getFirstName));
+        return actors;
+    }
+
+    /**
+     * Actors with exactly this first and last name (ignoring ASCII case)
+     */
+    public List<Actor> actorsByName(String firstName, String lastName) {
+        byte[] wantedFirst = firstName.getBytes(StandardCharsets.UTF_8);
+        byte[] wantedLast = lastName.getBytes(StandardCharsets.UTF_8);
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < actorCount; i++) {
+            int record = actorsStart + i * ACTOR_SIZE;
+            if (equalsIgnoreCase(buffer.getInt(record + 12), buffer.getInt(record + 16), wantedLast)
+                    && equalsIgnoreCase(buffer.getInt(record + 4), buffer.getInt(record + 8), wantedFirst)) {
+                actors.add(actorAt(i));
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * Ids of the films an actor appears in, read from the actor-sorted film_actor section
+     */
+    public int[] filmIdsForActor(int actorId) {
+        int first = lowerBound(actorId);
+        int last = lowerBound(actorId + 1);
+        int[] filmIds = new int[last - first];
+        for (int i = first; i < last; i++) {
+            filmIds[i - first] = buffer.getInt(filmActorsStart + i * FILM_ACTOR_SIZE + 4);
+        }
+        return filmIds;
+    }
+
+    /**
+     * Films featuring any of the named actors, by title, without duplicates
+     */
+    public List<Film> filmsByActorName(String firstName, String lastName) {
+        List<Film> films = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Actor actor : actorsByName(firstName, lastName)) {
+            for (int filmId : filmIdsForActor(actor.getActorId())) {
+                if (seen.add(filmId)) {
+                    Film film = findFilm(filmId);
+                    if (film != null) {
+                        films.add(film);
+                    }
+                }
+            }
+        }
+        films.sort(Comparator.comparing(Film::getTitle));
+        return films;
+    }
+
+    /**
+     * Film by id, without its description (see {@link #writeDescription})
+     *
+     * @return the film, or null when no film has this id
+     */
+    public Film findFilm(int filmId) {
+        int record = filmRecord(filmId);
+        if (record < 0) {
+            return null;
+        }
+        return new Film(filmId,
+                readString(buffer.getInt(record + 12), buffer.getInt(record + 16)),
+                null,
+                buffer.getInt(record + 4),
+                buffer.getInt(record + 8));
+    }
+
+    @Override
+    public boolean writeDescription(int filmId, PrintStream out) {
+        int record = filmRecord(filmId);
+        if (record < 0) {
+            return false;
+        }
+
+        int length = buffer.getInt(record + 24);
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+            SCRATCH.set(scratch);
+        }
+
+        buffer.get(stringsStart + buffer.getInt(record + 20), scratch, 0, length);
+        out.write(scratch, 0, length);
+        return true;
+    }
+
+    /**
+     * Binary search on the id-sorted film records
+     *
+     * @return position of the film's record in the buffer, or -1 when no film has this id
+     */
+    private int filmRecord(int filmId) {
+        int low = 0;
+        int high = filmCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = filmsStart + mid * FILM_SIZE;
+            int id = buffer.getInt(record);
+            if (id < filmId) {
+                low = mid + 1;
+            } else if (id > filmId) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * First film_actor row whose actor id is at least actorId
+     */
+    private int lowerBound(int actorId) {
+        int low = 0;
+        int high = filmActorCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getInt(filmActorsStart + mid * FILM_ACTOR_SIZE) < actorId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Actor actorAt(int index) {
+        int record = actorsStart + index * ACTOR_SIZE;
+        return new Actor(buffer.getInt(record),
+                readString(buffer.getInt(record + 4), buffer.getInt(record + 8)),
+                readString(buffer.getInt(record + 12), buffer.getInt(record + 16)));
+    }
+
+    private boolean equalsIgnoreCase(int offset, int length, byte[] wanted) {
+        if (length != wanted.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte stored = buffer.get(stringsStart + offset + i);
+            if (stored != wanted[i] && toUpper(stored) != toUpper(wanted[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toUpper(byte b) {
+        return b >= 'a' && b <= 'z' ? b - 32 : b;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(stringsStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer record(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Appends value to the string section and stores its offset and length in the record
+     */
+    private static void putString(ByteBuffer record, ByteArrayOutputStream strings, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        record.putInt(strings.size()).putInt(bytes.length);
+        strings.writeBytes(bytes);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pluralsight.snapshot;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the reference snapshot in step with the database.
+ * <p>
+ * Each check asks {@link SakilaSnapshotFile#isCurrent}, a primary key read once sakila-change-tracking.sql is
+ * installed (table scans otherwise); when the tables changed, the file is rewritten next to the old one, moved into
+ * place and the new mapping handed to the listener. Lookups keep using the previous snapshot until then, and lookups
+ * already reading it finish on the old mapping.
+ */
+public class SnapshotRefresher {
+
+    private final DataSource dataSource;
+    private final Path path;
+    private final Consumer<SakilaSnapshotFile> listener;
+
+    private SakilaSnapshotFile current;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param listener receives every snapshot opened or written from now on
+     */
+    public SnapshotRefresher(DataSource dataSource, Path path, Consumer<SakilaSnapshotFile> listener) {
+        this.dataSource = dataSource;
+        this.path = path;
+        this.listener = listener;
+    }
+
+    /**
+     * Maps the file left by a previous run, without checking it against the database
+     *
+     * @return null when there is no file yet
+     * @throws IOException when the file exists but is not a readable snapshot
+     */
+    public synchronized SakilaSnapshotFile openExisting() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        current = SakilaSnapshotFile.open(path);
+        listener.accept(current);
+        return current;
+    }
+
+    /**
+     * Writes a new snapshot when there is none or the database changed since the current one was written
+     *
+     * @return true when a new snapshot was written
+     */
+    public synchronized boolean refreshIfStale() throws SQLException, IOException {
+        if (current != null && current.isCurrent(dataSource)) {
+            return false;
+        }
+        SakilaSnapshotFile.writeFromDatabase(dataSource, path);
+        current = SakilaSnapshotFile.open(path);
+        listener.accept(current);
+        return true;
+    }
+
+    /**
+     * Checks in the background, first straight away and then every interval, until {@link #stop()} is called
+     */
+    public synchronized void start(Duration interval, Consumer<String> warnings) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refreshIfStale();
+            } catch (SQLException | IOException e) {
+                // Keep serving the current snapshot (or the database) and try again on the next tick
+                warnings.accept("Could not refresh reference snapshot: " + e.getMessage());
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pluralsight.startup;
+
+import com.pluralsight.Color.ColorCodes;
+import com.pluralsight.MovieQueries;
+import com.pluralsight.model.Actor;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Starts the explorer's database stack, runs the first lookup and reports how long that took from JVM launch.
+ * <p>
+ * Used twice by the aot Maven profile: as the training run that records which classes get loaded, and by
+ * startup-benchmark.sh to compare time-to-first-query with and without the AOT cache. Exits with 1 when the
+ * first query fails, which fails the aot build rather than recording a cache without the query path.
+ */
+public class StartupProbe {
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java com.pluralsight.startup.StartupProbe <username> <password> <database_url>");
+            System.exit(2);
+        }
+
+        long mainStarted = System.nanoTime();
+
+        // The same pool Main builds, queried without a snapshot so the lookup really goes to MySQL
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setUrl(args[2]);
+        dataSource.setUsername(args[0]);
+        dataSource.setPassword(args[1]);
+        MovieQueries movieQueries = new MovieQueries(dataSource, System.out::println);
+
+        int status = 0;
+        try {
+            List<Actor> actors = movieQueries.actorsByLastName("GUINESS");
+            long firstQueryDone = System.nanoTime();
+
+            System.out.println(ColorCodes.CYAN + actors.size() + " actors" + ColorCodes.RESET);
+            System.out.println("main-to-first-query-ms " + (firstQueryDone - mainStarted) / 1_000_000);
+            System.out.println("launch-to-first-query-ms " + sinceLaunch().toMillis());
+        } catch (SQLException e) {
+            System.out.println("First query failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            try {
+                dataSource.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing data source: " + e.getMessage());
+            }
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Time since the OS started this process, so JVM boot and class loading are included
+     */
+    private static Duration sinceLaunch() {
+        Instant launched = ProcessHandle.current().info().startInstant().orElseThrow();
+        return Duration.between(launched, Instant.now());
+    }
+}
@@ -0,0 +1,32 @@
+-- Adds the change counter used by SakilaSnapshotFile.isCurrent.
+-- Every insert, update or delete on actor, film or film_actor bumps the one row of
+-- reference_version, so checking whether the snapshot is stale is a primary key read
+-- instead of counting and scanning the tables.
+
+CREATE TABLE reference_version (
+    id      TINYINT NOT NULL PRIMARY KEY,
+    version BIGINT  NOT NULL
+);
+
+INSERT INTO reference_version (id, version) VALUES (1, 0);
+
+CREATE TRIGGER actor_version_ins AFTER INSERT ON actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER actor_version_upd AFTER UPDATE ON actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER actor_version_del AFTER DELETE ON actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+
+CREATE TRIGGER film_version_ins AFTER INSERT ON film FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER film_version_upd AFTER UPDATE ON film FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER film_version_del AFTER DELETE ON film FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+
+CREATE TRIGGER film_actor_version_ins AFTER INSERT ON film_actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER film_actor_version_upd AFTER UPDATE ON film_actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
+CREATE TRIGGER film_actor_version_del AFTER DELETE ON film_actor FOR EACH ROW
+    UPDATE reference_version SET version = version + 1 WHERE id = 1;
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Compares time-to-first-query of an explorer with and without the AOT cache built by the aot Maven profile.
+#
+#   mvn -f SakilaMovies/pom.xml -Paot package -Daot.db.password=...
+#   ./startup-benchmark.sh SakilaMovies <username> <password> <database_url> [runs]
+#
+# Each run starts a fresh JVM with StartupProbe, which prints the milliseconds from process launch to the first
+# query's result. The median of all runs is reported for both modes.
+set -euo pipefail
+
+if [ $# -lt 4 ]; then
+    echo "Usage: $0 <SakilaMovies|NorthwindTraders> <username> <password> <database_url> [runs]"
+    exit 1
+fi
+
+module=$1
+username=$2
+password=$3
+url=$4
+runs=${5:-10}
+
+target="$(cd "$(dirname "$0")/$module/target" && pwd)"
+jar="$target/$module-1.0-SNAPSHOT.jar"
+cache="$target/app.aot"
+
+if [ ! -f "$jar" ] || [ ! -f "$cache" ]; then
+    echo "Missing $jar or $cache, build them first with: mvn -f $module/pom.xml -Paot package"
+    exit 1
+fi
+
+# Runs the probe once and prints its launch-to-first-query time
+probe() {
+    java "$@" -cp "$jar" com.pluralsight.startup.StartupProbe "$username" "$password" "$url" \
+        | awk '/^launch-to-first-query-ms/ { print $2 }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) { print "n/a" } else if (NR % 2) { print v[(NR + 1) / 2] } else { print (v[NR / 2] + v[NR / 2 + 1]) / 2 } }'
+}
+
+# One warm-up of each so the OS file cache is equally warm for both modes
+if ! probe > /dev/null || ! probe -XX:AOTCache="$cache" > /dev/null; then
+    echo "StartupProbe could not run its first query, check the database settings"
+    exit 1
+fi
+
+without=()
+with=()
+for ((i = 0; i < runs; i++)); do
+    without+=("$(probe)")
+    with+=("$(probe -XX:AOTCache="$cache")")
+done
+
+echo "$module, $runs run(s) each, median launch-to-first-query:"
+echo "  without AOT cache: $(printf '%s\n' "${without[@]}" | median) ms"
+echo "  with AOT cache:    $(printf '%s\n' "${with[@]}" | median) ms"